@@ -31,5 +31,6 @@ public class AdjectiveSynset extends Synset {
 
     public void setIsAdjectiveCluster(boolean isAdjectiveCluster) {
         this.isAdjectiveCluster = isAdjectiveCluster;
+        markDirty();
     }
 }
\ No newline at end of file
@@ -16,6 +16,11 @@ public abstract class BaseDictionaryElement implements DictionaryElement {
 
     protected transient Dictionary dictionary;
 
+    /**
+     * Whether the element has been changed since it was loaded or saved.
+     */
+    private transient boolean dirty;
+
     protected BaseDictionaryElement() {
     }
 
@@ -23,6 +28,34 @@ public abstract class BaseDictionaryElement implements DictionaryElement {
         return dictionary;
     }
 
+    /**
+     * Returns whether the element has been changed since the dictionary was loaded or saved.
+     *
+     * @return whether the element has been changed since the dictionary was loaded or saved
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Sets whether the element has been changed since the dictionary was loaded or saved.
+     *
+     * @param dirty whether the element has been changed
+     */
+    public void setDirty(boolean dirty) {
+        this.dirty = dirty;
+    }
+
+    /**
+     * Marks the element as changed and notifies the dictionary, if the dictionary is being edited.
+     */
+    protected void markDirty() {
+        if (null != dictionary && dictionary.isEditable()) {
+            dirty = true;
+            dictionary.elementChanged(this);
+        }
+    }
+
     public void setDictionary(Dictionary dictionary) throws JWNLException {
         if (dictionary != this.dictionary) {
             if (null != this.dictionary) {
@@ -33,6 +66,7 @@ public abstract class BaseDictionaryElement implements DictionaryElement {
             this.dictionary = dictionary;
             if (null != dictionary) {
                 dictionary.addElement(this);
+                markDirty();
             }
         }
     }
@@ -4,6 +4,8 @@ import net.sf.extjwnl.JWNLException;
 import net.sf.extjwnl.dictionary.Dictionary;
 import net.sf.extjwnl.util.ResourceBundleSet;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -36,6 +38,96 @@ public class Exc extends BaseDictionaryElement {
 	 */
 	private List<String> exceptions;
 
+	//for updates
+	private class ExceptionList extends ArrayList<String> {
+
+		private static final long serialVersionUID = 5L;
+
+		private ExceptionList(Collection<String> exceptions) {
+			super(exceptions);
+		}
+
+		@Override
+		public String set(int index, String exception) {
+			String result = super.set(index, exception);
+			markDirty();
+			return result;
+		}
+
+		@Override
+		public boolean add(String exception) {
+			boolean result = super.add(exception);
+			markDirty();
+			return result;
+		}
+
+		@Override
+		public void add(int index, String exception) {
+			super.add(index, exception);
+			markDirty();
+		}
+
+		@Override
+		public boolean addAll(Collection<? extends String> c) {
+			boolean result = super.addAll(c);
+			markDirty();
+			return result;
+		}
+
+		@Override
+		public boolean addAll(int index, Collection<? extends String> c) {
+			boolean result = super.addAll(index, c);
+			markDirty();
+			return result;
+		}
+
+		@Override
+		public String remove(int index) {
+			String result = super.remove(index);
+			markDirty();
+			return result;
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			boolean result = super.remove(o);
+			if (result) {
+				markDirty();
+			}
+			return result;
+		}
+
+		@Override
+		public void clear() {
+			super.clear();
+			markDirty();
+		}
+
+		@Override
+		protected void removeRange(int fromIndex, int toIndex) {
+			super.removeRange(fromIndex, toIndex);
+			markDirty();
+		}
+
+		@Override
+		public boolean removeAll(Collection<?> c) {
+			boolean result = super.removeAll(c);
+			if (result) {
+				markDirty();
+			}
+			return result;
+		}
+
+		@Override
+		public boolean retainAll(Collection<?> c) {
+			boolean result = super.retainAll(c);
+			if (result) {
+				markDirty();
+			}
+			return result;
+		}
+	}
+
 	/**
 	 * Creates a new exception entry.
 	 *
@@ -73,9 +165,10 @@ public class Exc extends BaseDictionaryElement {
 				throw new IllegalArgumentException("Exceptions must be not null and not empty");
 			}
 		}
-		this.exceptions = exceptions;
+		this.exceptions = new ExceptionList(exceptions);
 		if (null != dictionary && dictionary.isEditable()) {
 			dictionary.addElement(this);
+			markDirty();
 		}
 	}
 
@@ -121,6 +121,7 @@ public class IndexWord extends BaseDictionaryElement {
             loadAllSynsets();
             if (null != dictionary && dictionary.isEditable()) {
                 Synset result = super.set(index, synset);
+                markDirty();
                 if (null != result) {
                     removeWordsFromSynset(result, lemma);
                 }
@@ -138,6 +139,7 @@ public class IndexWord extends BaseDictionaryElement {
             loadAllSynsets();
             if (null != dictionary && dictionary.isEditable()) {
                 boolean result = super.add(synset);
+                markDirty();
                 addWord(synset, lemma);
                 return result;
             } else {
@@ -152,6 +154,7 @@ public class IndexWord extends BaseDictionaryElement {
             loadAllSynsets();
             if (null != dictionary && dictionary.isEditable()) {
                 super.add(index, synset);
+                markDirty();
                 addWord(synset, lemma);
             } else {
                 super.add(index, synset);
@@ -164,6 +167,7 @@ public class IndexWord extends BaseDictionaryElement {
             if (null != dictionary && dictionary.isEditable()) {
                 Dictionary d = dictionary;
                 Synset result = super.remove(index);
+                markDirty();
                 if (null != result) {
                     removeWordsFromSynset(result, lemma);
                     checkIfWeReEmptyAndRemoveIndexWord(d);
@@ -180,6 +184,9 @@ public class IndexWord extends BaseDictionaryElement {
             if (null != dictionary && dictionary.isEditable()) {
                 Dictionary d = dictionary;
                 boolean result = super.remove(o);
+                if (result) {
+                    markDirty();
+                }
                 if (result && o instanceof Synset) {
                     removeWordsFromSynset((Synset) o, lemma);
                     checkIfWeReEmptyAndRemoveIndexWord(d);
@@ -197,6 +204,7 @@ public class IndexWord extends BaseDictionaryElement {
                 Dictionary d = dictionary;
                 List<Synset> copy = new ArrayList<Synset>(this);
                 super.clear();
+                markDirty();
                 for (Synset synset : copy) {
                     removeWordsFromSynset(synset, lemma);
                 }
@@ -248,6 +256,7 @@ public class IndexWord extends BaseDictionaryElement {
             if (null != dictionary && dictionary.isEditable()) {
                 List<Synset> copy = new ArrayList<Synset>(subList(fromIndex, toIndex));
                 super.removeRange(fromIndex, toIndex);
+                markDirty();
                 for (Synset synset : copy) {
                     removeWordsFromSynset(synset, lemma);
                 }
@@ -294,6 +303,7 @@ public class IndexWord extends BaseDictionaryElement {
                 List<Synset> copy = new ArrayList<Synset>(this);
                 boolean result = super.removeAll(c);
                 if (result) {
+                    markDirty();
                     for (Object object : c) {
                         if (object instanceof Synset) {
                             Synset synset = (Synset) object;
@@ -318,6 +328,7 @@ public class IndexWord extends BaseDictionaryElement {
                 List<Synset> copy = new ArrayList<Synset>(this);
                 boolean result = super.retainAll(c);
                 if (result) {
+                    markDirty();
                     for (Synset synset : copy) {
                         if (!c.contains(synset)) {
                             removeWordsFromSynset(synset, lemma);
@@ -432,6 +443,7 @@ public class IndexWord extends BaseDictionaryElement {
         this.pos = pos;
         if (null != dictionary && dictionary.isEditable()) {
             dictionary.addElement(this);
+            markDirty();
         }
     }
 
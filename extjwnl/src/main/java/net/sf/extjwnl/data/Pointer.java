@@ -157,13 +157,25 @@ public class Pointer implements Serializable {
     }
 
     /**
-     * Sets the actual target of this pointer.
+     * Sets the actual target of this pointer. Marks the source synset and the old and new target synsets as changed.
      *
      * @param target actual target of this pointer
      */
     public void setTarget(PointerTarget target) {
+        PointerTarget oldTarget = this.target;
         this.target = target;
         targetIndex = null;
+        if (oldTarget != target) {
+            markDirty(source);
+            markDirty(oldTarget);
+            markDirty(target);
+        }
+    }
+
+    private static void markDirty(PointerTarget target) {
+        if (null != target && null != target.getSynset()) {
+            target.getSynset().markDirty();
+        }
     }
 
     /**
@@ -56,6 +56,11 @@ public class Synset extends PointerTarget implements DictionaryElement {
      */
     private long lexFileNum;
 
+    /**
+     * Whether the synset has been changed since it was loaded or saved.
+     */
+    private transient boolean dirty;
+
     //for access control and updates
     private class PointerList extends ArrayList<Pointer> {
 
@@ -126,6 +131,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
             Pointer old = get(index);
 
             Pointer result = super.set(index, pointer);
+            markDirty();
 
             // check symmetries and update if necessary
             if (null != dictionary && dictionary.isEditable() && dictionary.getManageSymmetricPointers()) {
@@ -141,6 +147,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
         public boolean add(Pointer pointer) {
             checkPointerIsNotNull(pointer);
             boolean result = super.add(pointer);
+            markDirty();
 
             if (null != dictionary && dictionary.isEditable() && dictionary.getManageSymmetricPointers()) {
                 addSymmetricPointerToTarget(pointer);
@@ -153,6 +160,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
         public void add(int index, Pointer pointer) {
             checkPointerIsNotNull(pointer);
             super.add(index, pointer);
+            markDirty();
 
             if (null != dictionary && dictionary.isEditable() && dictionary.getManageSymmetricPointers()) {
                 addSymmetricPointerToTarget(pointer);
@@ -184,6 +192,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
         @Override
         public Pointer remove(int index) {
             Pointer result = super.remove(index);
+            markDirty();
             if (null != dictionary && dictionary.isEditable() && dictionary.getManageSymmetricPointers()) {
                 deleteSymmetricPointerFromTarget(result);
             }
@@ -193,6 +202,9 @@ public class Synset extends PointerTarget implements DictionaryElement {
         @Override
         public boolean remove(Object o) {
             boolean result = super.remove(o);
+            if (result) {
+                markDirty();
+            }
             if (result && null != dictionary && dictionary.isEditable() && dictionary.getManageSymmetricPointers() && o instanceof Pointer) {
                 Pointer pointer = (Pointer) o;
                 deleteSymmetricPointerFromTarget(pointer);
@@ -205,6 +217,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
             if (null != dictionary && dictionary.isEditable()) {
                 List<Pointer> copy = new ArrayList<Pointer>(this);
                 super.clear();
+                markDirty();
                 if (dictionary.getManageSymmetricPointers()) {
                     for (Pointer pointer : copy) {
                         deleteSymmetricPointerFromTarget(pointer);
@@ -220,6 +233,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
             if (null != dictionary && dictionary.isEditable()) {
                 List<Pointer> copy = new ArrayList<Pointer>(super.subList(fromIndex, toIndex));
                 super.removeRange(fromIndex, toIndex);
+                markDirty();
                 for (Pointer pointer : copy) {
                     deleteSymmetricPointerFromTarget(pointer);
                 }
@@ -263,6 +277,9 @@ public class Synset extends PointerTarget implements DictionaryElement {
             if (null != dictionary && dictionary.isEditable()) {
                 List<Pointer> copy = new ArrayList<Pointer>(this);
                 boolean result = super.removeAll(c);
+                if (result) {
+                    markDirty();
+                }
                 if (dictionary.getManageSymmetricPointers()) {
                     for (Object object : c) {
                         if (object instanceof Pointer) {
@@ -284,6 +301,9 @@ public class Synset extends PointerTarget implements DictionaryElement {
             if (null != dictionary && dictionary.isEditable()) {
                 List<Pointer> copy = new ArrayList<Pointer>(this);
                 boolean result = super.retainAll(c);
+                if (result) {
+                    markDirty();
+                }
                 if (dictionary.getManageSymmetricPointers()) {
                     for (Pointer pointer : copy) {
                         if (!c.contains(pointer)) {
@@ -390,6 +410,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
             if (null != dictionary && dictionary.isEditable()) {
                 checkDictionaryIsOurs(word);
                 Word result = super.set(index, word);
+                markDirty();
                 if (null != result) {
                     removeThisSynsetFromIndexWords(result);
                 }
@@ -417,6 +438,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
             if (null != dictionary && dictionary.isEditable()) {
                 checkDictionaryIsOurs(word);
                 super.add(index, word);
+                markDirty();
                 addToIndexWords(word);
             } else {
                 super.add(index, word);
@@ -463,6 +485,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
         public Word remove(int index) {
             if (null != dictionary && dictionary.isEditable()) {
                 Word result = super.remove(index);
+                markDirty();
                 removeThisSynsetFromIndexWords(result);
                 return result;
             } else {
@@ -474,6 +497,9 @@ public class Synset extends PointerTarget implements DictionaryElement {
         public boolean remove(Object o) {
             if (null != dictionary && dictionary.isEditable()) {
                 boolean result = super.remove(o);
+                if (result) {
+                    markDirty();
+                }
                 if (result && o instanceof Word) {
                     removeThisSynsetFromIndexWords((Word) o);
                 }
@@ -488,6 +514,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
             if (null != dictionary && dictionary.isEditable()) {
                 List<Word> copy = new ArrayList<Word>(this);
                 super.clear();
+                markDirty();
                 for (Word word : copy) {
                     removeThisSynsetFromIndexWords(word);
                 }
@@ -501,6 +528,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
             if (null != dictionary && dictionary.isEditable()) {
                 List<Word> copy = new ArrayList<Word>(subList(fromIndex, toIndex));
                 super.removeRange(fromIndex, toIndex);
+                markDirty();
                 for (Word word : copy) {
                     removeThisSynsetFromIndexWords(word);
                 }
@@ -565,6 +593,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
 
         if (null != dictionary && dictionary.isEditable()) {
             dictionary.addSynset(this);
+            markDirty();
         }
     }
 
@@ -578,6 +607,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
         this.offset = offset;
         if (null != dictionary && dictionary.isEditable()) {
             dictionary.addSynset(this);
+            markDirty();
         }
     }
 
@@ -652,6 +682,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
             }
         }
         this.gloss = gloss;
+        markDirty();
     }
 
     public List<Word> getWords() {
@@ -758,6 +789,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
      */
     public void setLexFileNum(long lexFileNum) {
         this.lexFileNum = lexFileNum;
+        markDirty();
     }
 
     /**
@@ -769,6 +801,37 @@ public class Synset extends PointerTarget implements DictionaryElement {
         return LexFileIdFileNameMap.getMap().get(lexFileNum);
     }
 
+    /**
+     * Returns whether the synset has been changed since the dictionary was loaded or saved.
+     * Changes made through the setters of the synset and its words and through the lists of its
+     * words and pointers and through {@link Pointer#setTarget(PointerTarget)} are tracked. Changes made to verb frame flags in place are not tracked,
+     * such synsets should be marked with {@link #setDirty(boolean)}.
+     *
+     * @return whether the synset has been changed since the dictionary was loaded or saved
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Sets whether the synset has been changed since the dictionary was loaded or saved.
+     *
+     * @param dirty whether the synset has been changed
+     */
+    public void setDirty(boolean dirty) {
+        this.dirty = dirty;
+    }
+
+    /**
+     * Marks the synset as changed and notifies the dictionary, if the dictionary is being edited.
+     */
+    protected void markDirty() {
+        if (null != dictionary && dictionary.isEditable()) {
+            dirty = true;
+            dictionary.elementChanged(this);
+        }
+    }
+
     @Override
     public void setDictionary(Dictionary dictionary) throws JWNLException {
         if (dictionary != this.dictionary) {
@@ -780,6 +843,7 @@ public class Synset extends PointerTarget implements DictionaryElement {
             super.setDictionary(dictionary);
             if (null != dictionary) {
                 dictionary.addElement(this);
+                markDirty();
             }
         }
     }
@@ -51,6 +51,7 @@ public class VerbSynset extends Synset {
             }
         }
         this.verbFrameFlags = verbFrameFlags;
+        markDirty();
     }
 
     public int[] getVerbFrameIndices() {
@@ -1,6 +1,7 @@
 package net.sf.extjwnl.data;
 
 import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.JWNLRuntimeException;
 import net.sf.extjwnl.dictionary.Dictionary;
 import net.sf.extjwnl.util.ResourceBundleSet;
 
@@ -49,6 +50,11 @@ public class Word extends PointerTarget {
      */
     private int useCount;
 
+    /**
+     * Whether the use count should be requested from the dictionary on first access.
+     */
+    private volatile boolean useCountPending = false;
+
     /**
      * Constructs a word tied to a synset, it's position within the synset, and the lemma.
      *
@@ -132,6 +138,7 @@ public class Word extends PointerTarget {
      */
     public void setLexId(int lexId) {
         this.lexId = lexId;
+        synset.markDirty();
     }
 
     /**
@@ -170,6 +177,7 @@ public class Word extends PointerTarget {
      */
     public void setIndex(int index) {
         this.index = index;
+        synset.markDirty();
     }
 
     /**
@@ -187,6 +195,16 @@ public class Word extends PointerTarget {
      * @return the number of times each tagged sense occurs in a semantic concordance
      */
     public int getUseCount() {
+        if (useCountPending) {
+            if (null != dictionary) {
+                try {
+                    useCount = dictionary.getUseCount(this);
+                } catch (JWNLException e) {
+                    throw new JWNLRuntimeException(e);
+                }
+            }
+            useCountPending = false;
+        }
         return useCount;
     }
 
@@ -197,6 +215,16 @@ public class Word extends PointerTarget {
      */
     public void setUseCount(int useCount) {
         this.useCount = useCount;
+        useCountPending = false;
+        synset.markDirty();
+    }
+
+    /**
+     * Defers loading of the use count until the first {@link #getUseCount()} call,
+     * which requests it from the dictionary.
+     */
+    public void setUseCountPending() {
+        useCountPending = true;
     }
 
     /**
@@ -268,7 +296,12 @@ public class Word extends PointerTarget {
             ss_type = POS.ADJECTIVE_SATELLITE_ID;
         }
 
-        StringBuilder senseKey = new StringBuilder(String.format("%s%%%d:%02d:%02d:", lemma.toLowerCase().replace(' ', '_'), ss_type, synset.getLexFileNum(), lexId));
+        StringBuilder senseKey = new StringBuilder(lemma.length() + 16);
+        senseKey.append(lemma.toLowerCase().replace(' ', '_')).append('%').append(ss_type).append(':');
+        appendTwoDigits(senseKey, synset.getLexFileNum());
+        senseKey.append(':');
+        appendTwoDigits(senseKey, lexId);
+        senseKey.append(':');
 
         if (POS.ADJECTIVE_SATELLITE_ID == ss_type) {
             List<Pointer> p = synset.getPointers(PointerType.SIMILAR_TO);
@@ -284,7 +317,8 @@ public class Word extends PointerTarget {
                             lemma = lemma + "(" + a.getAdjectivePosition().getKey() + ")";
                         }
                     }
-                    senseKey.append(String.format("%s:%02d", lemma, word.getLexId()));
+                    senseKey.append(lemma).append(':');
+                    appendTwoDigits(senseKey, word.getLexId());
                 }
             }
         } else {
@@ -294,6 +328,22 @@ public class Word extends PointerTarget {
         return senseKey.toString();
     }
 
+    /**
+     * Appends <var>number</var> padded with zero to two digits, as %02d does.
+     */
+    private static void appendTwoDigits(StringBuilder builder, long number) {
+        if (0 <= number && number < 10) {
+            builder.append('0');
+        }
+        builder.append(number);
+    }
+
+    private void writeObject(java.io.ObjectOutputStream out) throws IOException {
+        // the dictionary is not serialized, the use count should be known
+        getUseCount();
+        out.defaultWriteObject();
+    }
+
     private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
         in.defaultReadObject();
         dictionary = Dictionary.getRestoreDictionary();
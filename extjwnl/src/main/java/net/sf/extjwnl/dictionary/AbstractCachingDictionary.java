@@ -2,14 +2,26 @@ package net.sf.extjwnl.dictionary;
 
 import net.sf.extjwnl.JWNLException;
 import net.sf.extjwnl.data.*;
+import net.sf.extjwnl.util.cache.BloomFilter;
+import net.sf.extjwnl.util.cache.Cache;
 import net.sf.extjwnl.util.cache.CacheSet;
+import net.sf.extjwnl.util.cache.CacheStats;
+import net.sf.extjwnl.util.cache.CacheStatsMBean;
+import net.sf.extjwnl.util.cache.DictionaryElementWeigher;
 import net.sf.extjwnl.util.cache.LRUCacheSet;
+import net.sf.extjwnl.util.cache.StatisticsCache;
+import net.sf.extjwnl.util.cache.TinyLFUCacheSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 
-import java.util.Iterator;
-import java.util.NoSuchElementException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
 
 /**
  * Extends <code>Dictionary</code> to provide caching of elements.
@@ -58,12 +70,88 @@ public abstract class AbstractCachingDictionary extends Dictionary {
         }
     }
 
+    /**
+     * Cache eviction policy: "lru" (default) evicts the least recently used elements, "tinylfu" admits elements
+     * by the frequency of their use, which keeps the frequently used elements during scans.
+     */
+    public static final String CACHE_POLICY = "cache_policy";
+    public static final String LRU_CACHE_POLICY = "lru";
+    public static final String TINY_LFU_CACHE_POLICY = "tinylfu";
+    private String cachePolicy = LRU_CACHE_POLICY;
+
+    /**
+     * JMX domain to register cache statistics in, one MBean per element type and part of speech, not set by default.
+     * MBeans are registered once the dictionary is constructed and unregistered on close.
+     */
+    public static final String JMX_DOMAIN = "jmx_domain";
+    private final List<ObjectName> mbeans = new ArrayList<ObjectName>();
+
+    /**
+     * Number of lemmas per part of speech remembered as missing from index words and exceptions,
+     * default 0, disabled. Spares the lookups of nonexistent forms tried by the morphological processor.
+     */
+    public static final String NEGATIVE_CACHE_SIZE = "negative_cache_size";
+    private final CacheSet<DictionaryElementType, Object, Boolean> misses;
+
+    /**
+     * Whether to keep a Bloom filter per part of speech over index word lemmas and exception derivations,
+     * default false. Lookups of lemmas absent from the filter return null without searching.
+     */
+    public static final String BLOOM_FILTER = "bloom_filter";
+    private boolean bloomFilterEnabled = false;
+
+    /**
+     * False positive rate of Bloom filters, default 0.01.
+     */
+    public static final String BLOOM_FILTER_FPP = "bloom_filter_fpp";
+    private double bloomFilterFpp = 0.01;
+    private volatile Map<DictionaryElementType, Map<POS, BloomFilter>> bloomFilters;
+
+    /**
+     * Element types looked up by lemma.
+     */
+    protected static final List<DictionaryElementType> LEMMA_TYPES =
+            Collections.unmodifiableList(Arrays.asList(DictionaryElementType.INDEX_WORD, DictionaryElementType.EXCEPTION));
+
     private volatile CacheSet<DictionaryElementType, Object, DictionaryElement> caches;
     protected boolean isCachingEnabled;
 
     protected AbstractCachingDictionary(Document doc) throws JWNLException {
         super(doc);
         isCachingEnabled = true;
+        if (params.containsKey(CACHE_POLICY)) {
+            cachePolicy = params.get(CACHE_POLICY).getValue();
+            if (!LRU_CACHE_POLICY.equals(cachePolicy) && !TINY_LFU_CACHE_POLICY.equals(cachePolicy)) {
+                throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_073", cachePolicy));
+            }
+        }
+        int negativeCacheSize = 0;
+        if (params.containsKey(NEGATIVE_CACHE_SIZE)) {
+            negativeCacheSize = Integer.parseInt(params.get(NEGATIVE_CACHE_SIZE).getValue());
+        }
+        if (0 < negativeCacheSize) {
+            if (TINY_LFU_CACHE_POLICY.equals(cachePolicy)) {
+                misses = new TinyLFUCacheSet<DictionaryElementType, Object, Boolean>(LEMMA_TYPES, negativeCacheSize);
+            } else {
+                misses = new LRUCacheSet<DictionaryElementType, Object, Boolean>(LEMMA_TYPES, negativeCacheSize);
+            }
+        } else {
+            misses = null;
+        }
+        if (params.containsKey(BLOOM_FILTER)) {
+            bloomFilterEnabled = "true".equalsIgnoreCase(params.get(BLOOM_FILTER).getValue());
+        }
+        if (params.containsKey(BLOOM_FILTER_FPP)) {
+            bloomFilterFpp = Double.parseDouble(params.get(BLOOM_FILTER_FPP).getValue());
+        }
+    }
+
+    @Override
+    protected void initialize() throws JWNLException {
+        super.initialize();
+        if (params.containsKey(JMX_DOMAIN)) {
+            registerMBeans(params.get(JMX_DOMAIN).getValue());
+        }
     }
 
     public boolean isCachingEnabled() {
@@ -92,6 +180,161 @@ public abstract class AbstractCachingDictionary extends Dictionary {
         getCaches().setCacheCapacity(type, size);
     }
 
+    /**
+     * Limits the cache of <var>type</var> elements by their estimated size in bytes rather than by their number.
+     * The budget is split evenly among parts of speech. Replaces the cache, dropping cached elements.
+     *
+     * @param type  element type
+     * @param bytes cache size in bytes
+     * @throws IllegalArgumentException if <var>bytes</var> is negative or the budget of a part of speech exceeds
+     *                                  <code>Integer.MAX_VALUE</code>
+     */
+    public void setCacheBytes(DictionaryElementType type, long bytes) {
+        long capacity = Math.max(1, bytes / POS.getAllPOS().size());
+        if (bytes < 0 || Integer.MAX_VALUE < capacity) {
+            throw new IllegalArgumentException(String.valueOf(bytes));
+        }
+        getCaches().addCache(type, (int) capacity, new DictionaryElementWeigher());
+    }
+
+    /**
+     * Returns statistics of the cache of <var>type</var> elements of <var>pos</var>.
+     * Caches which do not record statistics return empty statistics.
+     *
+     * @param type element type
+     * @param pos  part of speech
+     * @return cache statistics
+     */
+    public CacheStats getCacheStats(DictionaryElementType type, POS pos) {
+        return getStats(getCaches().getCache(type).getCache(pos));
+    }
+
+    /**
+     * Returns statistics of all caches by element type and part of speech.
+     *
+     * @return cache statistics
+     */
+    public Map<DictionaryElementType, Map<POS, CacheStats>> getCacheStats() {
+        Map<DictionaryElementType, Map<POS, CacheStats>> result =
+                new EnumMap<DictionaryElementType, Map<POS, CacheStats>>(DictionaryElementType.class);
+        for (DictionaryElementType d : DictionaryElementType.getAllDictionaryElementTypes()) {
+            Map<POS, CacheStats> stats = new EnumMap<POS, CacheStats>(POS.class);
+            for (POS pos : POS.getAllPOS()) {
+                stats.put(pos, getCacheStats(d, pos));
+            }
+            result.put(d, stats);
+        }
+        return result;
+    }
+
+    /**
+     * Records a load of an element into the cache.
+     *
+     * @param type      element type
+     * @param pos       part of speech
+     * @param startTime {@link System#nanoTime()} when the load started
+     */
+    protected void recordLoad(DictionaryElementType type, POS pos, long startTime) {
+        if (isCachingEnabled()) {
+            Cache<Object, DictionaryElement> cache = getCaches().getCache(type).getCache(pos);
+            if (cache instanceof StatisticsCache) {
+                ((StatisticsCache<Object, DictionaryElement>) cache).getStats().recordLoad(System.nanoTime() - startTime);
+            }
+        }
+    }
+
+    private static CacheStats getStats(Cache<Object, DictionaryElement> cache) {
+        if (cache instanceof StatisticsCache) {
+            return ((StatisticsCache<Object, DictionaryElement>) cache).getStats();
+        }
+        return new CacheStats();
+    }
+
+    private void registerMBeans(String domain) throws JWNLException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        String dictionary = Integer.toHexString(System.identityHashCode(this));
+        for (final DictionaryElementType d : DictionaryElementType.getAllDictionaryElementTypes()) {
+            for (final POS pos : POS.getAllPOS()) {
+                String name = domain + ":type=CacheStats,dictionary=" + dictionary + ",element=" + d.getName() + ",pos=" + pos.getLabel();
+                try {
+                    ObjectName objectName = new ObjectName(name);
+                    // looks up the cache on each call, because caches are created lazily and might be replaced
+                    server.registerMBean(new StandardMBean(new CacheStatsMBean() {
+                        public long getHitCount() {
+                            return getStats().getHitCount();
+                        }
+
+                        public long getMissCount() {
+                            return getStats().getMissCount();
+                        }
+
+                        public double getHitRate() {
+                            return getStats().getHitRate();
+                        }
+
+                        public long getLoadCount() {
+                            return getStats().getLoadCount();
+                        }
+
+                        public long getTotalLoadTime() {
+                            return getStats().getTotalLoadTime();
+                        }
+
+                        public double getAverageLoadTime() {
+                            return getStats().getAverageLoadTime();
+                        }
+
+                        public long getEvictionCount() {
+                            return getStats().getEvictionCount();
+                        }
+
+                        public long getSize() {
+                            return isCachingEnabled() ? getCache().size() : 0;
+                        }
+
+                        public long getCapacity() {
+                            return isCachingEnabled() ? getCache().getCapacity() : 0;
+                        }
+
+                        public void reset() {
+                            getStats().reset();
+                        }
+
+                        private CacheStats getStats() {
+                            return isCachingEnabled() ? AbstractCachingDictionary.getStats(getCache()) : new CacheStats();
+                        }
+
+                        private Cache<Object, DictionaryElement> getCache() {
+                            return getCaches().getCache(d).getCache(pos);
+                        }
+                    }, CacheStatsMBean.class), objectName);
+                    mbeans.add(objectName);
+                } catch (JMException e) {
+                    throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_074", name), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Unregisters cache statistics MBeans, if any. Called on close.
+     */
+    protected void unregisterMBeans() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName objectName : mbeans) {
+            try {
+                server.unregisterMBean(objectName);
+            } catch (InstanceNotFoundException e) {
+                // already unregistered
+            } catch (JMException e) {
+                if (log.isWarnEnabled()) {
+                    log.warn(getMessages().resolveMessage("DICTIONARY_WARN_007", objectName), e);
+                }
+            }
+        }
+        mbeans.clear();
+    }
+
     public void clearCache() {
         for (DictionaryElementType d : DictionaryElementType.getAllDictionaryElementTypes()) {
             clearCache(d);
@@ -102,6 +345,9 @@ public abstract class AbstractCachingDictionary extends Dictionary {
         if (isCachingEnabled()) {
             getCaches().clearCache(elementType);
         }
+        if (null != misses && LEMMA_TYPES.contains(elementType)) {
+            misses.clearCache(elementType);
+        }
     }
 
     protected void cacheIndexWord(IndexWord word) {
@@ -142,6 +388,31 @@ public abstract class AbstractCachingDictionary extends Dictionary {
         return (Exc) getCached(DictionaryElementType.EXCEPTION, pos, key);
     }
 
+    /**
+     * Remembers that there is no index word or exception with <var>key</var>.
+     *
+     * @param type INDEX_WORD or EXCEPTION
+     * @param pos  part of speech
+     * @param key  lemma
+     */
+    protected void cacheMiss(DictionaryElementType type, POS pos, Object key) {
+        if (isCachingEnabled() && null != misses) {
+            misses.cacheObject(type, pos, key, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Returns whether there is known to be no index word or exception with <var>key</var>.
+     *
+     * @param type INDEX_WORD or EXCEPTION
+     * @param pos  part of speech
+     * @param key  lemma
+     * @return true, if the element is known to be missing
+     */
+    protected boolean isMissCached(DictionaryElementType type, POS pos, Object key) {
+        return isCachingEnabled() && null != misses && null != misses.getCachedObject(type, pos, key);
+    }
+
     private CacheSet<DictionaryElementType, Object, DictionaryElement> getCaches() {
         if (!isCachingEnabled()) {
             throw new IllegalStateException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_022"));
@@ -152,8 +423,14 @@ public abstract class AbstractCachingDictionary extends Dictionary {
             synchronized (this) {
                 result = caches;
                 if (null == result) {
-                    caches = result = new LRUCacheSet<DictionaryElementType, Object, DictionaryElement>
-                            (DictionaryElementType.getAllDictionaryElementTypes());
+                    if (TINY_LFU_CACHE_POLICY.equals(cachePolicy)) {
+                        result = new TinyLFUCacheSet<DictionaryElementType, Object, DictionaryElement>
+                                (DictionaryElementType.getAllDictionaryElementTypes());
+                    } else {
+                        result = new LRUCacheSet<DictionaryElementType, Object, DictionaryElement>
+                                (DictionaryElementType.getAllDictionaryElementTypes());
+                    }
+                    caches = result;
                 }
             }
         }
@@ -172,6 +449,93 @@ public abstract class AbstractCachingDictionary extends Dictionary {
         }
     }
 
+    public boolean isBloomFilterEnabled() {
+        return bloomFilterEnabled;
+    }
+
+    /**
+     * Returns Bloom filters by element type and part of speech, null if they are not built.
+     *
+     * @return Bloom filters
+     */
+    protected Map<DictionaryElementType, Map<POS, BloomFilter>> getBloomFilters() {
+        return bloomFilters;
+    }
+
+    protected void setBloomFilters(Map<DictionaryElementType, Map<POS, BloomFilter>> bloomFilters) {
+        this.bloomFilters = bloomFilters;
+    }
+
+    /**
+     * Creates a Bloom filter over <var>keys</var>.
+     *
+     * @param keys lemmas
+     * @return Bloom filter
+     */
+    protected BloomFilter createBloomFilter(Collection<?> keys) {
+        BloomFilter result = new BloomFilter(keys.size(), bloomFilterFpp);
+        for (Object key : keys) {
+            result.put(toBloomFilterKey(key));
+        }
+        return result;
+    }
+
+    /**
+     * Rebuilds Bloom filters from cached index words and exceptions. All of them are cached in an editable dictionary.
+     */
+    protected void rebuildBloomFilters() {
+        Map<DictionaryElementType, Map<POS, BloomFilter>> result =
+                new EnumMap<DictionaryElementType, Map<POS, BloomFilter>>(DictionaryElementType.class);
+        for (DictionaryElementType d : LEMMA_TYPES) {
+            Map<POS, BloomFilter> filters = new EnumMap<POS, BloomFilter>(POS.class);
+            for (POS pos : POS.getAllPOS()) {
+                filters.put(pos, createBloomFilter(getCaches().getCache(d).getCache(pos).keySet()));
+            }
+            result.put(d, filters);
+        }
+        bloomFilters = result;
+    }
+
+    /**
+     * Returns false if there is certainly no index word or exception with <var>key</var>.
+     *
+     * @param type INDEX_WORD or EXCEPTION
+     * @param pos  part of speech
+     * @param key  lemma
+     * @return false if the element certainly does not exist
+     */
+    protected boolean mightContain(DictionaryElementType type, POS pos, String key) {
+        Map<DictionaryElementType, Map<POS, BloomFilter>> filters = bloomFilters;
+        if (null != filters) {
+            BloomFilter filter = filters.get(type).get(pos);
+            return null == filter || filter.mightContain(toBloomFilterKey(key));
+        }
+        return true;
+    }
+
+    private void addToBloomFilter(DictionaryElementType type, POS pos, Object key) {
+        Map<DictionaryElementType, Map<POS, BloomFilter>> filters = bloomFilters;
+        if (null != filters) {
+            BloomFilter filter = filters.get(type).get(pos);
+            if (null != filter) {
+                filter.put(toBloomFilterKey(key));
+            }
+        }
+    }
+
+    /**
+     * Lemmas are searched with underscores in place of spaces, either form matches.
+     */
+    private static String toBloomFilterKey(Object key) {
+        return key.toString().replace('_', ' ').toLowerCase();
+    }
+
+    private void clearMiss(DictionaryElementType type, POS pos, Object key) {
+        if (null != misses) {
+            misses.clearObject(type, pos, key);
+        }
+    }
+
     private DictionaryElement getCached(DictionaryElementType fileType, POS pos, Object key) {
         if (isCachingEnabled()) {
             return getCaches().getCachedObject(fileType, pos, key);
@@ -217,12 +581,27 @@ public abstract class AbstractCachingDictionary extends Dictionary {
     public synchronized void edit() throws JWNLException {
         if (!isEditable()) {
             cacheAll();
+            cacheLoaded();
             super.edit();
+            // all elements are cached, lookups do not miss anymore
+            if (null != misses) {
+                for (DictionaryElementType d : LEMMA_TYPES) {
+                    misses.clearCache(d);
+                }
+            }
             // resolving pointers here to use faster iterators on hashes
             resolveAllPointers();
         }
     }
 
+    /**
+     * Called by {@link #edit()} when all elements are cached, before the dictionary becomes editable.
+     *
+     * @throws JWNLException JWNLException
+     */
+    protected void cacheLoaded() throws JWNLException {
+    }
+
     @Override
     public void addSynset(Synset synset) throws JWNLException {
         super.addSynset(synset);
@@ -239,6 +618,8 @@ public abstract class AbstractCachingDictionary extends Dictionary {
     public void addException(Exc exc) throws JWNLException {
         super.addException(exc);
         cacheException(exc);
+        clearMiss(DictionaryElementType.EXCEPTION, exc.getPOS(), exc.getKey());
+        addToBloomFilter(DictionaryElementType.EXCEPTION, exc.getPOS(), exc.getKey());
     }
 
     @Override
@@ -251,6 +632,8 @@ public abstract class AbstractCachingDictionary extends Dictionary {
     public void addIndexWord(IndexWord indexWord) throws JWNLException {
         super.addIndexWord(indexWord);
         cacheIndexWord(indexWord);
+        clearMiss(DictionaryElementType.INDEX_WORD, indexWord.getPOS(), indexWord.getKey());
+        addToBloomFilter(DictionaryElementType.INDEX_WORD, indexWord.getPOS(), indexWord.getKey());
     }
 
     @Override
@@ -4,15 +4,16 @@ import net.sf.extjwnl.JWNLException;
 import net.sf.extjwnl.JWNLRuntimeException;
 import net.sf.extjwnl.data.*;
 import net.sf.extjwnl.dictionary.database.DatabaseManager;
+import net.sf.extjwnl.dictionary.database.DatabaseManagerImpl;
 import net.sf.extjwnl.dictionary.database.Query;
 import net.sf.extjwnl.princeton.data.AbstractDictionaryElementFactory;
+import net.sf.extjwnl.util.cache.BloomFilter;
 import net.sf.extjwnl.util.factory.Param;
 import org.w3c.dom.Document;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.util.*;
 
 /**
  * Database-backed dictionary.
@@ -40,6 +41,48 @@ public class DatabaseBackedDictionary extends AbstractCachingDictionary {
         }
         Param param = params.get(DATABASE_MANAGER);
         this.dbManager = (param == null) ? null : (DatabaseManager) param.create();
+
+        if (isBloomFilterEnabled() && null != dbManager) {
+            initBloomFilters();
+        }
+    }
+
+    /**
+     * Builds Bloom filters over lemmas and derivations in the database.
+     *
+     * @throws JWNLException JWNLException
+     */
+    private void initBloomFilters() throws JWNLException {
+        Map<DictionaryElementType, Map<POS, BloomFilter>> filters =
+                new EnumMap<DictionaryElementType, Map<POS, BloomFilter>>(DictionaryElementType.class);
+        for (DictionaryElementType d : LEMMA_TYPES) {
+            Map<POS, BloomFilter> posFilters = new EnumMap<POS, BloomFilter>(POS.class);
+            for (POS pos : POS.getAllPOS()) {
+                List<String> lemmas = new ArrayList<String>();
+                Query query = null;
+                try {
+                    if (DictionaryElementType.INDEX_WORD == d) {
+                        query = dbManager.getIndexWordLemmasQuery(pos);
+                    } else {
+                        query = dbManager.getExceptionsQuery(pos);
+                    }
+                    ResultSet results = query.execute();
+                    while (results.next()) {
+                        lemmas.add(results.getString(1));
+                    }
+                } catch (SQLException e) {
+                    String key = DictionaryElementType.INDEX_WORD == d ? "DICTIONARY_EXCEPTION_064" : "DICTIONARY_EXCEPTION_067";
+                    throw new JWNLException(getMessages().resolveMessage(key, pos.getLabel()), e);
+                } finally {
+                    if (null != query) {
+                        query.close();
+                    }
+                }
+                posFilters.put(pos, createBloomFilter(lemmas));
+            }
+            filters.put(d, posFilters);
+        }
+        setBloomFilters(filters);
     }
 
     public IndexWord getIndexWord(POS pos, String lemma) throws JWNLException {
@@ -49,13 +92,19 @@ public class DatabaseBackedDictionary extends AbstractCachingDictionary {
             if (isCachingEnabled()) {
                 word = getCachedIndexWord(pos, lemma);
             }
-            if (word == null) {
+            if (word == null && mightContain(DictionaryElementType.INDEX_WORD, pos, lemma)
+                    && !isMissCached(DictionaryElementType.INDEX_WORD, pos, lemma)) {
                 Query query = null;
+                long start = System.nanoTime();
                 try {
                     query = dbManager.getIndexWordSynsetsQuery(pos, lemma);
                     word = factory.createIndexWord(pos, lemma, query.execute());
                     if (word != null && isCachingEnabled()) {
                         cacheIndexWord(word);
+                        recordLoad(DictionaryElementType.INDEX_WORD, pos, start);
+                    }
+                    if (null == word) {
+                        cacheMiss(DictionaryElementType.INDEX_WORD, pos, lemma);
                     }
                 } catch (SQLException e) {
                     throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_004", new Object[]{pos.getLabel(), lemma}), e);
@@ -89,6 +138,20 @@ public class DatabaseBackedDictionary extends AbstractCachingDictionary {
         return new IndexWordIterator(pos, query);
     }
 
+    @Override
+    public Iterator<IndexWord> getIndexWordIterator(POS pos, String substring, boolean prefixOnly) throws JWNLException {
+        if (!prefixOnly || !(dbManager instanceof DatabaseManagerImpl)) {
+            return super.getIndexWordIterator(pos, substring, prefixOnly);
+        }
+        Query query;
+        try {
+            query = ((DatabaseManagerImpl) dbManager).getIndexWordLemmasPrefixQuery(pos, prepareQueryString(substring));
+        } catch (SQLException e) {
+            throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_065", new Object[]{pos.getLabel(), substring}), e);
+        }
+        return new IndexWordIterator(pos, query);
+    }
+
     public IndexWord getRandomIndexWord(POS pos) throws JWNLException {
         Query query = null;
         String lemma;
@@ -119,6 +182,7 @@ public class DatabaseBackedDictionary extends AbstractCachingDictionary {
             Query wordQuery = null;
             Query pointerQuery = null;
             Query verbFrameQuery = null;
+            long start = System.nanoTime();
             try {
                 query = dbManager.getSynsetQuery(pos, offset);
                 wordQuery = dbManager.getSynsetWordQuery(pos, offset);
@@ -128,6 +192,7 @@ public class DatabaseBackedDictionary extends AbstractCachingDictionary {
                         pointerQuery.execute(), POS.VERB == pos ? verbFrameQuery.execute() : null);
                 if (synset != null && isCachingEnabled()) {
                     cacheSynset(synset);
+                    recordLoad(DictionaryElementType.SYNSET, pos, start);
                 }
             } catch (SQLException e) {
                 throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_005", new Object[]{pos.getLabel(), offset}), e);
@@ -165,13 +230,19 @@ public class DatabaseBackedDictionary extends AbstractCachingDictionary {
         if (isCachingEnabled()) {
             exc = getCachedException(pos, derivation);
         }
-        if (exc == null) {
+        if (exc == null && mightContain(DictionaryElementType.EXCEPTION, pos, derivation)
+                && !isMissCached(DictionaryElementType.EXCEPTION, pos, derivation)) {
             Query query = null;
+            long start = System.nanoTime();
             try {
                 query = dbManager.getExceptionQuery(pos, derivation);
                 exc = factory.createExc(pos, derivation, query.execute());
                 if (exc != null && isCachingEnabled()) {
                     cacheException(exc);
+                    recordLoad(DictionaryElementType.EXCEPTION, pos, start);
+                }
+                if (null == exc) {
+                    cacheMiss(DictionaryElementType.EXCEPTION, pos, derivation);
                 }
             } catch (SQLException e) {
                 throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_006", new Object[]{pos.getLabel(), derivation}), e);
@@ -195,6 +266,7 @@ public class DatabaseBackedDictionary extends AbstractCachingDictionary {
     }
 
     public void close() {
+        unregisterMBeans();
         dbManager.close();
     }
 
@@ -92,6 +92,9 @@ public abstract class Dictionary {
 
     private volatile boolean editable;
 
+    // lemma indexes for fuzzy lookups, built on first use, only for read-only dictionaries
+    private final Map<POS, FuzzyLemmaIndex> fuzzyIndexes = new EnumMap<POS, FuzzyLemmaIndex>(POS.class);
+
     private static final String DEFAULT_FILE_DICTIONARY_PATH = "./data/wn30";
     private static final String DEFAULT_MAP_DICTIONARY_PATH = "./data/map";
     private static final String DEFAULT_DB_DICTIONARY_PATH = "jdbc:mysql://localhost/jwnl?user=root";
@@ -227,6 +230,13 @@ public abstract class Dictionary {
             throw new JWNLException(staticMessages.resolveMessage("DICTIONARY_UNABLE_TO_CREATE_INSTANCE", new Object[]{dictionaryClassName, Util.getRootCause(e)}), e);
         }
 
+        try {
+            dictionary.initialize();
+        } catch (JWNLException e) {
+            dictionary.close();
+            throw e;
+        }
+
         return dictionary;
     }
 
@@ -396,6 +406,39 @@ public abstract class Dictionary {
      */
     public abstract Iterator<IndexWord> getIndexWordIterator(POS pos, String substring) throws JWNLException;
 
+    /**
+     * Returns an Iterator over all the IndexWords of part-of-speech <var>pos</var>
+     * whose lemmas start with <var>substring</var>, if <var>prefixOnly</var>, or contain it otherwise.
+     * Prefix matches are returned in lemma order. Backends with sorted indexes find the first match
+     * and read forward until the lemmas stop matching, others filter all index words.
+     *
+     * @param pos        The part-of-speech.
+     * @param substring  substring
+     * @param prefixOnly whether <var>substring</var> should be a prefix of the lemma
+     * @return An iterator over <code>IndexWord</code>s.
+     * @throws JWNLException JWNLException
+     */
+    public Iterator<IndexWord> getIndexWordIterator(POS pos, String substring, boolean prefixOnly) throws JWNLException {
+        if (!prefixOnly) {
+            return getIndexWordIterator(pos, substring);
+        }
+        String prefix = prepareQueryString(substring);
+        List<IndexWord> result = new ArrayList<IndexWord>();
+        Iterator<IndexWord> i = getIndexWordIterator(pos);
+        while (i.hasNext()) {
+            IndexWord word = i.next();
+            if (word.getLemma().startsWith(prefix)) {
+                result.add(word);
+            }
+        }
+        Collections.sort(result, new Comparator<IndexWord>() {
+            public int compare(IndexWord o1, IndexWord o2) {
+                return o1.getLemma().compareTo(o2.getLemma());
+            }
+        });
+        return result.iterator();
+    }
+
     /**
      * Looks up a word. The search is case-independent,
      * and phrases are separated by spaces ("look up", not "look_up").
@@ -463,6 +506,16 @@ public abstract class Dictionary {
      */
     public abstract void close();
 
+    /**
+     * Called once the dictionary is constructed, before it is returned by {@link #getInstance(InputSource)}.
+     * Acquires resources which outlive the dictionary and should not leak if a constructor fails.
+     * The dictionary is closed if this fails.
+     *
+     * @throws JWNLException JWNLException
+     */
+    protected void initialize() throws JWNLException {
+    }
+
     public ResourceBundleSet getMessages() {
         return messages;
     }
@@ -501,6 +554,37 @@ public abstract class Dictionary {
         return result;
     }
 
+    /**
+     * Returns the use count of <var>word</var>. Called by words which defer loading of their use counts,
+     * see {@link Word#setUseCountPending()}.
+     *
+     * @param word word
+     * @return the number of times the sense occurs in a semantic concordance
+     * @throws JWNLException JWNLException
+     */
+    public int getUseCount(Word word) throws JWNLException {
+        return 0;
+    }
+
+    /**
+     * Returns words by specified <var>senseKeys</var>. Keys are looked up in sorted order, which keeps
+     * file accesses local.
+     *
+     * @param senseKeys sense keys
+     * @return a map from sense keys to words, keys which are not found are not in the map
+     * @throws JWNLException JWNLException
+     */
+    public Map<String, Word> getWordsBySenseKeys(Collection<String> senseKeys) throws JWNLException {
+        Map<String, Word> result = new HashMap<String, Word>(senseKeys.size());
+        for (String senseKey : new TreeSet<String>(senseKeys)) {
+            Word word = getWordBySenseKey(senseKey);
+            if (null != word) {
+                result.put(senseKey, word);
+            }
+        }
+        return result;
+    }
+
     /**
      * Looks up a word <var>lemma</var>. First tries a normal lookup. If that doesn't work,
      * tries looking up the stemmed form of the lemma.
@@ -519,6 +603,61 @@ public abstract class Dictionary {
         return word;
     }
 
+    /**
+     * Looks up index words whose lemmas are within <var>maxEdits</var> insertions, deletions and substitutions
+     * of <var>lemma</var>, for example to suggest corrections of a misspelled query. The best matches come first:
+     * those with fewer edits, then those with more senses. The lemmas of the part of speech are indexed on first
+     * use, read-only dictionaries keep the index until they are put into edit mode.
+     *
+     * @param pos      the part-of-speech of the word to look up
+     * @param lemma    the lemma to look up
+     * @param maxEdits maximum number of edits
+     * @param limit    maximum number of index words to return
+     * @return index words within <var>maxEdits</var> edits of <var>lemma</var>, best matches first
+     * @throws JWNLException JWNLException
+     */
+    public List<IndexWord> lookupFuzzy(POS pos, String lemma, int maxEdits, int limit) throws JWNLException {
+        List<IndexWord> result = new ArrayList<IndexWord>();
+        for (String match : getFuzzyLemmaIndex(pos).lookup(prepareQueryString(lemma), maxEdits, limit)) {
+            IndexWord word = getIndexWord(pos, match);
+            if (null != word) {
+                result.add(word);
+            }
+        }
+        return result;
+    }
+
+    private FuzzyLemmaIndex getFuzzyLemmaIndex(POS pos) throws JWNLException {
+        if (isEditable()) {
+            return buildFuzzyLemmaIndex(pos);
+        }
+        synchronized (fuzzyIndexes) {
+            FuzzyLemmaIndex result = fuzzyIndexes.get(pos);
+            if (null == result) {
+                result = buildFuzzyLemmaIndex(pos);
+                fuzzyIndexes.put(pos, result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Builds the index of lemmas of part-of-speech <var>pos</var> for fuzzy lookups.
+     *
+     * @param pos part of speech
+     * @return lemma index
+     * @throws JWNLException JWNLException
+     */
+    protected FuzzyLemmaIndex buildFuzzyLemmaIndex(POS pos) throws JWNLException {
+        FuzzyLemmaIndex.Builder builder = new FuzzyLemmaIndex.Builder();
+        Iterator<IndexWord> i = getIndexWordIterator(pos);
+        while (i.hasNext()) {
+            IndexWord word = i.next();
+            builder.add(word.getLemma(), word.getSynsetOffsets().length);
+        }
+        return builder.build();
+    }
+
     /**
      * Returns a set of <code>IndexWord</code>s, with each element in the set
      * corresponding to a part-of-speech of <var>word</var>.
@@ -565,6 +704,9 @@ public abstract class Dictionary {
     public synchronized void edit() throws JWNLException {
         if (!editable) {
             editable = true;
+            synchronized (fuzzyIndexes) {
+                fuzzyIndexes.clear();
+            }
         }
     }
 
@@ -584,9 +726,23 @@ public abstract class Dictionary {
                 if (log.isDebugEnabled()) {
                     log.debug(messages.resolveMessage("DICTIONARY_INFO_015", pos.getLabel()));
                 }
-                Iterator<IndexWord> ii = getIndexWordIterator(pos);
-                while (ii.hasNext()) {
-                    IndexWord iw = ii.next();
+                //words without lex ids are new, they are in changed synsets
+                Set<IndexWord> indexWords = new HashSet<IndexWord>();
+                Iterator<Synset> si = getSynsetIterator(pos);
+                while (si.hasNext()) {
+                    Synset synset = si.next();
+                    if (synset.isDirty()) {
+                        for (Word word : synset.getWords()) {
+                            if (-1 == word.getLexId()) {
+                                IndexWord iw = getIndexWord(pos, word.getLemma());
+                                if (null != iw) {
+                                    indexWords.add(iw);
+                                }
+                            }
+                        }
+                    }
+                }
+                for (IndexWord iw : indexWords) {
                     //lex ids should be unique within lex file name
                     //lex file name -> list of words
                     Map<Long, List<Word>> words = new HashMap<Long, List<Word>>();
@@ -654,6 +810,14 @@ public abstract class Dictionary {
         }
     }
 
+    /**
+     * Called by elements of the dictionary when they are changed while the dictionary is being edited.
+     *
+     * @param element changed element
+     */
+    public void elementChanged(DictionaryElement element) {
+    }
+
     /**
      * Removes the dictionary <var>element</var> from the dictionary.
      *
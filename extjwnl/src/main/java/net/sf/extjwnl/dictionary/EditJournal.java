@@ -0,0 +1,478 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.*;
+import net.sf.extjwnl.dictionary.file.DictionaryFileType;
+import net.sf.extjwnl.princeton.data.AbstractDictionaryElementFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of dictionary edits. Elements changed while editing are collected and appended to the journal
+ * by {@link #sync()} as one group of binary records, which is forced to disk once. A record holds the state of
+ * an element or its removal. Groups are checksummed and an incomplete group left by a crash is discarded.
+ * Replaying the journal over the elements loaded from the dictionary files restores the edits.
+ * The journal starts with the lengths and modification times of the data files it was written for, and a journal
+ * written for other files, for example before they were saved, is discarded, as is a journal with an incomplete header.
+ * Edits are durable only after {@link #sync()}, edits which are not synced yet are lost in a crash.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+class EditJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(EditJournal.class);
+
+    private static final int MAGIC = 0x4a524e4c;
+    private static final int VERSION = 2;
+    private static final int HEADER_LENGTH = 8 + 16 * POS.getAllPOS().size();
+
+    private static final byte SYNSET = 1;
+    private static final byte INDEX_WORD = 2;
+    private static final byte EXCEPTION = 3;
+
+    private final FileBackedDictionary dictionary;
+    private final File file;
+    private final Set<Key> changed = new LinkedHashSet<Key>();
+    private RandomAccessFile raFile;
+
+    public EditJournal(FileBackedDictionary dictionary, File file) {
+        this.dictionary = dictionary;
+        this.file = file;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns whether the journal contains edits.
+     *
+     * @return whether the journal contains edits
+     */
+    public boolean hasRecords() {
+        return HEADER_LENGTH < file.length();
+    }
+
+    /**
+     * Returns the size of the journal in bytes.
+     *
+     * @return the size of the journal in bytes
+     */
+    public long size() {
+        return file.length();
+    }
+
+    /**
+     * Remembers that <var>element</var> has changed.
+     *
+     * @param element changed element
+     */
+    public synchronized void changed(DictionaryElement element) {
+        if (element instanceof Synset) {
+            changed.add(new Key(SYNSET, element.getPOS(), element.getKey()));
+        } else if (element instanceof IndexWord) {
+            changed.add(new Key(INDEX_WORD, element.getPOS(), element.getKey()));
+        } else if (element instanceof Exc) {
+            changed.add(new Key(EXCEPTION, element.getPOS(), element.getKey()));
+        }
+    }
+
+    /**
+     * Appends the elements changed since the last sync to the journal and forces it to disk.
+     *
+     * @return the number of records written
+     * @throws IOException   IOException
+     * @throws JWNLException JWNLException
+     */
+    public synchronized int sync() throws IOException, JWNLException {
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Key key : changed) {
+            writeRecord(out, key);
+        }
+        out.flush();
+        byte[] records = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(records);
+
+        FileChannel channel = open().getChannel();
+        long position = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate((0 == position ? HEADER_LENGTH : 0) + 8 + records.length);
+        if (0 == position) {
+            buffer.putInt(MAGIC);
+            buffer.putInt(VERSION);
+            for (long value : getDataFileFingerprint()) {
+                buffer.putLong(value);
+            }
+        }
+        buffer.putInt(records.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(records);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position = position + channel.write(buffer, position);
+        }
+        channel.force(false);
+
+        int result = changed.size();
+        changed.clear();
+        return result;
+    }
+
+    /**
+     * Applies the journal to the cached elements of the dictionary. Elements are replaced as a whole, and since
+     * they are created while the dictionary is not editable yet, creating them does not change other elements.
+     *
+     * @return the number of records applied
+     * @throws IOException   IOException
+     * @throws JWNLException JWNLException
+     */
+    public synchronized int replay() throws IOException, JWNLException {
+        if (!file.exists() || 0 == file.length()) {
+            return 0;
+        }
+        int result = 0;
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            // the header is written with the first group, a crash while writing it leaves a short or zeroed header
+            int magic = file.length() < HEADER_LENGTH ? 0 : in.readInt();
+            if (0 == magic) {
+                if (log.isWarnEnabled()) {
+                    log.warn(dictionary.getMessages().resolveMessage("DICTIONARY_WARN_008", file));
+                }
+                in.close();
+                reset();
+                return 0;
+            }
+            if (MAGIC != magic || VERSION != in.readInt()) {
+                throw new JWNLException(dictionary.getMessages().resolveMessage("DICTIONARY_EXCEPTION_072", file));
+            }
+            long[] fingerprint = getDataFileFingerprint();
+            boolean matches = true;
+            for (long value : fingerprint) {
+                matches = matches && value == in.readLong();
+            }
+            if (!matches) {
+                if (log.isWarnEnabled()) {
+                    log.warn(dictionary.getMessages().resolveMessage("DICTIONARY_WARN_005", file));
+                }
+                in.close();
+                reset();
+                return 0;
+            }
+
+            long position = HEADER_LENGTH;
+            long end = file.length();
+            while (position < end) {
+                byte[] records = null;
+                if (position + 8 <= end) {
+                    int length = in.readInt();
+                    int crc = in.readInt();
+                    if (0 <= length && position + 8 + length <= end) {
+                        records = new byte[length];
+                        in.readFully(records);
+                        CRC32 check = new CRC32();
+                        check.update(records);
+                        if (crc != (int) check.getValue()) {
+                            records = null;
+                        }
+                    }
+                }
+                if (null == records) {
+                    if (log.isWarnEnabled()) {
+                        log.warn(dictionary.getMessages().resolveMessage("DICTIONARY_WARN_006", new Object[]{file, position}));
+                    }
+                    open().setLength(position);
+                    break;
+                }
+                DataInputStream group = new DataInputStream(new ByteArrayInputStream(records));
+                while (0 < group.available()) {
+                    readRecord(group);
+                    result++;
+                }
+                position = position + 8 + records.length;
+            }
+        } finally {
+            in.close();
+        }
+        return result;
+    }
+
+    /**
+     * Empties the journal, once its edits are saved into the dictionary files.
+     *
+     * @throws IOException IOException
+     */
+    public synchronized void reset() throws IOException {
+        changed.clear();
+        if (file.exists()) {
+            RandomAccessFile f = open();
+            f.setLength(0);
+            f.getChannel().force(true);
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        if (null != raFile) {
+            raFile.close();
+            raFile = null;
+        }
+    }
+
+    public synchronized boolean delete() throws IOException {
+        close();
+        changed.clear();
+        return !file.exists() || file.delete();
+    }
+
+    private RandomAccessFile open() throws IOException {
+        if (null == raFile) {
+            raFile = new RandomAccessFile(file, "rw");
+        }
+        return raFile;
+    }
+
+    /**
+     * Returns the lengths and modification times of the data files.
+     */
+    private long[] getDataFileFingerprint() throws IOException {
+        List<POS> poses = POS.getAllPOS();
+        long[] result = new long[2 * poses.size()];
+        for (int i = 0; i < poses.size(); i++) {
+            result[2 * i] = dictionary.getFileLength(poses.get(i), DictionaryFileType.DATA);
+            result[2 * i + 1] = dictionary.getFileLastModified(poses.get(i), DictionaryFileType.DATA);
+        }
+        return result;
+    }
+
+    private void writeRecord(DataOutputStream out, Key key) throws IOException, JWNLException {
+        out.writeByte(key.type);
+        out.writeByte(key.pos.getId());
+        if (SYNSET == key.type) {
+            long offset = (Long) key.key;
+            out.writeLong(offset);
+            Synset synset = dictionary.getSynsetAt(key.pos, offset);
+            out.writeBoolean(null != synset);
+            if (null != synset) {
+                writeSynset(out, synset);
+            }
+        } else if (INDEX_WORD == key.type) {
+            String lemma = (String) key.key;
+            out.writeUTF(lemma);
+            IndexWord indexWord = dictionary.getIndexWord(key.pos, lemma);
+            out.writeBoolean(null != indexWord);
+            if (null != indexWord) {
+                out.writeInt(indexWord.getSenses().size());
+                for (Synset sense : indexWord.getSenses()) {
+                    out.writeLong(sense.getOffset());
+                }
+            }
+        } else {
+            String lemma = (String) key.key;
+            out.writeUTF(lemma);
+            Exc exc = dictionary.getException(key.pos, lemma);
+            out.writeBoolean(null != exc);
+            if (null != exc) {
+                out.writeInt(exc.getExceptions().size());
+                for (String exception : exc.getExceptions()) {
+                    out.writeUTF(exception);
+                }
+            }
+        }
+    }
+
+    private void writeSynset(DataOutputStream out, Synset synset) throws IOException, JWNLException {
+        out.writeLong(synset.getLexFileNum());
+        out.writeBoolean(null != synset.getGloss());
+        if (null != synset.getGloss()) {
+            out.writeUTF(synset.getGloss());
+        }
+        if (POS.ADJECTIVE == synset.getPOS()) {
+            out.writeBoolean(synset.isAdjectiveCluster());
+        } else if (POS.VERB == synset.getPOS()) {
+            writeBits(out, synset.getVerbFrameFlags());
+        }
+
+        out.writeInt(synset.getWords().size());
+        for (Word word : synset.getWords()) {
+            out.writeUTF(word.getLemma());
+            out.writeInt(word.getIndex());
+            out.writeInt(word.getLexId());
+            out.writeInt(word.getUseCount());
+            if (word instanceof Verb) {
+                writeBits(out, ((Verb) word).getVerbFrameFlags());
+            } else if (word instanceof Adjective) {
+                out.writeUTF(((Adjective) word).getAdjectivePosition().getKey());
+            }
+        }
+
+        out.writeInt(synset.getPointers().size());
+        for (Pointer pointer : synset.getPointers()) {
+            out.writeUTF(null == pointer.getType() ? "" : pointer.getType().getKey());
+            out.writeInt(pointer.getSourceIndex());
+            out.writeByte(null == pointer.getTargetPOS() ? 0 : pointer.getTargetPOS().getId());
+            out.writeLong(pointer.getTargetOffset());
+            out.writeInt(pointer.getTargetIndex());
+        }
+    }
+
+    private void readRecord(DataInputStream in) throws IOException, JWNLException {
+        byte type = in.readByte();
+        POS pos = POS.getPOSForId(in.readByte());
+        if (SYNSET == type) {
+            long offset = in.readLong();
+            if (in.readBoolean()) {
+                Synset synset = readSynset(in, pos, offset);
+                synset.setDirty(true);
+                dictionary.cacheSynset(synset);
+                if (dictionary.elementFactory instanceof AbstractDictionaryElementFactory) {
+                    ((AbstractDictionaryElementFactory) dictionary.elementFactory).updateMaxOffset(pos, offset);
+                }
+            } else {
+                dictionary.clearSynset(pos, offset);
+            }
+        } else if (INDEX_WORD == type) {
+            String lemma = in.readUTF();
+            if (in.readBoolean()) {
+                long[] offsets = new long[in.readInt()];
+                for (int i = 0; i < offsets.length; i++) {
+                    offsets[i] = in.readLong();
+                }
+                IndexWord indexWord = new IndexWord(dictionary, lemma, pos, offsets);
+                indexWord.setDirty(true);
+                dictionary.cacheIndexWord(indexWord);
+            } else {
+                dictionary.clearIndexWord(pos, lemma);
+            }
+        } else if (EXCEPTION == type) {
+            String lemma = in.readUTF();
+            if (in.readBoolean()) {
+                int count = in.readInt();
+                List<String> exceptions = new ArrayList<String>(count);
+                for (int i = 0; i < count; i++) {
+                    exceptions.add(in.readUTF());
+                }
+                Exc exc = new Exc(dictionary, pos, lemma, exceptions);
+                exc.setDirty(true);
+                dictionary.cacheException(exc);
+            } else {
+                dictionary.clearException(pos, lemma);
+            }
+        } else {
+            throw new JWNLException(dictionary.getMessages().resolveMessage("DICTIONARY_EXCEPTION_072", file));
+        }
+    }
+
+    private Synset readSynset(DataInputStream in, POS pos, long offset) throws IOException, JWNLException {
+        Synset synset;
+        if (POS.VERB == pos) {
+            synset = new VerbSynset(dictionary, offset);
+        } else if (POS.ADJECTIVE == pos) {
+            synset = new AdjectiveSynset(dictionary, offset);
+        } else {
+            synset = new Synset(dictionary, pos, offset);
+        }
+        synset.setLexFileNum(in.readLong());
+        if (in.readBoolean()) {
+            synset.setGloss(in.readUTF());
+        }
+        if (POS.ADJECTIVE == pos) {
+            synset.setIsAdjectiveCluster(in.readBoolean());
+        } else if (POS.VERB == pos) {
+            synset.setVerbFrameFlags(readBits(in));
+        }
+
+        int wordCount = in.readInt();
+        for (int i = 0; i < wordCount; i++) {
+            String lemma = in.readUTF();
+            int index = in.readInt();
+            int lexId = in.readInt();
+            int useCount = in.readInt();
+            Word word;
+            if (POS.VERB == pos) {
+                word = new Verb(dictionary, synset, index, lemma, readBits(in));
+            } else if (POS.ADJECTIVE == pos) {
+                word = new Adjective(dictionary, synset, index, lemma, AdjectivePosition.getAdjectivePositionForKey(in.readUTF()));
+            } else {
+                word = new Word(dictionary, synset, index, lemma);
+            }
+            word.setLexId(lexId);
+            word.setUseCount(useCount);
+            synset.getWords().add(word);
+        }
+
+        int pointerCount = in.readInt();
+        for (int i = 0; i < pointerCount; i++) {
+            PointerType pointerType = PointerType.getPointerTypeForKey(in.readUTF());
+            int sourceIndex = in.readInt();
+            byte targetPOS = in.readByte();
+            long targetOffset = in.readLong();
+            int targetIndex = in.readInt();
+            PointerTarget source = (0 == sourceIndex) ? synset : synset.getWords().get(sourceIndex - 1);
+            synset.getPointers().add(new Pointer(source, pointerType,
+                    0 == targetPOS ? null : POS.getPOSForId(targetPOS), targetOffset, targetIndex));
+        }
+        return synset;
+    }
+
+    private static void writeBits(DataOutputStream out, BitSet bits) throws IOException {
+        out.writeInt(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            out.writeInt(i);
+        }
+    }
+
+    private static BitSet readBits(DataInputStream in) throws IOException {
+        BitSet result = new BitSet();
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            result.set(in.readInt());
+        }
+        return result;
+    }
+
+    /**
+     * Identifies a changed element by its type, part of speech and key, which, unlike the element, do not change.
+     */
+    private static class Key {
+        private final byte type;
+        private final POS pos;
+        private final Object key;
+
+        private Key(byte type, POS pos, Object key) {
+            this.type = type;
+            this.pos = pos;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return type == that.type && pos == that.pos && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * type + pos.hashCode()) + key.hashCode();
+        }
+    }
+}
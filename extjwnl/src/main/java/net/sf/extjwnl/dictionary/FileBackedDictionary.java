@@ -4,15 +4,19 @@ import net.sf.extjwnl.JWNLException;
 import net.sf.extjwnl.JWNLRuntimeException;
 import net.sf.extjwnl.data.*;
 import net.sf.extjwnl.dictionary.file.DictionaryFileType;
+import net.sf.extjwnl.dictionary.file.SequentialLineReader;
 import net.sf.extjwnl.dictionary.file_manager.FileManager;
+import net.sf.extjwnl.dictionary.file_manager.FileManagerImpl;
 import net.sf.extjwnl.princeton.data.AbstractDictionaryElementFactory;
+import net.sf.extjwnl.util.LineParser;
+import net.sf.extjwnl.util.cache.BloomFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
 
-import java.io.IOException;
-import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * A <code>Dictionary</code> that retrieves objects from the text files
@@ -50,8 +54,68 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
      */
     public static final String EXCEPTION_WORD_CACHE_SIZE = "exception_word_cache_size";
 
+    /**
+     * The default cache size in bytes, with optional k, m or g suffix, e.g. 256m. Like the default cache size,
+     * applies to the cache of each element type, split evenly among parts of speech. Cached elements are weighed
+     * by their estimated heap size. Overrides cache sizes in elements.
+     */
+    public static final String CACHE_BYTES = "cache_bytes";
+    /**
+     * Size of the index word cache in bytes. Overrides the default cache size in bytes
+     */
+    public static final String INDEX_WORD_CACHE_BYTES = "index_word_cache_bytes";
+    /**
+     * Size of the synset cache in bytes. Overrides the default cache size in bytes
+     */
+    public static final String SYNSET_CACHE_BYTES = "synset_cache_bytes";
+    /**
+     * Size of the exception cache in bytes. Overrides the default cache size in bytes
+     */
+    public static final String EXCEPTION_CACHE_BYTES = "exception_cache_bytes";
+
+    /**
+     * Number of threads used to parse dictionary files in cacheAll() and edit(), default 1.
+     * With more than one thread each file is split into line-aligned chunks, which are parsed in parallel.
+     */
+    public static final String LOAD_THREADS = "load_threads";
+    private int loadThreads = 1;
+
+    /**
+     * Minimum size of a chunk for parallel parsing, 64K.
+     */
+    private static final long MIN_LOAD_CHUNK_SIZE = 65536;
+
+    /**
+     * Path of the edit journal, not set by default. When set, elements changed while editing are appended
+     * to the journal by {@link #sync()} and on close, and the journal is replayed on start and on edit,
+     * until the dictionary is saved.
+     * <p>
+     * Edits are durable only once {@link #sync()} returns: edits made after the last sync are lost if the process
+     * crashes before close. Call {@link #sync()} after each group of edits which should survive a crash.
+     * The journal is discarded if the data files have changed since it was written.
+     */
+    public static final String JOURNAL = "journal";
+
+    /**
+     * Journal size in bytes after which {@link #sync()} saves the dictionary, which empties the journal.
+     * Default 0, journal is not compacted.
+     */
+    public static final String JOURNAL_COMPACT_SIZE = "journal_compact_size";
+    private long journalCompactSize = 0;
+
+    /**
+     * Path of the file to keep Bloom filters in, not set by default. Filters are loaded from it on start,
+     * if it was written for the current dictionary files, judging by their lengths and modification times,
+     * otherwise they are built by scanning the files and written to it. Rewritten on save.
+     */
+    public static final String BLOOM_FILTER_FILE = "bloom_filter_file";
+    private static final int BLOOM_FILTER_MAGIC = 0x4a424c4d;
+    private static final int BLOOM_FILTER_VERSION = 2;
+    private File bloomFilterFile;
+
     private final FileManager fileManager;
     private final FileDictionaryElementFactory factory;
+    private final EditJournal journal;
 
     public FileBackedDictionary(Document doc) throws JWNLException {
         super(doc);
@@ -66,6 +130,10 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
         this.fileManager = manager;
         this.factory = (FileDictionaryElementFactory) elementFactory;
 
+        if (params.containsKey(LOAD_THREADS)) {
+            loadThreads = Integer.parseInt(params.get(LOAD_THREADS).getValue());
+        }
+
         if (params.containsKey(CACHE_SIZE)) {
             this.setCacheCapacity(Integer.parseInt((params.get(CACHE_SIZE)).getValue()));
         } else {
@@ -82,22 +150,114 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
                         Integer.parseInt(params.get(EXCEPTION_WORD_CACHE_SIZE).getValue()));
             }
         }
+        if (enableCaching) {
+            if (params.containsKey(CACHE_BYTES)) {
+                long bytes = parseBytes(params.get(CACHE_BYTES).getValue());
+                for (DictionaryElementType d : DictionaryElementType.getAllDictionaryElementTypes()) {
+                    this.setCacheBytes(d, bytes);
+                }
+            }
+            if (params.containsKey(INDEX_WORD_CACHE_BYTES)) {
+                this.setCacheBytes(DictionaryElementType.INDEX_WORD,
+                        parseBytes(params.get(INDEX_WORD_CACHE_BYTES).getValue()));
+            }
+            if (params.containsKey(SYNSET_CACHE_BYTES)) {
+                this.setCacheBytes(DictionaryElementType.SYNSET,
+                        parseBytes(params.get(SYNSET_CACHE_BYTES).getValue()));
+            }
+            if (params.containsKey(EXCEPTION_CACHE_BYTES)) {
+                this.setCacheBytes(DictionaryElementType.EXCEPTION,
+                        parseBytes(params.get(EXCEPTION_CACHE_BYTES).getValue()));
+            }
+        }
+
+        if (isBloomFilterEnabled()) {
+            if (params.containsKey(BLOOM_FILTER_FILE)) {
+                bloomFilterFile = new File(params.get(BLOOM_FILTER_FILE).getValue());
+            }
+            initBloomFilters();
+        }
+
+        if (params.containsKey(JOURNAL_COMPACT_SIZE)) {
+            journalCompactSize = Long.parseLong(params.get(JOURNAL_COMPACT_SIZE).getValue());
+        }
+        if (params.containsKey(JOURNAL)) {
+            journal = new EditJournal(this, new File(params.get(JOURNAL).getValue()));
+            if (journal.hasRecords()) {
+                // edits are kept in memory until saved
+                edit();
+            }
+        } else {
+            journal = null;
+        }
     }
 
     @Override
     public void close() {
-        fileManager.close();
+        unregisterMBeans();
+        try {
+            if (null != journal) {
+                try {
+                    if (isEditable()) {
+                        journal.sync();
+                    }
+                } finally {
+                    journal.close();
+                }
+            }
+        } catch (IOException e) {
+            throw new JWNLRuntimeException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_070", journal.getFile()), e);
+        } catch (JWNLException e) {
+            throw new JWNLRuntimeException(e);
+        } finally {
+            fileManager.close();
+        }
     }
 
     @Override
     public synchronized boolean delete() throws JWNLException {
         try {
+            if (null != journal) {
+                journal.delete();
+            }
             return fileManager.delete();
         } catch (IOException e) {
             throw new JWNLException(getMessages().resolveMessage("EXCEPTION_001", e.getMessage()), e);
         }
     }
 
+    /**
+     * Appends elements changed since the last sync to the journal and forces it to disk,
+     * then saves the dictionary if the journal exceeds the compaction size. Does nothing without journal.
+     *
+     * @throws JWNLException JWNLException
+     */
+    public synchronized void sync() throws JWNLException {
+        if (null != journal && isEditable()) {
+            try {
+                journal.sync();
+            } catch (IOException e) {
+                throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_070", journal.getFile()), e);
+            }
+            if (0 < journalCompactSize && journalCompactSize < journal.size()) {
+                save();
+            }
+        }
+    }
+
+    @Override
+    public void elementChanged(DictionaryElement element) {
+        if (null != journal) {
+            journal.changed(element);
+        }
+    }
+
+    @Override
+    public void removeElement(DictionaryElement element) throws JWNLException {
+        super.removeElement(element);
+        elementChanged(element);
+    }
+
     /**
      * Returns the file manager that backs this database.
      *
@@ -107,6 +267,36 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
         return fileManager;
     }
 
+    /**
+     * Returns the last modification time of a file, or -1 if the file manager does not support it.
+     */
+    long getFileLastModified(POS pos, DictionaryFileType fileType) {
+        if (fileManager instanceof FileManagerImpl) {
+            return ((FileManagerImpl) fileManager).getFile(pos, fileType).getFile().lastModified();
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the length of a file in bytes, or -1 if the file manager does not support it.
+     */
+    long getFileLength(POS pos, DictionaryFileType fileType) throws IOException {
+        if (fileManager instanceof FileManagerImpl) {
+            return ((FileManagerImpl) fileManager).getFileLength(pos, fileType);
+        }
+        return -1;
+    }
+
+    /**
+     * Opens a forward-only reader over the lines of a file, returns null if the file manager does not support it.
+     */
+    private SequentialLineReader getSequentialLineReader(POS pos, DictionaryFileType fileType, long offset) throws IOException {
+        if (fileManager instanceof FileManagerImpl) {
+            return ((FileManagerImpl) fileManager).getSequentialLineReader(pos, fileType, offset);
+        }
+        return null;
+    }
+
     public Iterator<IndexWord> getIndexWordIterator(final POS pos) throws JWNLException {
         if (!isEditable()) {
             return new IndexFileLookaheadIterator(pos);
@@ -123,6 +313,15 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
         }
     }
 
+    @Override
+    public Iterator<IndexWord> getIndexWordIterator(POS pos, String substring, boolean prefixOnly) throws JWNLException {
+        if (prefixOnly && !isEditable() && fileManager instanceof FileManagerImpl) {
+            return new PrefixIndexFileLookaheadIterator(pos, prepareQueryString(substring.replace(' ', '_')));
+        } else {
+            return super.getIndexWordIterator(pos, substring, prefixOnly);
+        }
+    }
+
     public IndexWord getIndexWord(POS pos, String lemma) throws JWNLException {
         lemma = prepareQueryString(lemma);
 
@@ -131,7 +330,8 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
             if (isCachingEnabled()) {
                 word = getCachedIndexWord(pos, lemma);
             }
-            if (!isEditable() && word == null) {
+            if (!isEditable() && word == null && mightContain(DictionaryElementType.INDEX_WORD, pos, lemma)
+                    && !isMissCached(DictionaryElementType.INDEX_WORD, pos, lemma)) {
                 try {
                     /** determines the offset within the index file */
                     long offset = getFileManager().getIndexedLinePointer(
@@ -139,6 +339,9 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
                     if (offset >= 0) {
                         word = parseAndCacheIndexWordLine(pos, getFileManager().readLineAt(pos, DictionaryFileType.INDEX, offset));
                     }
+                    if (null == word) {
+                        cacheMiss(DictionaryElementType.INDEX_WORD, pos, lemma);
+                    }
                 } catch (IOException e) {
                     throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_004", new Object[]{pos.getLabel(), lemma}), e);
                 }
@@ -156,10 +359,246 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
         }
     }
 
+    /**
+     * Loads Bloom filters from the filter file, or builds them by scanning index and exception files.
+     *
+     * @throws JWNLException JWNLException
+     */
+    private void initBloomFilters() throws JWNLException {
+        if (null != bloomFilterFile && bloomFilterFile.exists()) {
+            try {
+                long[] fingerprint = getLemmaFileFingerprint();
+                DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(bloomFilterFile)));
+                try {
+                    boolean matches = null != fingerprint
+                            && BLOOM_FILTER_MAGIC == in.readInt() && BLOOM_FILTER_VERSION == in.readInt();
+                    for (int i = 0; matches && i < fingerprint.length; i++) {
+                        matches = fingerprint[i] == in.readLong();
+                    }
+                    if (matches) {
+                        Map<DictionaryElementType, Map<POS, BloomFilter>> filters =
+                                new EnumMap<DictionaryElementType, Map<POS, BloomFilter>>(DictionaryElementType.class);
+                        for (DictionaryElementType d : LEMMA_TYPES) {
+                            Map<POS, BloomFilter> posFilters = new EnumMap<POS, BloomFilter>(POS.class);
+                            for (POS pos : POS.getAllPOS()) {
+                                posFilters.put(pos, BloomFilter.readFrom(in));
+                            }
+                            filters.put(d, posFilters);
+                        }
+                        setBloomFilters(filters);
+                        return;
+                    }
+                } finally {
+                    in.close();
+                }
+            } catch (EOFException e) {
+                // incomplete file, rebuilt below
+            } catch (IOException e) {
+                throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_075", bloomFilterFile), e);
+            }
+            if (log.isInfoEnabled()) {
+                log.info(getMessages().resolveMessage("DICTIONARY_INFO_018", bloomFilterFile));
+            }
+        }
+
+        Map<DictionaryElementType, Map<POS, BloomFilter>> filters =
+                new EnumMap<DictionaryElementType, Map<POS, BloomFilter>>(DictionaryElementType.class);
+        for (DictionaryElementType d : LEMMA_TYPES) {
+            DictionaryFileType fileType = DictionaryElementType.INDEX_WORD == d ? DictionaryFileType.INDEX : DictionaryFileType.EXCEPTION;
+            Map<POS, BloomFilter> posFilters = new EnumMap<POS, BloomFilter>(POS.class);
+            for (POS pos : POS.getAllPOS()) {
+                try {
+                    posFilters.put(pos, createBloomFilter(readLemmas(pos, fileType)));
+                } catch (IOException e) {
+                    throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_008", new Object[]{pos, fileType}), e);
+                }
+            }
+            filters.put(d, posFilters);
+        }
+        setBloomFilters(filters);
+        writeBloomFilters();
+    }
+
+    /**
+     * Handles the lines of a file read by {@link #readLines}.
+     */
+    private interface LineHandler {
+        void handle(String line);
+    }
+
+    /**
+     * Reads the first tokens of the lines of a file.
+     */
+    private List<String> readLemmas(POS pos, DictionaryFileType fileType) throws IOException {
+        final List<String> result = new ArrayList<String>();
+        readLines(pos, fileType, new LineHandler() {
+            public void handle(String line) {
+                addLemma(result, line);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Reads the lines of a file without parsing and caching them.
+     */
+    private void readLines(POS pos, DictionaryFileType fileType, LineHandler handler) throws IOException {
+        long start = fileManager.getFirstLinePointer(pos, fileType);
+        SequentialLineReader reader = getSequentialLineReader(pos, fileType, start);
+        if (null != reader) {
+            try {
+                String line;
+                while (null != (line = reader.readLine())) {
+                    handler.handle(line);
+                }
+            } finally {
+                reader.close();
+            }
+        } else {
+            long offset = start;
+            while (0 <= offset) {
+                String line = fileManager.readLineAt(pos, fileType, offset);
+                if (null == line) {
+                    break;
+                }
+                handler.handle(line);
+                offset = fileManager.getNextLinePointer(pos, fileType, offset);
+            }
+        }
+    }
+
+    private static void addLemma(List<String> lemmas, String line) {
+        int space = line.indexOf(' ');
+        if (0 < space) {
+            lemmas.add(line.substring(0, space));
+        }
+    }
+
+    /**
+     * Reads lemmas and sense counts from the index file, without creating and caching index words.
+     */
+    @Override
+    protected FuzzyLemmaIndex buildFuzzyLemmaIndex(POS pos) throws JWNLException {
+        if (isEditable()) {
+            return super.buildFuzzyLemmaIndex(pos);
+        }
+        final FuzzyLemmaIndex.Builder builder = new FuzzyLemmaIndex.Builder();
+        try {
+            readLines(pos, DictionaryFileType.INDEX, new LineHandler() {
+                public void handle(String line) {
+                    if (0 < line.indexOf(' ')) {
+                        //lemma  pos  synset_cnt  ...
+                        LineParser parser = new LineParser(line);
+                        String lemma = parser.nextToken().replace('_', ' ');
+                        parser.skipToken();
+                        builder.add(lemma, parser.nextInt());
+                    }
+                }
+            });
+        } catch (IOException e) {
+            throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_008", new Object[]{pos, DictionaryFileType.INDEX}), e);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Writes Bloom filters into a temporary file and renames it over the filter file,
+     * so that a crash does not leave a partially written filter file.
+     */
+    private void writeBloomFilters() throws JWNLException {
+        Map<DictionaryElementType, Map<POS, BloomFilter>> filters = getBloomFilters();
+        if (null != bloomFilterFile && null != filters) {
+            try {
+                long[] fingerprint = getLemmaFileFingerprint();
+                if (null == fingerprint) {
+                    return;
+                }
+                File temp = File.createTempFile(bloomFilterFile.getName(), ".tmp", bloomFilterFile.getAbsoluteFile().getParentFile());
+                try {
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+                    try {
+                        out.writeInt(BLOOM_FILTER_MAGIC);
+                        out.writeInt(BLOOM_FILTER_VERSION);
+                        for (long value : fingerprint) {
+                            out.writeLong(value);
+                        }
+                        for (DictionaryElementType d : LEMMA_TYPES) {
+                            for (POS pos : POS.getAllPOS()) {
+                                filters.get(d).get(pos).writeTo(out);
+                            }
+                        }
+                    } finally {
+                        out.close();
+                    }
+                    // the filter file is rebuilt if it is lost
+                    if (!temp.renameTo(bloomFilterFile) && !(bloomFilterFile.delete() && temp.renameTo(bloomFilterFile))) {
+                        throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_076", bloomFilterFile));
+                    }
+                } finally {
+                    if (temp.exists() && !temp.delete()) {
+                        temp.deleteOnExit();
+                    }
+                }
+            } catch (IOException e) {
+                throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_076", bloomFilterFile), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the lengths and modification times of index and exception files, which tell whether
+     * the filter file matches them, or null if the file manager does not support them.
+     */
+    private long[] getLemmaFileFingerprint() throws IOException {
+        List<POS> poses = POS.getAllPOS();
+        long[] result = new long[4 * poses.size()];
+        for (int i = 0; i < poses.size(); i++) {
+            for (int j = 0; j < 2; j++) {
+                DictionaryFileType fileType = 0 == j ? DictionaryFileType.INDEX : DictionaryFileType.EXCEPTION;
+                long length = getFileLength(poses.get(i), fileType);
+                if (-1 == length) {
+                    return null;
+                }
+                result[4 * i + 2 * j] = length;
+                result[4 * i + 2 * j + 1] = getFileLastModified(poses.get(i), fileType);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parses a size in bytes with optional k, m or g suffix.
+     *
+     * @param value size, e.g. 256m
+     * @return size in bytes
+     * @throws NumberFormatException if the size is not a number or does not fit into long
+     */
+    private static long parseBytes(String value) {
+        String bytes = value.trim().toLowerCase();
+        long multiplier = 1;
+        if (bytes.endsWith("k")) {
+            multiplier = 1L << 10;
+        } else if (bytes.endsWith("m")) {
+            multiplier = 1L << 20;
+        } else if (bytes.endsWith("g")) {
+            multiplier = 1L << 30;
+        }
+        if (1 < multiplier) {
+            bytes = bytes.substring(0, bytes.length() - 1);
+        }
+        long result = Long.parseLong(bytes);
+        if (Long.MAX_VALUE / multiplier < Math.abs(result)) {
+            throw new NumberFormatException(value);
+        }
+        return result * multiplier;
+    }
+
     private IndexWord parseAndCacheIndexWordLine(POS pos, String line) throws JWNLException {
+        long start = System.nanoTime();
         IndexWord word = factory.createIndexWord(pos, line);
         if (isCachingEnabled() && word != null) {
             cacheIndexWord(word);
+            recordLoad(DictionaryElementType.INDEX_WORD, pos, start);
         }
         return word;
     }
@@ -184,9 +623,70 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
         return getSynset(pos, offset, null);
     }
 
+    @Override
+    public int getUseCount(Word word) throws JWNLException {
+        try {
+            return fileManager.getUseCount(word.getSenseKeyWithAdjClass());
+        } catch (IOException e) {
+            throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_069", word), e);
+        }
+    }
+
+    /**
+     * Looks up <var>senseKey</var> in the sense index and loads only the synset it points to.
+     * Falls back to the default lookup, if the dictionary is editable, because the sense index
+     * is updated only on save.
+     */
+    @Override
+    public Word getWordBySenseKey(String senseKey) throws JWNLException {
+        if (isEditable() || !(fileManager instanceof FileManagerImpl)) {
+            return super.getWordBySenseKey(senseKey);
+        }
+        //lemma%ss_type:lex_filenum:lex_id:head_word:head_id
+        int percentIndex = senseKey.indexOf('%');
+        int typeEnd = senseKey.indexOf(':', percentIndex);
+        int lexFileEnd = senseKey.indexOf(':', typeEnd + 1);
+        int lexIdEnd = senseKey.indexOf(':', lexFileEnd + 1);
+        if (percentIndex < 0 || typeEnd < 0 || lexFileEnd < 0 || lexIdEnd < 0) {
+            return super.getWordBySenseKey(senseKey);
+        }
+        POS pos = POS.getPOSForId(Integer.parseInt(senseKey.substring(percentIndex + 1, typeEnd)));
+        if (null == pos) {
+            return null;
+        }
+
+        long offset;
+        try {
+            FileManagerImpl manager = (FileManagerImpl) fileManager;
+            // index.sense is optional
+            if (!manager.isSenseIndexAvailable()) {
+                return super.getWordBySenseKey(senseKey);
+            }
+            offset = manager.getSenseKeySynsetOffset(senseKey);
+        } catch (IOException e) {
+            throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_068", senseKey), e);
+        }
+        if (-1 == offset) {
+            return null;
+        }
+
+        Synset synset = getSynsetAt(pos, offset);
+        if (null != synset) {
+            String lemma = senseKey.substring(0, percentIndex);
+            int lexId = Integer.parseInt(senseKey.substring(lexFileEnd + 1, lexIdEnd));
+            for (Word word : synset.getWords()) {
+                if (lexId == word.getLexId() && lemma.equals(word.getLemma().toLowerCase().replace(' ', '_'))) {
+                    return word;
+                }
+            }
+        }
+        return null;
+    }
+
     private Synset getSynset(POS pos, long offset, String line) throws JWNLException {
         Synset synset = getCachedSynset(pos, offset);
         if (!isEditable() && synset == null) {
+            long start = System.nanoTime();
             try {
                 if (line == null) {
                     line = getFileManager().readLineAt(pos, DictionaryFileType.DATA, offset);
@@ -194,10 +694,11 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
                 if (null != line) {
                     synset = factory.createSynset(pos, line);
                     for (Word w : synset.getWords()) {
-                        w.setUseCount(fileManager.getUseCount(w.getSenseKeyWithAdjClass()));
+                        w.setUseCountPending();
                     }
 
                     cacheSynset(synset);
+                    recordLoad(DictionaryElementType.SYNSET, pos, start);
                 }
             } catch (IOException e) {
                 throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_005", new Object[]{pos.getLabel(), offset}), e);
@@ -234,7 +735,8 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
             if (isCachingEnabled()) {
                 exc = getCachedException(pos, derivation);
             }
-            if (!isEditable() && exc == null) {
+            if (!isEditable() && exc == null && mightContain(DictionaryElementType.EXCEPTION, pos, derivation)
+                    && !isMissCached(DictionaryElementType.EXCEPTION, pos, derivation)) {
                 long offset;
                 try {
                     offset = getFileManager().getIndexedLinePointer(
@@ -242,6 +744,9 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
                     if (offset >= 0) {
                         exc = parseAndCacheExceptionLine(pos, getFileManager().readLineAt(pos, DictionaryFileType.EXCEPTION, offset));
                     }
+                    if (null == exc) {
+                        cacheMiss(DictionaryElementType.EXCEPTION, pos, derivation);
+                    }
                 } catch (IOException e) {
                     throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_006", new Object[]{pos.getLabel(), derivation}), e);
                 }
@@ -251,9 +756,11 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
     }
 
     private Exc parseAndCacheExceptionLine(POS pos, String line) throws JWNLException {
+        long start = System.nanoTime();
         Exc exc = factory.createExc(pos, line);
         if (isCachingEnabled() && exc != null) {
             cacheException(exc);
+            recordLoad(DictionaryElementType.EXCEPTION, pos, start);
         }
         return exc;
     }
@@ -272,11 +779,23 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
         protected final POS pos;
         protected final DictionaryFileType fileType;
 
+        /**
+         * Streaming reader for full scans, null if the file does not support it.
+         */
+        private SequentialLineReader reader;
+
         public FileLookaheadIterator(POS pos, DictionaryFileType fileType) {
+            this(pos, fileType, true);
+        }
+
+        public FileLookaheadIterator(POS pos, DictionaryFileType fileType, boolean sequential) {
             this.pos = pos;
             this.fileType = fileType;
             try {
                 nextOffset = fileManager.getFirstLinePointer(pos, fileType);
+                if (sequential) {
+                    reader = getSequentialLineReader(pos, fileType, nextOffset);
+                }
                 nextLine();
             } catch (IOException ex) {
                 if (log.isWarnEnabled()) {
@@ -319,10 +838,19 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
          */
         protected void nextLine() throws JWNLException {
             try {
-                currentLine = fileManager.readLineAt(pos, fileType, nextOffset);
-                if (currentLine != null) {
-                    nextOffset();
-                    return;
+                if (null != reader) {
+                    currentLine = reader.readLine();
+                    if (currentLine != null) {
+                        currentOffset = reader.getLineOffset();
+                        nextOffset = reader.getNextLineOffset();
+                        return;
+                    }
+                } else {
+                    currentLine = fileManager.readLineAt(pos, fileType, nextOffset);
+                    if (currentLine != null) {
+                        nextOffset();
+                        return;
+                    }
                 }
             } catch (Exception e) {
                 if (log.isErrorEnabled()) {
@@ -351,6 +879,10 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
             super(pos, DictionaryFileType.INDEX);
         }
 
+        public IndexFileLookaheadIterator(POS pos, boolean sequential) {
+            super(pos, DictionaryFileType.INDEX, sequential);
+        }
+
         protected IndexWord parseLine(POS pos, long offset, String line) throws JWNLException {
             IndexWord word = null;
             if (isCachingEnabled()) {
@@ -368,7 +900,7 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
         private final String substring;
 
         public SubstringIndexFileLookaheadIterator(POS pos, String substring) throws JWNLException {
-            super(pos);
+            super(pos, false);
 
             //reinitialize
             this.substring = substring;
@@ -417,6 +949,44 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
         }
     }
 
+    private class PrefixIndexFileLookaheadIterator extends IndexFileLookaheadIterator {
+        private final String prefix;
+
+        public PrefixIndexFileLookaheadIterator(POS pos, String prefix) throws JWNLException {
+            super(pos, false);
+
+            //reinitialize, start from the first line not less than prefix
+            this.prefix = prefix;
+            currentLine = null;
+            currentOffset = -1;
+            more = true;
+            try {
+                nextOffset = ((FileManagerImpl) fileManager).getCeilingLinePointer(pos, fileType, prefix);
+            } catch (IOException ex) {
+                throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_008", new Object[]{pos, fileType}), ex);
+            }
+            nextLine();
+        }
+
+        protected void nextLine() throws JWNLException {
+            try {
+                if (-1 == nextOffset) {
+                    currentLine = null;
+                } else {
+                    currentLine = fileManager.readLineAt(pos, fileType, nextOffset);
+                }
+                //lines are sorted, the first one without prefix ends the matches
+                if (currentLine != null && (null == prefix || currentLine.startsWith(prefix))) {
+                    nextOffset();
+                    return;
+                }
+            } catch (IOException ex) {
+                throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_008", new Object[]{pos, fileType}), ex);
+            }
+            more = false;
+        }
+    }
+
     @Override
     public synchronized void edit() throws JWNLException {
         if (!isEditable()) {
@@ -425,6 +995,15 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
             }
             super.edit();
             try {
+                // use counts are read from cntlist.rev, which is going to be rewritten
+                for (POS pos : POS.getAllPOS()) {
+                    Iterator<Synset> si = getSynsetIterator(pos);
+                    while (si.hasNext()) {
+                        for (Word w : si.next().getWords()) {
+                            w.getUseCount();
+                        }
+                    }
+                }
                 fileManager.edit();
             } catch (IOException e) {
                 throw new JWNLException(getMessages().resolveMessage("EXCEPTION_001", e.getMessage()), e);
@@ -440,6 +1019,55 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
         } catch (IOException e) {
             throw new JWNLException(getMessages().resolveMessage("EXCEPTION_001", e.getMessage()), e);
         }
+        clearDirty();
+        if (null != journal) {
+            try {
+                journal.reset();
+            } catch (IOException e) {
+                throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_070", journal.getFile()), e);
+            }
+        }
+        if (isBloomFilterEnabled() && isCachingEnabled()) {
+            // removed elements stay in the filters until rebuilt
+            rebuildBloomFilters();
+            writeBloomFilters();
+        }
+    }
+
+    @Override
+    protected void cacheLoaded() throws JWNLException {
+        if (null != journal) {
+            try {
+                int count = journal.replay();
+                if (0 < count && log.isInfoEnabled()) {
+                    log.info(getMessages().resolveMessage("DICTIONARY_INFO_017", new Object[]{count, journal.getFile()}));
+                }
+            } catch (IOException e) {
+                throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_071", journal.getFile()), e);
+            }
+        }
+    }
+
+    /**
+     * Marks all elements as unchanged, once they are saved.
+     *
+     * @throws JWNLException JWNLException
+     */
+    private void clearDirty() throws JWNLException {
+        for (POS pos : POS.getAllPOS()) {
+            Iterator<Synset> si = getSynsetIterator(pos);
+            while (si.hasNext()) {
+                si.next().setDirty(false);
+            }
+            Iterator<IndexWord> ii = getIndexWordIterator(pos);
+            while (ii.hasNext()) {
+                ii.next().setDirty(false);
+            }
+            Iterator<Exc> ei = getExceptionIterator(pos);
+            while (ei.hasNext()) {
+                ei.next().setDirty(false);
+            }
+        }
     }
 
     @Override
@@ -447,9 +1075,155 @@ public class FileBackedDictionary extends AbstractCachingDictionary {
         if (factory instanceof AbstractDictionaryElementFactory) {
             ((AbstractDictionaryElementFactory) factory).startCaching();
         }
-        super.cacheAll();
-        if (factory instanceof AbstractDictionaryElementFactory) {
-            ((AbstractDictionaryElementFactory) factory).stopCaching();
+        try {
+            if (1 < loadThreads && isCachingEnabled() && fileManager instanceof FileManagerImpl) {
+                setCacheCapacity(Integer.MAX_VALUE);
+                cacheAllParallel();
+            } else {
+                super.cacheAll();
+            }
+        } finally {
+            if (factory instanceof AbstractDictionaryElementFactory) {
+                ((AbstractDictionaryElementFactory) factory).stopCaching();
+            }
+        }
+    }
+
+    /**
+     * Splits dictionary files into line-aligned chunks and parses them in <code>loadThreads</code> threads.
+     *
+     * @throws JWNLException JWNLException
+     */
+    private void cacheAllParallel() throws JWNLException {
+        ExecutorService executor = Executors.newFixedThreadPool(loadThreads);
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (POS pos : POS.getAllPOS()) {
+                if (log.isDebugEnabled()) {
+                    log.debug(getMessages().resolveMessage("DICTIONARY_INFO_003", pos.getLabel()));
+                }
+                for (DictionaryFileType fileType : DictionaryFileType.getAllDictionaryFileTypes()) {
+                    try {
+                        long[] bounds = getLoadChunks(pos, fileType);
+                        for (int i = 1; i < bounds.length; i++) {
+                            results.add(executor.submit(new ChunkLoader(pos, fileType, bounds[i - 1], bounds[i])));
+                        }
+                    } catch (IOException e) {
+                        throw new JWNLException(getMessages().resolveMessage("DICTIONARY_EXCEPTION_008", new Object[]{pos, fileType}), e);
+                    }
+                }
+            }
+
+            int count = 0;
+            for (Future<Integer> result : results) {
+                try {
+                    count = count + result.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new JWNLException(getMessages().resolveMessage("EXCEPTION_001", e.getMessage()), e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof JWNLException) {
+                        throw (JWNLException) e.getCause();
+                    }
+                    throw new JWNLException(getMessages().resolveMessage("EXCEPTION_001", e.getCause().getMessage()), e.getCause());
+                }
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(getMessages().resolveMessage("DICTIONARY_INFO_006", count));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Splits a file into line-aligned chunks for parallel parsing.
+     *
+     * @param pos      part of speech
+     * @param fileType file type
+     * @return chunk bounds: the offset of the first line, offsets of the first lines of the following chunks
+     * and the file length
+     * @throws IOException IOException
+     */
+    long[] getLoadChunks(POS pos, DictionaryFileType fileType) throws IOException {
+        long start = fileManager.getFirstLinePointer(pos, fileType);
+        long length = getFileLength(pos, fileType);
+        long chunkSize = Math.max(MIN_LOAD_CHUNK_SIZE, (length - start) / (4 * loadThreads) + 1);
+        List<Long> bounds = new ArrayList<Long>();
+        bounds.add(start);
+        while (start < length) {
+            long end = length;
+            if (start + chunkSize < length) {
+                end = fileManager.getNextLinePointer(pos, fileType, start + chunkSize);
+            }
+            bounds.add(end);
+            start = end;
+        }
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Parses and caches lines of a file between two offsets.
+     */
+    private class ChunkLoader implements Callable<Integer> {
+        private final POS pos;
+        private final DictionaryFileType fileType;
+        private final long start;
+        private final long end;
+
+        private ChunkLoader(POS pos, DictionaryFileType fileType, long start, long end) {
+            this.pos = pos;
+            this.fileType = fileType;
+            this.start = start;
+            this.end = end;
+        }
+
+        public Integer call() throws JWNLException, IOException {
+            int count = 0;
+            SequentialLineReader reader = getSequentialLineReader(pos, fileType, start);
+            if (null != reader) {
+                try {
+                    String line;
+                    while (null != (line = reader.readLine()) && reader.getLineOffset() < end) {
+                        cacheLine(reader.getLineOffset(), line);
+                        count++;
+                    }
+                } finally {
+                    reader.close();
+                }
+            } else {
+                long offset = start;
+                while (offset < end) {
+                    String line = fileManager.readLineAt(pos, fileType, offset);
+                    if (null == line) {
+                        break;
+                    }
+                    cacheLine(offset, line);
+                    count++;
+                    offset = fileManager.getNextLinePointer(pos, fileType, offset);
+                }
+            }
+            return count;
+        }
+
+        private void cacheLine(long offset, String line) throws JWNLException {
+            if (DictionaryFileType.DATA == fileType) {
+                getSynset(pos, offset, line);
+            } else if (DictionaryFileType.INDEX == fileType) {
+                String lemma = line.substring(0, line.indexOf(' '));
+                if (null == getCachedIndexWord(pos, lemma)) {
+                    parseAndCacheIndexWordLine(pos, line);
+                }
+            } else if (DictionaryFileType.EXCEPTION == fileType) {
+                String lemma = line.substring(0, line.indexOf(' '));
+                if (null == getCachedException(pos, lemma)) {
+                    parseAndCacheExceptionLine(pos, line);
+                }
+            }
         }
     }
 }
\ No newline at end of file
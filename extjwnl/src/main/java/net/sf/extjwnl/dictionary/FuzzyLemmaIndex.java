@@ -0,0 +1,190 @@
+package net.sf.extjwnl.dictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Index over the lemmas of a part of speech for lookups within a number of edits (Levenshtein distance).
+ * Lemmas are kept sorted and walked as a trie: lemmas sharing a prefix share the rows of the edit distance
+ * table computed for it, and a prefix which is already too far from the query is skipped with all its lemmas.
+ * Matches are ranked by distance, then by the number of senses, then by lemma.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class FuzzyLemmaIndex {
+
+    private final String[] lemmas;
+    private final int[] senseCounts;
+    private final int maxLength;
+
+    private FuzzyLemmaIndex(String[] lemmas, int[] senseCounts) {
+        this.lemmas = lemmas;
+        this.senseCounts = senseCounts;
+        int max = 0;
+        for (String lemma : lemmas) {
+            max = Math.max(max, lemma.length());
+        }
+        this.maxLength = max;
+    }
+
+    /**
+     * Builds the index lemma by lemma.
+     */
+    public static class Builder {
+
+        private final List<String> lemmas = new ArrayList<String>();
+        private final List<Integer> senseCounts = new ArrayList<Integer>();
+
+        /**
+         * Adds a lemma.
+         *
+         * @param lemma      lemma
+         * @param senseCount number of senses of the lemma
+         */
+        public void add(String lemma, int senseCount) {
+            lemmas.add(lemma);
+            senseCounts.add(senseCount);
+        }
+
+        /**
+         * Returns the index.
+         *
+         * @return the index
+         */
+        public FuzzyLemmaIndex build() {
+            Integer[] order = new Integer[lemmas.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                public int compare(Integer o1, Integer o2) {
+                    return lemmas.get(o1).compareTo(lemmas.get(o2));
+                }
+            });
+            String[] sortedLemmas = new String[order.length];
+            int[] sortedSenseCounts = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedLemmas[i] = lemmas.get(order[i]);
+                sortedSenseCounts[i] = senseCounts.get(order[i]);
+            }
+            return new FuzzyLemmaIndex(sortedLemmas, sortedSenseCounts);
+        }
+    }
+
+    /**
+     * Returns the number of lemmas.
+     *
+     * @return the number of lemmas
+     */
+    public int size() {
+        return lemmas.length;
+    }
+
+    /**
+     * Returns lemmas within <var>maxEdits</var> edits of <var>query</var>, best matches first.
+     *
+     * @param query    query
+     * @param maxEdits maximum number of insertions, deletions and substitutions
+     * @param limit    maximum number of lemmas to return
+     * @return lemmas within <var>maxEdits</var> edits of <var>query</var>
+     */
+    public List<String> lookup(String query, int maxEdits, int limit) {
+        if (maxEdits < 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+        final int n = query.length();
+        // rows[k] is the edit distance row of the first k characters of the current lemma
+        int[][] rows = new int[maxLength + 1][n + 1];
+        for (int j = 0; j <= n; j++) {
+            rows[0][j] = j;
+        }
+
+        final List<int[]> matches = new ArrayList<int[]>();
+        String previous = "";
+        int valid = 0;// rows[0..valid] are computed for the first characters of previous
+        int i = 0;
+        while (i < lemmas.length) {
+            String lemma = lemmas[i];
+            int k = Math.min(commonPrefixLength(previous, lemma), valid);
+            boolean pruned = false;
+            while (k < lemma.length()) {
+                char c = lemma.charAt(k);
+                int[] above = rows[k];
+                int[] row = rows[k + 1];
+                row[0] = k + 1;
+                int min = row[0];
+                for (int j = 1; j <= n; j++) {
+                    int cost = c == query.charAt(j - 1) ? 0 : 1;
+                    row[j] = Math.min(Math.min(row[j - 1] + 1, above[j] + 1), above[j - 1] + cost);
+                    min = Math.min(min, row[j]);
+                }
+                k++;
+                if (maxEdits < min) {
+                    pruned = true;
+                    break;
+                }
+            }
+            previous = lemma;
+            if (pruned) {
+                // no lemma starting with this prefix can match
+                valid = k - 1;
+                i = skip(i, lemma.substring(0, k));
+            } else {
+                valid = k;
+                int distance = rows[k][n];
+                if (distance <= maxEdits) {
+                    matches.add(new int[]{distance, i});
+                }
+                i++;
+            }
+        }
+
+        Collections.sort(matches, new Comparator<int[]>() {
+            public int compare(int[] o1, int[] o2) {
+                if (o1[0] != o2[0]) {
+                    return o1[0] - o2[0];
+                }
+                int s1 = senseCounts[o1[1]];
+                int s2 = senseCounts[o2[1]];
+                if (s1 != s2) {
+                    return s2 - s1;
+                }
+                return o1[1] - o2[1];
+            }
+        });
+        List<String> result = new ArrayList<String>(Math.min(limit, matches.size()));
+        for (int j = 0; j < matches.size() && j < limit; j++) {
+            result.add(lemmas[matches.get(j)[1]]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of the first lemma after <var>index</var> which does not start with <var>prefix</var>.
+     */
+    private int skip(int index, String prefix) {
+        int low = index + 1;
+        int high = lemmas.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (lemmas[middle].startsWith(prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+}
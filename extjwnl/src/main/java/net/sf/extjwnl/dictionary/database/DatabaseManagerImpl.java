@@ -43,6 +43,9 @@ public class DatabaseManagerImpl implements DatabaseManager {
     protected static final String ALL_LEMMAS_LIKE_SQL =
             "SELECT lemma FROM indexword WHERE pos = ? AND lemma LIKE ?";
 
+    protected static final String ALL_LEMMAS_PREFIX_SQL =
+            "SELECT lemma FROM indexword WHERE pos = ? AND lemma LIKE ? ESCAPE '!' ORDER BY lemma";
+
     protected static final String SYNSET_SQL =
             "SELECT is_adj_cluster, gloss, lex_file_num FROM synset WHERE pos = ? AND file_offset = ?";
 
@@ -100,6 +103,20 @@ public class DatabaseManagerImpl implements DatabaseManager {
         return createPOSStringQuery(pos, "%" + substring + "%", ALL_LEMMAS_LIKE_SQL);
     }
 
+    /**
+     * Returns a query for the lemmas of part-of-speech <var>pos</var> which start with <var>prefix</var>.
+     *
+     * @param pos    part of speech
+     * @param prefix lemma prefix
+     * @return query for the lemmas which start with <var>prefix</var>
+     * @throws SQLException SQLException
+     */
+    public Query getIndexWordLemmasPrefixQuery(POS pos, String prefix) throws SQLException {
+        // a LIKE pattern without leading wildcard can use the lemma index
+        String pattern = prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return createPOSStringQuery(pos, pattern + "%", ALL_LEMMAS_PREFIX_SQL);
+    }
+
     public synchronized Query getRandomIndexWordQuery(POS pos) throws SQLException {
         MinMax minMax = minMaxIds.get(pos);
         if (minMax == null) {
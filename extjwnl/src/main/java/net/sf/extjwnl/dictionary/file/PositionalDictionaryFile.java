@@ -0,0 +1,41 @@
+package net.sf.extjwnl.dictionary.file;
+
+import java.io.IOException;
+
+/**
+ * <code>RandomAccessDictionaryFile</code> that reads lines at given offsets without using the file pointer.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public interface PositionalDictionaryFile extends RandomAccessDictionaryFile {
+
+    /**
+     * Reads the line that begins at <var>offset</var>. Does not use or move the file pointer,
+     * therefore can be called concurrently.
+     *
+     * @param offset line offset
+     * @return the line that begins at <var>offset</var>, or null at the end of file
+     * @throws IOException IOException
+     */
+    String readLineAt(long offset) throws IOException;
+
+    /**
+     * Reads the first word of the line that begins at <var>offset</var>. Does not use or move the file pointer,
+     * therefore can be called concurrently.
+     *
+     * @param offset line offset
+     * @return the first word of the line that begins at <var>offset</var>
+     * @throws IOException IOException
+     */
+    String readLineWordAt(long offset) throws IOException;
+
+    /**
+     * Returns the byte offset of the line following the line containing <var>offset</var>, or the length of the file
+     * if there is no such line. Does not use or move the file pointer, therefore can be called concurrently.
+     *
+     * @param offset file offset
+     * @return the byte offset of the line following the line containing <var>offset</var>
+     * @throws IOException IOException
+     */
+    long getNextLineOffset(long offset) throws IOException;
+}
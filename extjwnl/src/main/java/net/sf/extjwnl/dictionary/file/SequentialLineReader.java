@@ -0,0 +1,169 @@
+package net.sf.extjwnl.dictionary.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Forward-only reader of the lines of a dictionary file. Reads the file in large chunks, keeping track
+ * of line offsets, which makes it suitable for full scans. The file is opened on the first read and stays open
+ * until the end of file is reached or the reader is closed. A reader which is abandoned without closing,
+ * like one of an iterator which is not iterated till the end, releases the file when it is garbage collected.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class SequentialLineReader implements Closeable {
+
+    /**
+     * Default size of the read buffer, 64K.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    private final File file;
+    private final Charset charset;
+
+    private byte[] buffer;
+    // unread bytes are between start and limit, buffer[0] is at bufferOffset in the file
+    private int start = 0;
+    private int limit = 0;
+    private long bufferOffset;
+    private boolean eof = false;
+    private FileInputStream input;
+
+    private long lineOffset = -1;
+
+    /**
+     * Creates the reader.
+     *
+     * @param file       file to read
+     * @param charset    file charset
+     * @param offset     offset of the first line to read
+     * @param bufferSize read buffer size
+     */
+    public SequentialLineReader(File file, Charset charset, long offset, int bufferSize) {
+        this.file = file;
+        this.charset = charset;
+        this.buffer = new byte[bufferSize];
+        this.bufferOffset = offset;
+    }
+
+    /**
+     * Reads the next line.
+     *
+     * @return the next line, or null at the end of file
+     * @throws IOException IOException
+     */
+    public String readLine() throws IOException {
+        int i = start;
+        while (true) {
+            while (i < limit) {
+                byte b = buffer[i];
+                if ('\n' == b || '\r' == b) {
+                    if ('\r' == b && i + 1 == limit && !eof) {
+                        // need one more byte to check for \r\n
+                        i = i - fill();
+                        continue;
+                    }
+                    String result = decode(start, i);
+                    lineOffset = bufferOffset + start;
+                    i++;
+                    if ('\r' == b && i < limit && '\n' == buffer[i]) {
+                        i++;
+                    }
+                    start = i;
+                    return result;
+                }
+                i++;
+            }
+            if (eof) {
+                if (start < limit) {
+                    // the last line without a line end
+                    String result = decode(start, limit);
+                    lineOffset = bufferOffset + start;
+                    start = limit;
+                    return result;
+                }
+                close();
+                return null;
+            }
+            i = i - fill();
+        }
+    }
+
+    /**
+     * Returns the offset of the line returned by the last {@link #readLine()} call.
+     *
+     * @return the offset of the line returned by the last {@link #readLine()} call, or -1
+     */
+    public long getLineOffset() {
+        return lineOffset;
+    }
+
+    /**
+     * Returns the offset of the line which will be returned by the next {@link #readLine()} call.
+     *
+     * @return the offset of the line which will be returned by the next {@link #readLine()} call
+     */
+    public long getNextLineOffset() {
+        return bufferOffset + start;
+    }
+
+    /**
+     * Closes the file and discards the unread lines, {@link #readLine()} returns null afterwards.
+     *
+     * @throws IOException IOException
+     */
+    public void close() throws IOException {
+        eof = true;
+        bufferOffset = bufferOffset + start;
+        start = 0;
+        limit = 0;
+        if (null != input) {
+            try {
+                input.close();
+            } finally {
+                input = null;
+            }
+        }
+    }
+
+    /**
+     * Moves unread bytes to the beginning of the buffer, growing it if needed, and reads more bytes.
+     *
+     * @return the number of positions the unread bytes were moved by
+     * @throws IOException IOException
+     */
+    private int fill() throws IOException {
+        int shift = start;
+        if (0 < shift) {
+            System.arraycopy(buffer, start, buffer, 0, limit - start);
+            bufferOffset = bufferOffset + shift;
+            limit = limit - shift;
+            start = 0;
+        }
+        if (limit == buffer.length) {
+            // a line longer than the buffer
+            buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+        }
+        if (null == input) {
+            input = new FileInputStream(file);
+            input.getChannel().position(bufferOffset + limit);
+        }
+        int read = input.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            eof = true;
+            input.close();
+            input = null;
+        } else {
+            limit = limit + read;
+        }
+        return shift;
+    }
+
+    private String decode(int from, int to) {
+        return from == to ? "" : new String(buffer, from, to - from, charset);
+    }
+}
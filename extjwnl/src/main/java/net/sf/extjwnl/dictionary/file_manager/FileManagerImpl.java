@@ -9,7 +9,8 @@ import net.sf.extjwnl.data.Word;
 import net.sf.extjwnl.dictionary.Dictionary;
 import net.sf.extjwnl.dictionary.file.*;
 import net.sf.extjwnl.princeton.file.PrincetonRandomAccessDictionaryFile;
-import net.sf.extjwnl.util.TokenizerParser;
+import net.sf.extjwnl.util.LineParser;
+import net.sf.extjwnl.util.cache.BlockCache;
 import net.sf.extjwnl.util.factory.Param;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +18,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * An implementation of <code>FileManager</code> that reads files from the local file system.
@@ -43,13 +45,68 @@ public class FileManagerImpl implements FileManager {
     public static final String CHECK_PATH_KEY = "check_path";
 
     /**
-     * Whether to cache use counts, default false. Setting this parameter to <code>true</code> speeds up elements
-     * loading from files considerably, at the expense of some amount of memory.
+     * Whether to cache use counts, default false. Setting this parameter to <code>true</code> speeds up use count
+     * lookups considerably, at the expense of some amount of memory. Use counts are kept in a compact sorted table.
      */
     public static final String CACHE_USE_COUNT_KEY = "cache_use_count";
     private boolean cacheUseCount = false;
 
-    private final Map<String, Integer> useCountCache = new HashMap<String, Integer>();
+    private UseCountTable useCountTable;
+
+    /**
+     * Whether to keep line offsets of index, exception, cntlist.rev and index.sense files in memory, default false.
+     * Setting this parameter to <code>true</code> replaces byte-range binary search with a search over line numbers
+     * and gives next and random line pointers without file access, at the expense of some amount of memory.
+     */
+    public static final String CACHE_LINE_OFFSETS_KEY = "cache_line_offsets";
+    private boolean cacheLineOffsets = false;
+
+    private volatile Map<RandomAccessDictionaryFile, LineOffsetTable> lineOffsets =
+            Collections.<RandomAccessDictionaryFile, LineOffsetTable>emptyMap();
+
+    /**
+     * Whether to build trigram indexes over the lemmas of index files for substring searches, default false.
+     * An index is built on the first substring search in a file. Setting this parameter to <code>true</code> makes
+     * searches read only the lines which might match, at the expense of some amount of memory.
+     */
+    public static final String SUBSTRING_INDEX_KEY = "substring_index";
+    private boolean substringIndex = false;
+
+    private final Map<RandomAccessDictionaryFile, SubstringIndex> substringIndexes =
+            new IdentityHashMap<RandomAccessDictionaryFile, SubstringIndex>();
+
+    /**
+     * Size of the block cache shared by all dictionary files in bytes, default 0, which disables the cache.
+     * The cache keeps the most recently read file blocks under a single memory budget. Works with files
+     * which support block caching, such as <code>PrincetonRandomAccessDictionaryFile</code>.
+     */
+    public static final String BLOCK_CACHE_SIZE_KEY = "block_cache_size";
+
+    /**
+     * Size of the block in the block cache in bytes, default 16384. Sizes between 4K and 64K work best.
+     */
+    public static final String BLOCK_CACHE_BLOCK_SIZE_KEY = "block_cache_block_size";
+    private static final int DEFAULT_BLOCK_CACHE_BLOCK_SIZE = 16384;
+
+    private BlockCache blockCache;
+
+    /**
+     * Number of threads used to save dictionary files, default 1. With more than one thread
+     * exception, data and index files are written in parallel once offsets are assigned,
+     * followed by cntlist, cntlist.rev and index.sense. Saved files are the same in both cases.
+     */
+    public static final String SAVE_THREADS_KEY = "save_threads";
+    private int saveThreads = 1;
+
+    /**
+     * Whether to save only the changes, default false. With this parameter set to <code>true</code> files
+     * are patched in place when the offsets of synsets do not shift, otherwise lines of unchanged elements
+     * are copied from the current files and only lines of changed elements are rendered. cntlist, cntlist.rev
+     * and index.sense are rewritten only when synsets or index words change. Works with files which support
+     * it, such as <code>PrincetonRandomAccessDictionaryFile</code>.
+     */
+    public static final String INCREMENTAL_SAVE_KEY = "incremental_save";
+    private boolean incrementalSave = false;
 
     /**
      * Random number generator used by getRandomLineOffset().
@@ -120,6 +177,22 @@ public class FileManagerImpl implements FileManager {
                 throw new JWNLException(dictionary.getMessages().resolveMessage("DICTIONARY_EXCEPTION_018", DictionaryFileType.INDEX), e);
             }
 
+            if (params.containsKey(BLOCK_CACHE_SIZE_KEY)) {
+                long blockCacheSize = Long.parseLong(params.get(BLOCK_CACHE_SIZE_KEY).getValue());
+                if (0 < blockCacheSize) {
+                    int blockSize = DEFAULT_BLOCK_CACHE_BLOCK_SIZE;
+                    if (params.containsKey(BLOCK_CACHE_BLOCK_SIZE_KEY)) {
+                        blockSize = Integer.parseInt(params.get(BLOCK_CACHE_BLOCK_SIZE_KEY).getValue());
+                    }
+                    blockCache = new BlockCache(blockSize, blockCacheSize);
+                    for (RandomAccessDictionaryFile file : getAllFiles()) {
+                        if (file instanceof PrincetonRandomAccessDictionaryFile) {
+                            ((PrincetonRandomAccessDictionaryFile) file).setBlockCache(blockCache);
+                        }
+                    }
+                }
+            }
+
             if (params.containsKey(CACHE_USE_COUNT_KEY)) {
                 cacheUseCount = Boolean.parseBoolean(params.get(CACHE_USE_COUNT_KEY).getValue());
             }
@@ -127,6 +200,36 @@ public class FileManagerImpl implements FileManager {
             if (cacheUseCount) {
                 cacheUseCounts();
             }
+
+            if (params.containsKey(CACHE_LINE_OFFSETS_KEY)) {
+                cacheLineOffsets = Boolean.parseBoolean(params.get(CACHE_LINE_OFFSETS_KEY).getValue());
+            }
+
+            if (cacheLineOffsets) {
+                cacheLineOffsets();
+            }
+
+            if (params.containsKey(SUBSTRING_INDEX_KEY)) {
+                substringIndex = Boolean.parseBoolean(params.get(SUBSTRING_INDEX_KEY).getValue());
+            }
+            if (params.containsKey(SAVE_THREADS_KEY)) {
+                saveThreads = Integer.parseInt(params.get(SAVE_THREADS_KEY).getValue());
+            }
+
+            if (params.containsKey(INCREMENTAL_SAVE_KEY)) {
+                incrementalSave = Boolean.parseBoolean(params.get(INCREMENTAL_SAVE_KEY).getValue());
+            }
+            if (incrementalSave) {
+                for (DictionaryFileType dft : DictionaryFileType.getAllDictionaryFileTypes()) {
+                    Iterator<RandomAccessDictionaryFile> itr = files.get(dft).getFileIterator();
+                    while (itr.hasNext()) {
+                        RandomAccessDictionaryFile file = itr.next();
+                        if (file instanceof PrincetonRandomAccessDictionaryFile) {
+                            ((PrincetonRandomAccessDictionaryFile) file).setIncrementalSave(true);
+                        }
+                    }
+                }
+            }
         } catch (IOException e) {
             throw new JWNLException(dictionary.getMessages().resolveMessage("DICTIONARY_EXCEPTION_016"), e);
         }
@@ -136,21 +239,76 @@ public class FileManagerImpl implements FileManager {
         if (log.isDebugEnabled()) {
             log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_018"));
         }
-        String line = revCntList.readLine();
-        while (null != line && !"".equals(line)) {
-            //sense_key  sense_number  tag_cnt
-            TokenizerParser tokenizer = new TokenizerParser(line, " ");
-            String senseKey = tokenizer.nextToken();//sense_key
-            tokenizer.nextToken();//sense_number
-            Integer useCnt = tokenizer.nextInt();//tag_cnt
-            useCountCache.put(senseKey, useCnt);
-            line = revCntList.readLine();
+        UseCountTable.Builder builder = new UseCountTable.Builder();
+        if (revCntList instanceof PrincetonRandomAccessDictionaryFile) {
+            SequentialLineReader reader = ((PrincetonRandomAccessDictionaryFile) revCntList).getSequentialLineReader(0);
+            try {
+                String line = reader.readLine();
+                while (null != line && !"".equals(line)) {
+                    builder.add(line);
+                    line = reader.readLine();
+                }
+            } finally {
+                reader.close();
+            }
+        } else {
+            String line = LineReads.readLineAt(revCntList, 0);
+            long offset = 0;
+            while (null != line && !"".equals(line)) {
+                builder.add(line);
+                offset = LineReads.getNextLineOffset(revCntList, offset);
+                line = LineReads.readLineAt(revCntList, offset);
+            }
         }
+        useCountTable = builder.build();
         if (log.isDebugEnabled()) {
             log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_019"));
         }
     }
 
+    private void cacheLineOffsets() throws IOException {
+        Map<RandomAccessDictionaryFile, LineOffsetTable> result = new IdentityHashMap<RandomAccessDictionaryFile, LineOffsetTable>();
+        List<RandomAccessDictionaryFile> sortedFiles = new ArrayList<RandomAccessDictionaryFile>();
+        for (DictionaryFileType fileType : new DictionaryFileType[]{DictionaryFileType.INDEX, DictionaryFileType.EXCEPTION}) {
+            Iterator<RandomAccessDictionaryFile> itr = files.get(fileType).getFileIterator();
+            while (itr.hasNext()) {
+                sortedFiles.add(itr.next());
+            }
+        }
+        sortedFiles.add(revCntList);
+        sortedFiles.add(senseIndex);
+        for (RandomAccessDictionaryFile file : sortedFiles) {
+            if (log.isDebugEnabled()) {
+                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_022", file.getFile().getName()));
+            }
+            result.put(file, LineOffsetTable.build(file, fileGetFirstLinePointer(file)));
+        }
+        lineOffsets = result;
+    }
+
+    private List<RandomAccessDictionaryFile> getAllFiles() {
+        List<RandomAccessDictionaryFile> result = new ArrayList<RandomAccessDictionaryFile>();
+        for (DictionaryFileType fileType : DictionaryFileType.getAllDictionaryFileTypes()) {
+            Iterator<RandomAccessDictionaryFile> itr = files.get(fileType).getFileIterator();
+            while (itr.hasNext()) {
+                result.add(itr.next());
+            }
+        }
+        result.add(revCntList);
+        result.add(cntList);
+        result.add(senseIndex);
+        return result;
+    }
+
+    /**
+     * Returns the block cache shared by dictionary files.
+     *
+     * @return the block cache shared by dictionary files, or null if it is disabled
+     */
+    public BlockCache getBlockCache() {
+        return blockCache;
+    }
+
     public void close() {
         files.close();
         cntList.close();
@@ -167,6 +325,11 @@ public class FileManagerImpl implements FileManager {
     }
 
     public void edit() throws IOException {
+        // files are going to be rewritten
+        lineOffsets = Collections.emptyMap();
+        synchronized (substringIndexes) {
+            substringIndexes.clear();
+        }
         files.edit();
         revCntList.edit();
         cntList.edit();
@@ -185,51 +348,51 @@ public class FileManagerImpl implements FileManager {
     }
 
 
-    /**
-     * Skips the next line in the file.
-     *
-     * @param file file
-     * @throws IOException IOException
-     */
-    private void skipLine(RandomAccessDictionaryFile file) throws IOException {
-        int c;
-        while (((c = file.read()) != -1) && c != '\n' && c != '\r') {
-        }
-        c = file.read();
-        if (c != '\n' && c != '\r') {
-            if (-1 < c) {
-                file.seek(file.getFilePointer() - 1);
-            }
-        }
-    }
-
     public String readLineAt(POS pos, DictionaryFileType fileType, long offset) throws IOException {
         return fileReadLineAt(getFile(pos, fileType), offset);
     }
 
     public String fileReadLineAt(RandomAccessDictionaryFile file, long offset) throws IOException {
-        synchronized (file) {
-            file.seek(offset);
-            String line = file.readLine();
-            long nextOffset = file.getFilePointer();
-            if (line == null) {
-                nextOffset = -1;
-            }
-            file.setNextLineOffset(offset, nextOffset);
-            return line;
-        }
+        return LineReads.readLineAt(file, offset);
     }
 
     public long getNextLinePointer(POS pos, DictionaryFileType fileType, long offset) throws IOException {
         RandomAccessDictionaryFile file = getFile(pos, fileType);
-        synchronized (file) {
-            if (file.isPreviousLineOffset(offset) && offset != file.getNextLineOffset()) {
-                return file.getNextLineOffset();
-            }
-            file.seek(offset);
-            skipLine(file);
-            return file.getFilePointer();
+        LineOffsetTable table = lineOffsets.get(file);
+        if (null != table) {
+            return table.getNextLineOffset(offset);
         }
+        return LineReads.getNextLineOffset(file, offset);
+    }
+
+    /**
+     * Returns the length of the specified file in bytes.
+     *
+     * @param pos      part of speech
+     * @param fileType file type
+     * @return the length of the specified file in bytes
+     * @throws IOException IOException
+     */
+    public long getFileLength(POS pos, DictionaryFileType fileType) throws IOException {
+        return getFile(pos, fileType).length();
+    }
+
+    /**
+     * Opens a forward-only reader over the lines of the specified file, starting at <var>offset</var>.
+     * Should be preferred for full file scans.
+     *
+     * @param pos      part of speech
+     * @param fileType file type
+     * @param offset   file offset of the first line to read
+     * @return a reader over the lines of the specified file, or null if the file does not support sequential reading
+     * @throws IOException IOException
+     */
+    public SequentialLineReader getSequentialLineReader(POS pos, DictionaryFileType fileType, long offset) throws IOException {
+        RandomAccessDictionaryFile file = getFile(pos, fileType);
+        if (file instanceof PrincetonRandomAccessDictionaryFile) {
+            return ((PrincetonRandomAccessDictionaryFile) file).getSequentialLineReader(offset);
+        }
+        return null;
     }
 
     public long getMatchingLinePointer(POS pos, DictionaryFileType fileType, long offset, String substring)
@@ -240,21 +403,38 @@ public class FileManagerImpl implements FileManager {
             return -1;
         }
 
-        synchronized (file) {
-            file.seek(offset);
-            do {
-                String line = file.readLineWord();
-                file.readLine();//skip the rest of the line as we're reading only the first word
-                long nextOffset = file.getFilePointer();
-                if (line == null || "".equals(line)) {
-                    return -1;
+        if (substringIndex && DictionaryFileType.INDEX == fileType) {
+            return getSubstringIndex(file).getMatchingLinePointer(offset, substring);
+        }
+
+        do {
+            //reading only the first word
+            String line = LineReads.readLineWordAt(file, offset);
+            if (line == null || "".equals(line)) {
+                return -1;
+            }
+            if (line.contains(substring)) {
+                return offset;
+            }
+            offset = LineReads.getNextLineOffset(file, offset);
+        } while (true);
+    }
+
+    private SubstringIndex getSubstringIndex(RandomAccessDictionaryFile file) throws IOException {
+        synchronized (substringIndexes) {
+            SubstringIndex result = substringIndexes.get(file);
+            if (null == result) {
+                LineOffsetTable table = lineOffsets.get(file);
+                if (null == table) {
+                    table = LineOffsetTable.build(file, fileGetFirstLinePointer(file));
                 }
-                file.setNextLineOffset(offset, nextOffset);
-                if (line.contains(substring)) {
-                    return offset;
+                if (log.isDebugEnabled()) {
+                    log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_023", file.getFile().getName()));
                 }
-                offset = nextOffset;
-            } while (true);
+                result = SubstringIndex.build(file, table);
+                substringIndexes.put(file, result);
+            }
+            return result;
         }
     }
 
@@ -271,48 +451,130 @@ public class FileManagerImpl implements FileManager {
         if (file == null || file.length() == 0) {
             return -1;
         }
-        synchronized (file) {
-            long start = 0;
-            long stop = file.length();
-            long offset, midpoint; //our current offset within the file
-            int compare;
-            String word; //current word at a line
-            while (true) {
-                midpoint = start + (stop - start) / 2;
-                file.seek(midpoint);
-                file.readLine();//without synchronization inside PRADF, this sometimes returned garbage.
-                offset = file.getFilePointer();//and the pointer was moved by another thread
-                if (stop == offset) { //we are at eof
-                    file.seek(start);
-                    offset = file.getFilePointer();
-                    while (offset != stop) {
-                        word = file.readLineWord();
-                        if (word.equals(target)) {
-                            return offset;
-                        } else {
-                            file.readLine();
-                            offset = file.getFilePointer();
-                        }
+        LineOffsetTable table = lineOffsets.get(file);
+        if (null != table) {
+            return tableGetIndexedLinePointer(file, table, target);
+        }
+        // positional reads, no file pointer, no locking
+        long start = 0;
+        long stop = file.length();
+        long offset, midpoint; //our current offset within the file
+        int compare;
+        String word; //current word at a line
+        while (true) {
+            midpoint = start + (stop - start) / 2;
+            offset = LineReads.getNextLineOffset(file, midpoint);
+            if (stop == offset) { //we are at eof
+                offset = start;
+                while (offset != stop) {
+                    word = LineReads.readLineWordAt(file, offset);
+                    if (word.equals(target)) {
+                        return offset;
+                    } else {
+                        offset = LineReads.getNextLineOffset(file, offset);
                     }
-                    return -1;
                 }
-                word = file.readLineWord();
-                compare = word.compareTo(target);
-                /**
-                 * Determines where to go within the file.
-                 */
-                if (compare == 0) {
-                    return offset;
-                } else if (compare > 0) {
-                    stop = offset;
+                return -1;
+            }
+            word = LineReads.readLineWordAt(file, offset);
+            compare = word.compareTo(target);
+            /**
+             * Determines where to go within the file.
+             */
+            if (compare == 0) {
+                return offset;
+            } else if (compare > 0) {
+                stop = offset;
+            } else {
+                start = offset;
+            }
+        }
+    }
+
+    private long tableGetIndexedLinePointer(RandomAccessDictionaryFile file, LineOffsetTable table, String target) throws IOException {
+        // binary search over line numbers, each step reads exactly one word
+        int low = 0;
+        int high = table.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long offset = table.get(middle);
+            int compare = LineReads.readLineWordAt(file, offset).compareTo(target);
+            if (compare < 0) {
+                low = middle + 1;
+            } else if (compare > 0) {
+                high = middle - 1;
+            } else {
+                return offset;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Search for the first line whose index word is not less than <var>target</var>, in a sorted file.
+     *
+     * @param pos      part of speech
+     * @param fileType file type
+     * @param target   index word to search for
+     * @return The file offset of the start of the line, or <code>-1</code> if all index words are less than
+     *         <var>target</var>.
+     * @throws IOException IOException
+     */
+    public long getCeilingLinePointer(POS pos, DictionaryFileType fileType, String target) throws IOException {
+        RandomAccessDictionaryFile file = getFile(pos, fileType);
+        if (file == null || file.length() == 0) {
+            return -1;
+        }
+        LineOffsetTable table = lineOffsets.get(file);
+        if (null != table) {
+            // lower bound over line numbers
+            int low = 0;
+            int high = table.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (LineReads.readLineWordAt(file, table.get(middle)).compareTo(target) < 0) {
+                    low = middle + 1;
                 } else {
-                    start = offset;
+                    high = middle;
                 }
             }
+            return low < table.size() ? table.get(low) : -1;
+        }
+
+        long length = file.length();
+        long start = fileGetFirstLinePointer(file);
+        if (length <= start) {
+            return -1;
+        }
+        if (0 <= LineReads.readLineWordAt(file, start).compareTo(target)) {
+            return start;
+        }
+        // the word at start is less than target, the word at stop is not (or stop is eof)
+        long stop = length;
+        long offset, midpoint;
+        while (true) {
+            midpoint = start + (stop - start) / 2;
+            offset = LineReads.getNextLineOffset(file, midpoint);
+            if (stop <= offset) { //no line starts in between, scan the rest
+                offset = LineReads.getNextLineOffset(file, start);
+                while (offset < stop && LineReads.readLineWordAt(file, offset).compareTo(target) < 0) {
+                    offset = LineReads.getNextLineOffset(file, offset);
+                }
+                return offset < length ? offset : -1;
+            }
+            if (LineReads.readLineWordAt(file, offset).compareTo(target) < 0) {
+                start = offset;
+            } else {
+                stop = offset;
+            }
         }
     }
 
     public long getRandomLinePointer(POS pos, DictionaryFileType fileType) throws IOException {
+        LineOffsetTable table = lineOffsets.get(getFile(pos, fileType));
+        if (null != table && 0 < table.size()) {
+            return table.get(rand.nextInt(table.size()));
+        }
         long fileLength = getFile(pos, fileType).length();
         long start = getFirstLinePointer(pos, fileType);
         long offset = start + (long) rand.nextInt(((int) fileLength) - (int) start);
@@ -320,18 +582,23 @@ public class FileManagerImpl implements FileManager {
     }
 
     public long getFirstLinePointer(POS pos, DictionaryFileType fileType) throws IOException {
-        long offset = 0;
         RandomAccessDictionaryFile file = getFile(pos, fileType);
-        synchronized (file) {
-            file.seek(offset);
-            long oldOffset = -1;
-            for (String line = file.readLineWord(); line == null || "".equals(line); line = file.readLineWord()) {
-                offset = getNextLinePointer(pos, fileType, offset);
-                if (oldOffset == offset) {
-                    break;
-                }
-                oldOffset = offset;
+        LineOffsetTable table = lineOffsets.get(file);
+        if (null != table && 0 < table.size()) {
+            return table.get(0);
+        }
+        return fileGetFirstLinePointer(file);
+    }
+
+    private long fileGetFirstLinePointer(RandomAccessDictionaryFile file) throws IOException {
+        long offset = 0;
+        long oldOffset = -1;
+        for (String line = LineReads.readLineWordAt(file, offset); line == null || "".equals(line); line = LineReads.readLineWordAt(file, offset)) {
+            offset = LineReads.getNextLineOffset(file, offset);
+            if (oldOffset == offset) {
+                break;
             }
+            oldOffset = offset;
         }
         return offset;
     }
@@ -345,7 +612,7 @@ public class FileManagerImpl implements FileManager {
     }
 
     public synchronized void save() throws IOException, JWNLException {
-        files.delete();
+        // files replace themselves when written, a failed save leaves them as they were
         files.open();
 
         //find max offset length
@@ -370,143 +637,257 @@ public class FileManagerImpl implements FileManager {
             }
         }
 
-        files.save();
+        // synsets which have moved are marked as changed by now
+        boolean saveSenses = !incrementalSave || isSensesChanged();
+        if (1 < saveThreads) {
+            saveParallel(maxOffsetLength, saveSenses);
+        } else {
+            files.save();
+            if (saveSenses) {
+                saveUseCounts();
+                saveSenseIndex(maxOffsetLength);
+            }
+        }
+    }
 
-        {
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_004", revCntList.getFile().getName()));
-            }
-            //cntlist.rev
-            ArrayList<Word> toRender = new ArrayList<Word>();
-            Set<String> renderedKeys = new HashSet<String>();
-            for (POS pos : POS.getAllPOS()) {
-                Iterator<IndexWord> ii = dictionary.getIndexWordIterator(pos);
-                while (ii.hasNext()) {
-                    IndexWord iw = ii.next();
-                    for (int i = 0; i < iw.getSenses().size(); i++) {
-                        for (Word w : iw.getSenses().get(i).getWords()) {
-                            String key = w.getSenseKeyWithAdjClass();
-                            if (0 < w.getUseCount() && !renderedKeys.contains(key)) {
-                                toRender.add(w);
-                                renderedKeys.add(key);
-                            }
-                        }
-                    }
+    /**
+     * Returns whether any synset or index word has changed, which changes use counts or sense index.
+     *
+     * @return whether any synset or index word has changed
+     * @throws JWNLException JWNLException
+     */
+    private boolean isSensesChanged() throws JWNLException {
+        for (POS pos : POS.getAllPOS()) {
+            Iterator<Synset> si = dictionary.getSynsetIterator(pos);
+            while (si.hasNext()) {
+                if (si.next().isDirty()) {
+                    return true;
                 }
             }
-
-            //sort by key
-            Collections.sort(toRender, new Comparator<Word>() {
-                @Override
-                public int compare(Word o1, Word o2) {
-                    try {
-                        return o1.getSenseKeyWithAdjClass().compareTo(o2.getSenseKeyWithAdjClass());
-                    } catch (JWNLException e) {
-                        throw new JWNLRuntimeException(e);
-                    }
+            Iterator<IndexWord> ii = dictionary.getIndexWordIterator(pos);
+            while (ii.hasNext()) {
+                if (ii.next().isDirty()) {
+                    return true;
                 }
-            });
+            }
+        }
+        return false;
+    }
 
-            revCntList.seek(0);
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_008", revCntList.getFile().getName()));
-            }
-            long counter = 0;
-            long total = toRender.size();
-            long reportInt = (total / 20) + 1;//i.e. report every 5%
-            for (Word word : toRender) {
-                counter++;
-                if (0 == (counter % reportInt)) {
-                    if (log.isDebugEnabled()) {
-                        log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_014", 100 * counter / total));
-                    }
+    /**
+     * Saves files in <code>saveThreads</code> threads. Offsets are fixed by now and each file renders
+     * its own elements, so the files are the same as saved one after another.
+     *
+     * @param maxOffsetLength offset length
+     * @param saveSenses      whether to save use counts and sense index
+     * @throws IOException   IOException
+     * @throws JWNLException JWNLException
+     */
+    private void saveParallel(final int maxOffsetLength, boolean saveSenses) throws IOException, JWNLException {
+        ExecutorService executor = Executors.newFixedThreadPool(saveThreads);
+        try {
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (DictionaryFileType dft : DictionaryFileType.getAllDictionaryFileTypes()) {
+                Iterator<RandomAccessDictionaryFile> itr = files.get(dft).getFileIterator();
+                while (itr.hasNext()) {
+                    final RandomAccessDictionaryFile radf = itr.next();
+                    results.add(executor.submit(new Callable<Void>() {
+                        public Void call() throws IOException, JWNLException {
+                            radf.save();
+                            return null;
+                        }
+                    }));
                 }
-                revCntList.writeLine(word.getSenseKeyWithAdjClass() + " " + word.getIndex() + " " + word.getUseCount());
             }
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_013", revCntList.getFile().getName()));
-            }
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_012", revCntList.getFile().getName()));
+            waitFor(results);
+            if (!saveSenses) {
+                return;
             }
 
+            // index files sort senses of index words, sense numbers in index.sense depend on the order
+            results.clear();
+            results.add(executor.submit(new Callable<Void>() {
+                public Void call() throws IOException, JWNLException {
+                    saveUseCounts();
+                    return null;
+                }
+            }));
+            results.add(executor.submit(new Callable<Void>() {
+                public Void call() throws IOException, JWNLException {
+                    saveSenseIndex(maxOffsetLength);
+                    return null;
+                }
+            }));
+            waitFor(results);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-            //sort by count
-            Collections.sort(toRender, new Comparator<Word>() {
-                @Override
-                public int compare(Word o1, Word o2) {
-                    return o1.getUseCount() - o2.getUseCount();
+    private void waitFor(List<Future<Void>> results) throws IOException, JWNLException {
+        for (Future<Void> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JWNLException(dictionary.getMessages().resolveMessage("EXCEPTION_001", e.getMessage()), e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof JWNLException) {
+                    throw (JWNLException) e.getCause();
                 }
-            });
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new JWNLException(dictionary.getMessages().resolveMessage("EXCEPTION_001", e.getCause().getMessage()), e.getCause());
+            }
+        }
+    }
 
-            cntList.seek(0);
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_008", cntList.getFile().getName()));
-            }
-            counter = 0;
-            total = toRender.size();
-            reportInt = (total / 20) + 1;//i.e. report every 5%
-            for (Word word : toRender) {
-                counter++;
-                if (0 == (counter % reportInt)) {
-                    if (log.isDebugEnabled()) {
-                        log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_014", 100 * counter / total));
+    /**
+     * Saves cntlist.rev and cntlist.
+     *
+     * @throws IOException   IOException
+     * @throws JWNLException JWNLException
+     */
+    private void saveUseCounts() throws IOException, JWNLException {
+        if (log.isDebugEnabled()) {
+            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_004", revCntList.getFile().getName()));
+        }
+        //cntlist.rev
+        ArrayList<Word> toRender = new ArrayList<Word>();
+        Set<String> renderedKeys = new HashSet<String>();
+        for (POS pos : POS.getAllPOS()) {
+            Iterator<IndexWord> ii = dictionary.getIndexWordIterator(pos);
+            while (ii.hasNext()) {
+                IndexWord iw = ii.next();
+                for (int i = 0; i < iw.getSenses().size(); i++) {
+                    for (Word w : iw.getSenses().get(i).getWords()) {
+                        String key = w.getSenseKeyWithAdjClass();
+                        if (0 < w.getUseCount() && !renderedKeys.contains(key)) {
+                            toRender.add(w);
+                            renderedKeys.add(key);
+                        }
                     }
                 }
-                cntList.writeLine(word.getUseCount() + " " + word.getSenseKeyWithAdjClass() + " " + word.getIndex());
             }
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_013", cntList.getFile().getName()));
-            }
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_012", cntList.getFile().getName()));
+        }
+
+        //sort by key
+        Collections.sort(toRender, new Comparator<Word>() {
+            @Override
+            public int compare(Word o1, Word o2) {
+                try {
+                    return o1.getSenseKeyWithAdjClass().compareTo(o2.getSenseKeyWithAdjClass());
+                } catch (JWNLException e) {
+                    throw new JWNLRuntimeException(e);
+                }
             }
+        });
 
+        List<String> lines = new ArrayList<String>(toRender.size());
+        if (log.isDebugEnabled()) {
+            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_008", revCntList.getFile().getName()));
+        }
+        long counter = 0;
+        long total = toRender.size();
+        long reportInt = (total / 20) + 1;//i.e. report every 5%
+        for (Word word : toRender) {
+            counter++;
+            if (0 == (counter % reportInt)) {
+                if (log.isDebugEnabled()) {
+                    log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_014", 100 * counter / total));
+                }
+            }
+            lines.add(word.getSenseKeyWithAdjClass() + " " + word.getIndex() + " " + word.getUseCount());
+        }
+        revCntList.writeStrings(lines);
+        if (log.isDebugEnabled()) {
+            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_013", revCntList.getFile().getName()));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_012", revCntList.getFile().getName()));
         }
 
 
-        {
-            //sense index
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_004", senseIndex.getFile().getName()));
-            }
-            Set<String> senseIndexContent = new TreeSet<String>();
-            for (POS pos : POS.getAllPOS()) {
-                Iterator<IndexWord> ii = dictionary.getIndexWordIterator(pos);
-                while (ii.hasNext()) {
-                    IndexWord iw = ii.next();
-                    for (int i = 0; i < iw.getSenses().size(); i++) {
-                        Synset synset = iw.getSenses().get(i);
-                        for (Word w : synset.getWords()) {
-                            if (w.getLemma().equalsIgnoreCase(iw.getLemma())) {
-                                StringBuilder result = new StringBuilder(100);
-                                //sense_key  synset_offset  sense_number  tag_cnt
-                                result.append(w.getSenseKey()).append(" ");
-                                PrincetonRandomAccessDictionaryFile.formatOffset(synset.getOffset(), maxOffsetLength, result);
-                                result.append(" ");
-                                result.append(Integer.toString(i + 1));
-                                result.append(" ");
-                                result.append(w.getUseCount());
-                                senseIndexContent.add(result.toString());
-                            }
+        //sort by count
+        Collections.sort(toRender, new Comparator<Word>() {
+            @Override
+            public int compare(Word o1, Word o2) {
+                return o1.getUseCount() - o2.getUseCount();
+            }
+        });
+
+        lines.clear();
+        if (log.isDebugEnabled()) {
+            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_008", cntList.getFile().getName()));
+        }
+        counter = 0;
+        total = toRender.size();
+        reportInt = (total / 20) + 1;//i.e. report every 5%
+        for (Word word : toRender) {
+            counter++;
+            if (0 == (counter % reportInt)) {
+                if (log.isDebugEnabled()) {
+                    log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_014", 100 * counter / total));
+                }
+            }
+            lines.add(word.getUseCount() + " " + word.getSenseKeyWithAdjClass() + " " + word.getIndex());
+        }
+        cntList.writeStrings(lines);
+        if (log.isDebugEnabled()) {
+            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_013", cntList.getFile().getName()));
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_012", cntList.getFile().getName()));
+        }
+    }
+
+    /**
+     * Saves index.sense.
+     *
+     * @param maxOffsetLength offset length
+     * @throws IOException   IOException
+     * @throws JWNLException JWNLException
+     */
+    private void saveSenseIndex(int maxOffsetLength) throws IOException, JWNLException {
+        //sense index
+        if (log.isDebugEnabled()) {
+            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_004", senseIndex.getFile().getName()));
+        }
+        Set<String> senseIndexContent = new TreeSet<String>();
+        for (POS pos : POS.getAllPOS()) {
+            Iterator<IndexWord> ii = dictionary.getIndexWordIterator(pos);
+            while (ii.hasNext()) {
+                IndexWord iw = ii.next();
+                for (int i = 0; i < iw.getSenses().size(); i++) {
+                    Synset synset = iw.getSenses().get(i);
+                    for (Word w : synset.getWords()) {
+                        if (w.getLemma().equalsIgnoreCase(iw.getLemma())) {
+                            StringBuilder result = new StringBuilder(100);
+                            //sense_key  synset_offset  sense_number  tag_cnt
+                            result.append(w.getSenseKey()).append(" ");
+                            PrincetonRandomAccessDictionaryFile.formatOffset(synset.getOffset(), maxOffsetLength, result);
+                            result.append(" ");
+                            result.append(Integer.toString(i + 1));
+                            result.append(" ");
+                            result.append(w.getUseCount());
+                            senseIndexContent.add(result.toString());
                         }
                     }
                 }
             }
+        }
 
-            senseIndex.seek(0);
-            senseIndex.writeStrings(senseIndexContent);
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_012", senseIndex.getFile().getName()));
-            }
+        senseIndex.writeStrings(senseIndexContent);
+        if (log.isDebugEnabled()) {
+            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_012", senseIndex.getFile().getName()));
         }
     }
 
     @Override
     public int getUseCount(String senseKey) throws IOException {
         if (cacheUseCount) {
-            Integer result = useCountCache.get(senseKey);
-            return null == result ? 0 : result;
+            return useCountTable.get(senseKey);
         } else {
             long offset = fileGetIndexedLinePointer(revCntList, senseKey);
             if (-1 == offset) {
@@ -514,11 +895,40 @@ public class FileManagerImpl implements FileManager {
             } else {
                 String line = fileReadLineAt(revCntList, offset);
                 //sense_key  sense_number  tag_cnt
-                TokenizerParser tokenizer = new TokenizerParser(line, " ");
-                tokenizer.nextToken();//sense_key
-                tokenizer.nextToken();//sense_number
-                return tokenizer.nextInt();//tag_cnt
+                LineParser parser = new LineParser(line);
+                parser.skipToken();//sense_key
+                parser.skipToken();//sense_number
+                return parser.nextInt();//tag_cnt
             }
         }
     }
+
+    /**
+     * Returns whether the sense index is present and not empty.
+     *
+     * @return whether the sense index is present and not empty
+     * @throws IOException IOException
+     */
+    public boolean isSenseIndexAvailable() throws IOException {
+        return senseIndex.isOpen() && 0 < senseIndex.length();
+    }
+
+    /**
+     * Returns the offset of the synset containing the sense marked by <var>senseKey</var>, looked up in the sense index.
+     *
+     * @param senseKey sense key
+     * @return the offset of the synset containing the sense marked by <var>senseKey</var>, or -1 if it is not found
+     * @throws IOException IOException
+     */
+    public long getSenseKeySynsetOffset(String senseKey) throws IOException {
+        long offset = fileGetIndexedLinePointer(senseIndex, senseKey);
+        if (-1 == offset) {
+            return -1;
+        } else {
+            //sense_key  synset_offset  sense_number  tag_cnt
+            LineParser parser = new LineParser(fileReadLineAt(senseIndex, offset));
+            parser.skipToken();//sense_key
+            return parser.nextLong();//synset_offset
+        }
+    }
 }
\ No newline at end of file
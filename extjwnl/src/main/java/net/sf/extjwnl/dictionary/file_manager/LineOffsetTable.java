@@ -0,0 +1,124 @@
+package net.sf.extjwnl.dictionary.file_manager;
+
+import net.sf.extjwnl.dictionary.file.RandomAccessDictionaryFile;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Offsets of line starts in a dictionary file. Allows binary search over line numbers instead of byte ranges and
+ * gives next and random line offsets without reading the file. Offsets are kept in an <code>int[]</code> for files
+ * shorter than 2G and in a <code>long[]</code> for longer ones.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class LineOffsetTable {
+
+    private final int[] intOffsets;
+    private final long[] longOffsets;
+    private final int size;
+    private final long length;
+
+    private LineOffsetTable(int[] intOffsets, long[] longOffsets, int size, long length) {
+        this.intOffsets = intOffsets;
+        this.longOffsets = longOffsets;
+        this.size = size;
+        this.length = length;
+    }
+
+    /**
+     * Reads line offsets of the <var>file</var>, starting from the line at <var>firstLineOffset</var>.
+     *
+     * @param file            file to read
+     * @param firstLineOffset offset of the first line to include, allows skipping headers
+     * @return line offsets table
+     * @throws IOException IOException
+     */
+    public static LineOffsetTable build(RandomAccessDictionaryFile file, long firstLineOffset) throws IOException {
+        long length = file.length();
+        if (length <= Integer.MAX_VALUE) {
+            int[] offsets = new int[1024];
+            int size = 0;
+            long offset = firstLineOffset;
+            while (offset < length) {
+                if (size == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+                }
+                offsets[size++] = (int) offset;
+                long next = LineReads.getNextLineOffset(file, offset);
+                if (next <= offset) {
+                    break;
+                }
+                offset = next;
+            }
+            return new LineOffsetTable(Arrays.copyOf(offsets, size), null, size, length);
+        } else {
+            long[] offsets = new long[1024];
+            int size = 0;
+            long offset = firstLineOffset;
+            while (offset < length) {
+                if (size == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, 2 * offsets.length);
+                }
+                offsets[size++] = offset;
+                long next = LineReads.getNextLineOffset(file, offset);
+                if (next <= offset) {
+                    break;
+                }
+                offset = next;
+            }
+            return new LineOffsetTable(null, Arrays.copyOf(offsets, size), size, length);
+        }
+    }
+
+    /**
+     * Returns the number of lines.
+     *
+     * @return the number of lines
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the offset of the line number <var>index</var>.
+     *
+     * @param index line number, 0-based
+     * @return the offset of the line number <var>index</var>
+     */
+    public long get(int index) {
+        return null != intOffsets ? intOffsets[index] : longOffsets[index];
+    }
+
+    /**
+     * Returns the offset of the line following the line containing <var>offset</var>,
+     * or the file length if there is no such line.
+     *
+     * @param offset file offset
+     * @return the offset of the line following the line containing <var>offset</var>
+     */
+    public long getNextLineOffset(long offset) {
+        int index = indexOf(offset);
+        // exact match - the next line, otherwise insertion point is the next line
+        index = 0 <= index ? index + 1 : -(index + 1);
+        return index < size ? get(index) : length;
+    }
+
+    /**
+     * Returns the line number of the line starting at <var>offset</var>,
+     * or <code>(-(insertion point) - 1)</code> if no line starts there.
+     *
+     * @param offset file offset
+     * @return the line number of the line starting at <var>offset</var>
+     */
+    public int indexOf(long offset) {
+        if (null != intOffsets) {
+            if (Integer.MAX_VALUE < offset) {
+                return -(size + 1);
+            }
+            return Arrays.binarySearch(intOffsets, (int) offset);
+        } else {
+            return Arrays.binarySearch(longOffsets, offset);
+        }
+    }
+}
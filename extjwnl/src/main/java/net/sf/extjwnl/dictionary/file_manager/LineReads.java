@@ -0,0 +1,54 @@
+package net.sf.extjwnl.dictionary.file_manager;
+
+import net.sf.extjwnl.dictionary.file.PositionalDictionaryFile;
+import net.sf.extjwnl.dictionary.file.RandomAccessDictionaryFile;
+
+import java.io.IOException;
+
+/**
+ * Reads lines at offsets of a dictionary file. Uses positional reads of <code>PositionalDictionaryFile</code>s
+ * and falls back to seek and read under the file lock for other files.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+final class LineReads {
+
+    private LineReads() {
+    }
+
+    public static String readLineAt(RandomAccessDictionaryFile file, long offset) throws IOException {
+        if (file instanceof PositionalDictionaryFile) {
+            return ((PositionalDictionaryFile) file).readLineAt(offset);
+        }
+        synchronized (file) {
+            file.seek(offset);
+            String line = file.readLine();
+            file.setNextLineOffset(offset, null == line ? -1 : file.getFilePointer());
+            return line;
+        }
+    }
+
+    public static String readLineWordAt(RandomAccessDictionaryFile file, long offset) throws IOException {
+        if (file instanceof PositionalDictionaryFile) {
+            return ((PositionalDictionaryFile) file).readLineWordAt(offset);
+        }
+        synchronized (file) {
+            file.seek(offset);
+            return file.readLineWord();
+        }
+    }
+
+    public static long getNextLineOffset(RandomAccessDictionaryFile file, long offset) throws IOException {
+        if (file instanceof PositionalDictionaryFile) {
+            return ((PositionalDictionaryFile) file).getNextLineOffset(offset);
+        }
+        synchronized (file) {
+            if (file.isPreviousLineOffset(offset) && offset != file.getNextLineOffset()) {
+                return file.getNextLineOffset();
+            }
+            file.seek(offset);
+            file.readLine();
+            return file.getFilePointer();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package net.sf.extjwnl.dictionary.file_manager;
+
+import net.sf.extjwnl.dictionary.file.RandomAccessDictionaryFile;
+import net.sf.extjwnl.util.cache.LRUCache;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Trigram index over the first words of the lines of a sorted dictionary file, such as index.noun.
+ * For each trigram it keeps the sorted numbers of the lines whose first word contains it. Lines which might
+ * contain a substring are found by intersecting the lines of its trigrams, only these lines are read
+ * to check the match. Substrings shorter than a trigram are checked against every line. Matches of
+ * recent substrings are cached.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class SubstringIndex {
+
+    private static final int N = 3;
+    private static final int CACHED_SUBSTRINGS = 64;
+
+    private final RandomAccessDictionaryFile file;
+    private final LineOffsetTable lines;
+    private final Map<String, int[]> trigramLines;
+    private final LRUCache<String, int[]> matches = new LRUCache<String, int[]>(CACHED_SUBSTRINGS);
+
+    private SubstringIndex(RandomAccessDictionaryFile file, LineOffsetTable lines, Map<String, int[]> trigramLines) {
+        this.file = file;
+        this.lines = lines;
+        this.trigramLines = trigramLines;
+    }
+
+    /**
+     * Reads the first words of the lines of the <var>file</var> and builds the index.
+     *
+     * @param file  sorted dictionary file
+     * @param lines line offsets of the <var>file</var>
+     * @return substring index
+     * @throws IOException IOException
+     */
+    public static SubstringIndex build(RandomAccessDictionaryFile file, LineOffsetTable lines) throws IOException {
+        Map<String, int[]> postings = new HashMap<String, int[]>();
+        // postings are grown by doubling, the last element keeps the count
+        for (int i = 0; i < lines.size(); i++) {
+            String word = LineReads.readLineWordAt(file, lines.get(i));
+            for (int j = 0; j + N <= word.length(); j++) {
+                String trigram = word.substring(j, j + N);
+                int[] list = postings.get(trigram);
+                if (null == list) {
+                    list = new int[4];
+                    postings.put(trigram, list);
+                }
+                int count = list[list.length - 1];
+                // repeated trigram in the same word
+                if (0 < count && i == list[count - 1]) {
+                    continue;
+                }
+                if (count == list.length - 1) {
+                    list = Arrays.copyOf(list, 2 * list.length);
+                    list[list.length - 1] = count;
+                    list[count] = 0;
+                    postings.put(trigram, list);
+                }
+                list[count] = i;
+                list[list.length - 1] = count + 1;
+            }
+        }
+        Map<String, int[]> result = new HashMap<String, int[]>(postings.size() * 4 / 3 + 1);
+        for (Map.Entry<String, int[]> entry : postings.entrySet()) {
+            int[] list = entry.getValue();
+            result.put(entry.getKey(), Arrays.copyOf(list, list[list.length - 1]));
+        }
+        return new SubstringIndex(file, lines, result);
+    }
+
+    /**
+     * Returns the offset of the first line at or after <var>offset</var> whose first word contains <var>substring</var>.
+     *
+     * @param offset    file offset
+     * @param substring substring to search for
+     * @return the offset of the matching line, or -1 if there is none
+     * @throws IOException IOException
+     */
+    public long getMatchingLinePointer(long offset, String substring) throws IOException {
+        int line = lines.indexOf(offset);
+        if (line < 0) {
+            line = -(line + 1);
+        }
+        int[] matchingLines = getMatchingLines(substring);
+        int index = Arrays.binarySearch(matchingLines, line);
+        if (index < 0) {
+            index = -(index + 1);
+        }
+        return index < matchingLines.length ? lines.get(matchingLines[index]) : -1;
+    }
+
+    /**
+     * Returns the sorted numbers of the lines whose first word contains <var>substring</var>.
+     *
+     * @param substring substring to search for
+     * @return the sorted numbers of the lines whose first word contains <var>substring</var>
+     * @throws IOException IOException
+     */
+    public int[] getMatchingLines(String substring) throws IOException {
+        int[] result = matches.get(substring);
+        if (null == result) {
+            int[] candidates = getCandidates(substring);
+            int count = null == candidates ? lines.size() : candidates.length;
+            result = new int[count];
+            int size = 0;
+            for (int i = 0; i < count; i++) {
+                int line = null == candidates ? i : candidates[i];
+                if (LineReads.readLineWordAt(file, lines.get(line)).contains(substring)) {
+                    result[size++] = line;
+                }
+            }
+            result = Arrays.copyOf(result, size);
+            matches.put(substring, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the sorted numbers of the lines which might contain <var>substring</var>.
+     *
+     * @param substring substring to search for
+     * @return the sorted numbers of the lines which might contain <var>substring</var>, or null for all lines
+     */
+    private int[] getCandidates(String substring) {
+        if (substring.length() < N) {
+            return null;
+        }
+        int[] result = null;
+        for (int j = 0; j + N <= substring.length(); j++) {
+            int[] list = trigramLines.get(substring.substring(j, j + N));
+            if (null == list) {
+                return new int[0];
+            }
+            result = null == result ? list : intersect(result, list);
+            if (0 == result.length) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[size++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
@@ -0,0 +1,171 @@
+package net.sf.extjwnl.dictionary.file_manager;
+
+import net.sf.extjwnl.util.LineParser;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Use counts of senses, read from cntlist.rev. Sense keys are kept sorted in one shared <code>char[]</code>
+ * and counts in an <code>int[]</code>, so the table takes a fraction of the memory of a map of strings to
+ * integers and is searched with binary search.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class UseCountTable {
+
+    private final char[] keys;
+    // key i is between keyStarts[i] and keyStarts[i + 1]
+    private final int[] keyStarts;
+    private final int[] counts;
+    private final int size;
+
+    private UseCountTable(char[] keys, int[] keyStarts, int[] counts, int size) {
+        this.keys = keys;
+        this.keyStarts = keyStarts;
+        this.counts = counts;
+        this.size = size;
+    }
+
+    /**
+     * Builds the table line by line.
+     */
+    public static class Builder {
+
+        private char[] keys = new char[64 * 1024];
+        private int[] keyStarts = new int[4 * 1024 + 1];
+        private int[] counts = new int[4 * 1024];
+        private int size = 0;
+        private boolean sorted = true;
+
+        /**
+         * Adds a cntlist.rev line: sense_key sense_number tag_cnt.
+         *
+         * @param line cntlist.rev line
+         */
+        public void add(String line) {
+            int keyEnd = line.indexOf(' ');
+            if (keyEnd < 0) {
+                return;
+            }
+            LineParser parser = new LineParser(line);
+            parser.skipToken();//sense_key
+            parser.skipToken();//sense_number
+            int count = parser.nextInt();//tag_cnt
+
+            if (size == counts.length) {
+                int capacity = 2 * counts.length;
+                counts = Arrays.copyOf(counts, capacity);
+                keyStarts = Arrays.copyOf(keyStarts, capacity + 1);
+            }
+            int start = keyStarts[size];
+            if (keys.length < start + keyEnd) {
+                keys = Arrays.copyOf(keys, Math.max(2 * keys.length, start + keyEnd));
+            }
+            line.getChars(0, keyEnd, keys, start);
+            keyStarts[size + 1] = start + keyEnd;
+            counts[size] = count;
+            if (sorted && 0 < size && 0 < compare(keys, keyStarts[size - 1], keyStarts[size], keys, start, start + keyEnd)) {
+                sorted = false;
+            }
+            size++;
+        }
+
+        /**
+         * Returns the table.
+         *
+         * @return the table
+         */
+        public UseCountTable build() {
+            if (sorted) {
+                return new UseCountTable(Arrays.copyOf(keys, keyStarts[size]), Arrays.copyOf(keyStarts, size + 1),
+                        Arrays.copyOf(counts, size), size);
+            }
+
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, new Comparator<Integer>() {
+                public int compare(Integer o1, Integer o2) {
+                    return Builder.compare(keys, keyStarts[o1], keyStarts[o1 + 1], keys, keyStarts[o2], keyStarts[o2 + 1]);
+                }
+            });
+            char[] sortedKeys = new char[keyStarts[size]];
+            int[] sortedKeyStarts = new int[size + 1];
+            int[] sortedCounts = new int[size];
+            for (int i = 0; i < size; i++) {
+                int k = order[i];
+                int length = keyStarts[k + 1] - keyStarts[k];
+                System.arraycopy(keys, keyStarts[k], sortedKeys, sortedKeyStarts[i], length);
+                sortedKeyStarts[i + 1] = sortedKeyStarts[i] + length;
+                sortedCounts[i] = counts[k];
+            }
+            return new UseCountTable(sortedKeys, sortedKeyStarts, sortedCounts, size);
+        }
+
+        private static int compare(char[] a, int aStart, int aEnd, char[] b, int bStart, int bEnd) {
+            int aLength = aEnd - aStart;
+            int bLength = bEnd - bStart;
+            int length = Math.min(aLength, bLength);
+            for (int i = 0; i < length; i++) {
+                char c1 = a[aStart + i];
+                char c2 = b[bStart + i];
+                if (c1 != c2) {
+                    return c1 - c2;
+                }
+            }
+            return aLength - bLength;
+        }
+    }
+
+    /**
+     * Returns the number of sense keys.
+     *
+     * @return the number of sense keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the use count of the sense marked by <var>senseKey</var>.
+     *
+     * @param senseKey sense key
+     * @return the use count of the sense marked by <var>senseKey</var>, or 0 if it is not in the table
+     */
+    public int get(String senseKey) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compare = compare(middle, senseKey);
+            if (compare < 0) {
+                low = middle + 1;
+            } else if (compare > 0) {
+                high = middle - 1;
+            } else {
+                return counts[middle];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compares key <var>index</var> with <var>target</var>, as <code>String.compareTo</code> does.
+     */
+    private int compare(int index, String target) {
+        int start = keyStarts[index];
+        int keyLength = keyStarts[index + 1] - start;
+        int targetLength = target.length();
+        int length = Math.min(keyLength, targetLength);
+        for (int i = 0; i < length; i++) {
+            char c1 = keys[start + i];
+            char c2 = target.charAt(i);
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+        }
+        return keyLength - targetLength;
+    }
+}
@@ -108,6 +108,20 @@ public abstract class AbstractDictionaryElementFactory implements DictionaryElem
         }
     }
 
+    /**
+     * Updates the maximum offset seen in <var>pos</var> with <var>offset</var>.
+     * Synchronized, because synsets might be created in several threads.
+     *
+     * @param pos    part of speech
+     * @param offset synset offset
+     */
+    public synchronized void updateMaxOffset(POS pos, long offset) {
+        Long mOffset = maxOffset.get(pos);
+        if (null == mOffset || mOffset < offset) {
+            maxOffset.put(pos, offset);
+        }
+    }
+
     protected synchronized long createNewOffset(POS pos) {
         long result = maxOffset.get(pos) + 1;
         maxOffset.put(pos, result);
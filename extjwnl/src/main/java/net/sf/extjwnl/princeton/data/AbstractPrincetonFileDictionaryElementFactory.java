@@ -3,7 +3,7 @@ package net.sf.extjwnl.princeton.data;
 import net.sf.extjwnl.JWNLException;
 import net.sf.extjwnl.data.*;
 import net.sf.extjwnl.dictionary.Dictionary;
-import net.sf.extjwnl.util.TokenizerParser;
+import net.sf.extjwnl.util.LineParser;
 import net.sf.extjwnl.util.factory.Param;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,19 +21,40 @@ public abstract class AbstractPrincetonFileDictionaryElementFactory extends Abst
 
     private static final Logger log = LoggerFactory.getLogger(AbstractPrincetonFileDictionaryElementFactory.class);
 
+    /**
+     * POS keys used in data files, matched in place by the parser, and the corresponding POS.
+     */
+    private static final String[] POS_KEYS = {
+            POS.NOUN.getKey(), POS.VERB.getKey(), POS.ADJECTIVE.getKey(), POS.ADVERB.getKey(), POS.ADJECTIVE_SATELLITE_KEY
+    };
+    private static final POS[] POS_FOR_KEYS = {POS.NOUN, POS.VERB, POS.ADJECTIVE, POS.ADVERB, POS.ADJECTIVE};
+    private static final int ADJECTIVE_SATELLITE_INDEX = 4;
+
+    /**
+     * Pointer type keys, matched in place by the parser.
+     */
+    private static final PointerType[] POINTER_TYPES = PointerType.values();
+    private static final String[] POINTER_TYPE_KEYS = new String[POINTER_TYPES.length];
+
+    static {
+        for (int i = 0; i < POINTER_TYPES.length; i++) {
+            POINTER_TYPE_KEYS[i] = POINTER_TYPES[i].getKey();
+        }
+    }
+
     protected AbstractPrincetonFileDictionaryElementFactory(Dictionary dictionary, Map<String, Param> params) {
         super(dictionary, params);
     }
 
     public IndexWord createIndexWord(POS pos, String line) throws JWNLException {
-        TokenizerParser tokenizer = new TokenizerParser(line, " ");
+        LineParser tokenizer = new LineParser(line);
         String lemma = stringCache.replace(tokenizer.nextToken().replace('_', ' '));
-        tokenizer.nextToken(); // pos
-        tokenizer.nextToken();    // sense_cnt
+        tokenizer.skipToken(); // pos
+        tokenizer.skipToken();    // sense_cnt
 
         int pointerCount = tokenizer.nextInt();
         for (int i = 0; i < pointerCount; ++i) {
-            tokenizer.nextToken();    // ptr_symbol
+            tokenizer.skipToken();    // ptr_symbol
         }
         //Same as sense_cnt above. This is redundant, but the field was preserved for compatibility reasons.
         int senseCount = tokenizer.nextInt();
@@ -53,11 +74,11 @@ public abstract class AbstractPrincetonFileDictionaryElementFactory extends Abst
     }
 
     public Synset createSynset(POS pos, String line) throws JWNLException {
-        TokenizerParser tokenizer = new TokenizerParser(line, " ");
+        LineParser tokenizer = new LineParser(line);
 
         long offset = tokenizer.nextLong();
         long lexFileNum = tokenizer.nextLong();
-        String synsetPOS = tokenizer.nextToken();
+        int synsetPOS = tokenizer.nextTokenIndex(POS_KEYS);
 
         Synset synset;
         if (POS.VERB == pos) {
@@ -65,12 +86,12 @@ public abstract class AbstractPrincetonFileDictionaryElementFactory extends Abst
         } else if (POS.ADJECTIVE == pos) {
             synset = new AdjectiveSynset(dictionary, offset);
         } else {
-            synset = new Synset(dictionary, POS.getPOSForKey(synsetPOS), offset);
+            synset = new Synset(dictionary, getPOS(synsetPOS), offset);
         }
 
         synset.setLexFileNum(lexFileNum);
 
-        if ("s".equals(synsetPOS)) {
+        if (ADJECTIVE_SATELLITE_INDEX == synsetPOS) {
             synset.setIsAdjectiveCluster(true);
         }
 
@@ -91,10 +112,10 @@ public abstract class AbstractPrincetonFileDictionaryElementFactory extends Abst
 
         int pointerCount = tokenizer.nextInt();
         for (int i = 0; i < pointerCount; i++) {
-            String pt = tokenizer.nextToken();
-            PointerType pointerType = PointerType.getPointerTypeForKey(pt);
+            int pt = tokenizer.nextTokenIndex(POINTER_TYPE_KEYS);
+            PointerType pointerType = -1 == pt ? null : POINTER_TYPES[pt];
             long targetOffset = tokenizer.nextLong();
-            POS targetPOS = POS.getPOSForKey(tokenizer.nextToken());
+            POS targetPOS = getPOS(tokenizer.nextTokenIndex(POS_KEYS));
             int linkIndices = tokenizer.nextHexInt();
             int sourceIndex = linkIndices / 256;
             int targetIndex = linkIndices & 255;
@@ -111,7 +132,7 @@ public abstract class AbstractPrincetonFileDictionaryElementFactory extends Abst
             BitSet verbFrames = new BitSet();
             int verbFrameCount = tokenizer.nextInt();
             for (int i = 0; i < verbFrameCount; i++) {
-                tokenizer.nextToken();    // "+"
+                tokenizer.skipToken();    // "+"
                 int frameNumber = tokenizer.nextInt();
                 int wordIndex = tokenizer.nextHexInt();
                 if (wordIndex > 0) {
@@ -135,14 +156,7 @@ public abstract class AbstractPrincetonFileDictionaryElementFactory extends Abst
         }
         synset.setGloss(gloss);
 
-        Long mOffset = maxOffset.get(synset.getPOS());
-        if (null == maxOffset) {
-            maxOffset.put(synset.getPOS(), synset.getOffset());
-        } else {
-            if (mOffset < synset.getOffset()) {
-                maxOffset.put(synset.getPOS(), synset.getOffset());
-            }
-        }
+        updateMaxOffset(synset.getPOS(), synset.getOffset());
 
         if (log.isTraceEnabled()) {
             log.trace(dictionary.getMessages().resolveMessage("PRINCETON_INFO_002", new Object[]{pos, offset}));
@@ -150,6 +164,10 @@ public abstract class AbstractPrincetonFileDictionaryElementFactory extends Abst
         return synset;
     }
 
+    private static POS getPOS(int keyIndex) {
+        return -1 == keyIndex ? null : POS_FOR_KEYS[keyIndex];
+    }
+
     public Exc createExc(POS pos, String line) throws JWNLException {
         StringTokenizer st = new StringTokenizer(line);
         String lemma = stringCache.replace(st.nextToken().replace('_', ' '));
@@ -25,14 +25,10 @@ public abstract class AbstractPrincetonRandomAccessDictionaryFile extends Abstra
     public static final String ENCODING = "encoding";
 
     /**
-     * Used for caching the previously accessed file offset.
+     * Used for caching the previously accessed file offset and the offset of the line following it.
+     * Kept in one array to be replaced atomically, because reads at offsets do not lock the file.
      */
-    private long previousOffset;
-    /**
-     * Used for caching the offset of the line following the line at
-     * <code>previousOffset</code>.
-     */
-    private long nextOffset;
+    private volatile long[] lineOffsets = new long[]{-1, -1};
 
     protected String encoding;
 
@@ -49,16 +45,29 @@ public abstract class AbstractPrincetonRandomAccessDictionaryFile extends Abstra
     }
 
     public void setNextLineOffset(long previousOffset, long nextOffset) {
-        this.previousOffset = previousOffset;
-        this.nextOffset = nextOffset;
+        lineOffsets = new long[]{previousOffset, nextOffset};
     }
 
     public boolean isPreviousLineOffset(long offset) {
-        return previousOffset == offset;
+        return lineOffsets[0] == offset;
     }
 
     public long getNextLineOffset() {
-        return nextOffset;
+        return lineOffsets[1];
+    }
+
+    /**
+     * Returns the offset of the line following the line at <var>offset</var>, if it is known, or -1.
+     *
+     * @param offset line offset
+     * @return the offset of the line following the line at <var>offset</var>, if it is known, or -1
+     */
+    protected long getCachedNextLineOffset(long offset) {
+        long[] offsets = lineOffsets;
+        if (offsets[0] == offset && offset < offsets[1]) {
+            return offsets[1];
+        }
+        return -1;
     }
 
     @Override
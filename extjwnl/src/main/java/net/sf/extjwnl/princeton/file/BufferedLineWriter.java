@@ -0,0 +1,102 @@
+package net.sf.extjwnl.princeton.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Writes lines into a channel through one buffer. Lines are encoded straight into the buffer,
+ * which is written out only when it is full, so that a file is written with few large writes.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+class BufferedLineWriter {
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder;
+
+    /**
+     * Creates a writer.
+     *
+     * @param channel channel to write to
+     * @param buffer  write buffer, it is cleared and reused
+     * @param charset charset to encode lines with
+     */
+    public BufferedLineWriter(FileChannel channel, ByteBuffer buffer, Charset charset) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.buffer.clear();
+        // replace like String.getBytes does
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    /**
+     * Writes <var>line</var> followed by a line end.
+     *
+     * @param line line to write
+     * @return the number of bytes of the line, without the line end
+     * @throws IOException IOException
+     */
+    public int writeLine(String line) throws IOException {
+        int result = write(line);
+        if (!buffer.hasRemaining()) {
+            flushBuffer();
+        }
+        buffer.put((byte) '\n');
+        return result;
+    }
+
+    /**
+     * Writes <var>text</var>.
+     *
+     * @param text text to write
+     * @return the number of bytes written
+     * @throws IOException IOException
+     */
+    public int write(String text) throws IOException {
+        int result = 0;
+        CharBuffer chars = CharBuffer.wrap(text);
+        encoder.reset();
+        boolean flushing = false;
+        while (true) {
+            int start = buffer.position();
+            CoderResult cr = flushing ? encoder.flush(buffer) : encoder.encode(chars, buffer, true);
+            result = result + buffer.position() - start;
+            if (cr.isOverflow()) {
+                flushBuffer();
+            } else if (cr.isUnderflow()) {
+                if (flushing) {
+                    return result;
+                }
+                flushing = true;
+            } else {
+                cr.throwException();
+            }
+        }
+    }
+
+    /**
+     * Writes out buffered bytes.
+     *
+     * @throws IOException IOException
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,253 @@
+package net.sf.extjwnl.princeton.file;
+
+import net.sf.extjwnl.JWNLRuntimeException;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.dictionary.Dictionary;
+import net.sf.extjwnl.dictionary.file.DictionaryFileType;
+import net.sf.extjwnl.dictionary.file.PositionalDictionaryFile;
+import net.sf.extjwnl.util.factory.Param;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+/**
+ * A <code>RandomAccessDictionaryFile</code> that accesses files named with Princeton's dictionary file naming convention.
+ * The file is kept as bytes in one or more <code>ByteBuffer</code> segments, only the lines being read are decoded.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public abstract class PrincetonByteBufferFile extends AbstractPrincetonRandomAccessDictionaryFile
+        implements PositionalDictionaryFile {
+
+    /**
+     * Size of the segment, 1G, should be a power of 2.
+     */
+    protected static final int SEGMENT_SHIFT = 30;
+    protected static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    protected static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private volatile ByteBuffer[] segments = null;
+    private long size;
+    private long position;
+
+    private final Charset charset;
+
+    public PrincetonByteBufferFile(Dictionary dictionary, Map<String, Param> params) {
+        super(dictionary, params);
+        charset = null;
+    }
+
+    public PrincetonByteBufferFile(Dictionary dictionary, String path, POS pos, DictionaryFileType fileType, Map<String, Param> params) {
+        super(dictionary, path, pos, fileType, params);
+        if (null != encoding) {
+            charset = Charset.forName(encoding);
+        } else {
+            charset = Charset.defaultCharset();
+        }
+    }
+
+    /**
+     * Maps <var>file</var> into segments.
+     *
+     * @param file file to map
+     * @return file segments
+     * @throws IOException IOException
+     */
+    protected static ByteBuffer[] map(File file) throws IOException {
+        RandomAccessFile raFile = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = raFile.getChannel();
+            try {
+                long size = channel.size();
+                int count = (int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+                ByteBuffer[] result = new ByteBuffer[count];
+                for (int i = 0; i < count; i++) {
+                    long start = (long) i << SEGMENT_SHIFT;
+                    result[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+                }
+                return result;
+            } finally {
+                channel.close();
+            }
+        } finally {
+            raFile.close();
+        }
+    }
+
+    /**
+     * Sets the file content. All segments, except the last one, should be {@link #SEGMENT_SIZE} long.
+     *
+     * @param segments file segments
+     */
+    protected void setSegments(ByteBuffer[] segments) {
+        long result = 0;
+        for (ByteBuffer segment : segments) {
+            result = result + segment.limit();
+        }
+        size = result;
+        this.segments = segments;
+    }
+
+    /**
+     * Returns the file content.
+     *
+     * @return file segments
+     * @throws IOException IOException
+     */
+    protected ByteBuffer[] getSegments() throws IOException {
+        ByteBuffer[] result = segments;
+        if (null == result) {
+            throw new JWNLRuntimeException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_001"));
+        }
+        return result;
+    }
+
+    public String readLine() throws IOException {
+        synchronized (file) {
+            String result = readLineAt(position);
+            if (null != result) {
+                position = getNextLineOffset(position);
+            }
+            return result;
+        }
+    }
+
+    public String readLineWord() throws IOException {
+        synchronized (file) {
+            String result = readLineWordAt(position);
+            long end = findEnd(getSegments(), position, true);
+            position = end < size ? end + 1 : end;
+            return result;
+        }
+    }
+
+    @Override
+    public String readLineAt(long offset) throws IOException {
+        ByteBuffer[] s = getSegments();
+        if (size <= offset) {
+            return null;
+        }
+        return decode(s, offset, findEnd(s, offset, false));
+    }
+
+    @Override
+    public String readLineWordAt(long offset) throws IOException {
+        ByteBuffer[] s = getSegments();
+        return decode(s, offset, findEnd(s, offset, true));
+    }
+
+    @Override
+    public long getNextLineOffset(long offset) throws IOException {
+        ByteBuffer[] s = getSegments();
+        long end = findEnd(s, offset, false);
+        if (end < size) {
+            end++;
+            if ('\r' == get(s, end - 1) && end < size && '\n' == get(s, end)) {
+                end++;
+            }
+        }
+        return end;
+    }
+
+    public int read() throws IOException {
+        synchronized (file) {
+            ByteBuffer[] s = getSegments();
+            if (position < size) {
+                return get(s, position++) & 0xFF;
+            } else {
+                return -1;
+            }
+        }
+    }
+
+    public void seek(long pos) throws IOException {
+        synchronized (file) {
+            position = pos;
+        }
+    }
+
+    public long getFilePointer() throws IOException {
+        synchronized (file) {
+            return position;
+        }
+    }
+
+    public long length() throws IOException {
+        getSegments();
+        return size;
+    }
+
+    public boolean isOpen() {
+        return segments != null;
+    }
+
+    public void close() {
+        segments = null;
+    }
+
+    public void save() {
+        throw new UnsupportedOperationException();
+    }
+
+    public int getOffsetLength() {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setOffsetLength(int length) {
+        throw new UnsupportedOperationException();
+    }
+
+    private static byte get(ByteBuffer[] segments, long index) {
+        return segments[(int) (index >>> SEGMENT_SHIFT)].get((int) (index & SEGMENT_MASK));
+    }
+
+    /**
+     * Returns the offset of the line end (or word end) which follows <var>offset</var>.
+     *
+     * @param segments file segments
+     * @param offset   start offset
+     * @param word     whether to stop at space
+     * @return the offset of the line end, or the file length
+     */
+    private long findEnd(ByteBuffer[] segments, long offset, boolean word) {
+        long end = offset;
+        byte b;
+        while (end < size && (b = get(segments, end)) != '\n' && b != '\r' && (!word || b != ' ')) {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Decodes bytes between <var>start</var> (inclusive) and <var>end</var> (exclusive).
+     *
+     * @param segments file segments
+     * @param start    start offset
+     * @param end      end offset
+     * @return decoded string
+     */
+    private String decode(ByteBuffer[] segments, long start, long end) {
+        int length = (int) (end - start);
+        if (0 == length) {
+            return "";
+        }
+        byte[] bytes = new byte[length];
+        int segment = (int) (start >>> SEGMENT_SHIFT);
+        if (segment == (int) ((end - 1) >>> SEGMENT_SHIFT)) {
+            // whole line in one segment, bulk copy, duplicate keeps the buffer shareable
+            ByteBuffer buffer = segments[segment].duplicate();
+            buffer.position((int) (start & SEGMENT_MASK));
+            buffer.get(bytes, 0, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                bytes[i] = get(segments, start + i);
+            }
+        }
+        return new String(bytes, charset);
+    }
+}
@@ -4,6 +4,7 @@ import net.sf.extjwnl.JWNLRuntimeException;
 import net.sf.extjwnl.data.POS;
 import net.sf.extjwnl.dictionary.Dictionary;
 import net.sf.extjwnl.dictionary.file.DictionaryFileType;
+import net.sf.extjwnl.dictionary.file.PositionalDictionaryFile;
 import net.sf.extjwnl.util.factory.Param;
 
 import java.io.IOException;
@@ -15,7 +16,8 @@ import java.util.Map;
  *
  * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
  */
-public abstract class PrincetonCharBufferFile extends AbstractPrincetonRandomAccessDictionaryFile {
+public abstract class PrincetonCharBufferFile extends AbstractPrincetonRandomAccessDictionaryFile
+        implements PositionalDictionaryFile {
 
     protected CharBuffer buffer = null;
 
@@ -78,6 +80,64 @@ public abstract class PrincetonCharBufferFile extends AbstractPrincetonRandomAcc
         }
     }
 
+    @Override
+    public String readLineAt(long offset) throws IOException {
+        CharBuffer b = getBuffer();
+        int start = (int) offset;
+        if (b.limit() <= start) {
+            return null;
+        }
+        int end = start;
+        while (end < b.limit() && b.get(end) != '\n' && b.get(end) != '\r') {
+            end++;
+        }
+        return substring(b, start, end);
+    }
+
+    @Override
+    public String readLineWordAt(long offset) throws IOException {
+        CharBuffer b = getBuffer();
+        int start = (int) offset;
+        int end = start;
+        char c;
+        while (end < b.limit() && (c = b.get(end)) != '\n' && c != '\r' && c != ' ') {
+            end++;
+        }
+        return substring(b, start, end);
+    }
+
+    @Override
+    public long getNextLineOffset(long offset) throws IOException {
+        CharBuffer b = getBuffer();
+        int end = (int) offset;
+        while (end < b.limit() && b.get(end) != '\n' && b.get(end) != '\r') {
+            end++;
+        }
+        if (end < b.limit()) {
+            end++;
+            if ('\r' == b.get(end - 1) && end < b.limit() && '\n' == b.get(end)) {
+                end++;
+            }
+        }
+        return end;
+    }
+
+    private CharBuffer getBuffer() {
+        CharBuffer b = buffer;
+        if (null == b) {
+            throw new JWNLRuntimeException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_001"));
+        }
+        return b;
+    }
+
+    private static String substring(CharBuffer b, int start, int end) {
+        // duplicate keeps the shared position intact
+        CharBuffer d = b.duplicate();
+        d.limit(end);
+        d.position(start);
+        return d.toString();
+    }
+
     public void seek(long pos) throws IOException {
         synchronized (file) {
             buffer.position((int) pos);
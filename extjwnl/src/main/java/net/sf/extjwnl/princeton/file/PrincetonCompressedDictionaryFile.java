@@ -0,0 +1,417 @@
+package net.sf.extjwnl.princeton.file;
+
+import net.sf.extjwnl.JWNLRuntimeException;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.dictionary.Dictionary;
+import net.sf.extjwnl.dictionary.file.DictionaryFileFactory;
+import net.sf.extjwnl.dictionary.file.DictionaryFileType;
+import net.sf.extjwnl.dictionary.file.PositionalDictionaryFile;
+import net.sf.extjwnl.util.cache.LRUCache;
+import net.sf.extjwnl.util.factory.Param;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A read-only <code>RandomAccessDictionaryFile</code> that accesses block-compressed files named with Princeton's
+ * dictionary file naming convention. The file is split into blocks of a fixed uncompressed size, each block
+ * is deflated independently and an index of compressed block offsets is appended to the end of the file.
+ * Offsets are those of the uncompressed file, only the blocks being read are inflated and recently used
+ * blocks are kept in a small cache. Use {@link #compress(File, File, int)} to convert a file.
+ * <p/>
+ * File layout: blocks, index (int block size, long uncompressed length, int block count,
+ * long offset of each block), trailer (long index offset, int magic).
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class PrincetonCompressedDictionaryFile extends AbstractPrincetonRandomAccessDictionaryFile
+        implements DictionaryFileFactory<PrincetonCompressedDictionaryFile>, PositionalDictionaryFile {
+
+    /**
+     * Number of inflated blocks kept in memory per file, default 16.
+     */
+    public static final String CACHED_BLOCKS_KEY = "cached_blocks";
+
+    /**
+     * Default uncompressed block size, 16K.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 16384;
+
+    private static final int DEFAULT_CACHED_BLOCKS = 16;
+
+    private static final int MAGIC = 0x454a4c5a;
+    private static final int TRAILER_SIZE = 12;
+
+    private RandomAccessFile raFile = null;
+    private FileChannel channel = null;
+    private int blockSize;
+    private long size;
+    // offsets of compressed blocks, the last one is the offset of the index
+    private long[] blockOffsets;
+    private long position;
+
+    private final Charset charset;
+    private final LRUCache<Integer, byte[]> blocks;
+
+    public PrincetonCompressedDictionaryFile(Dictionary dictionary, Map<String, Param> params) {
+        super(dictionary, params);
+        charset = null;
+        blocks = null;
+    }
+
+    public PrincetonCompressedDictionaryFile(Dictionary dictionary, String path, POS pos, DictionaryFileType fileType, Map<String, Param> params) {
+        super(dictionary, path, pos, fileType, params);
+        if (null != encoding) {
+            charset = Charset.forName(encoding);
+        } else {
+            charset = Charset.defaultCharset();
+        }
+        int cachedBlocks = DEFAULT_CACHED_BLOCKS;
+        if (params.containsKey(CACHED_BLOCKS_KEY)) {
+            cachedBlocks = Integer.parseInt(params.get(CACHED_BLOCKS_KEY).getValue());
+        }
+        blocks = new LRUCache<Integer, byte[]>(Math.max(1, cachedBlocks));
+    }
+
+    public PrincetonCompressedDictionaryFile newInstance(Dictionary dictionary, String path, POS pos, DictionaryFileType fileType) {
+        return new PrincetonCompressedDictionaryFile(dictionary, path, pos, fileType, params);
+    }
+
+    protected void openFile() throws IOException {
+        RandomAccessFile f = new RandomAccessFile(file, "r");
+        try {
+            long fileLength = f.length();
+            if (fileLength < TRAILER_SIZE) {
+                throw new IOException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_003", file));
+            }
+            f.seek(fileLength - TRAILER_SIZE);
+            long indexOffset = f.readLong();
+            if (MAGIC != f.readInt() || indexOffset < 0 || fileLength - TRAILER_SIZE < indexOffset) {
+                throw new IOException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_003", file));
+            }
+            f.seek(indexOffset);
+            DataInputStream index = new DataInputStream(new BufferedInputStream(new FileInputStream(f.getFD())));
+            int indexBlockSize = index.readInt();
+            long indexSize = index.readLong();
+            int count = index.readInt();
+            // checked before allocating anything, a corrupt index must not fail with a negative size or run out of memory
+            if (indexBlockSize <= 0 || indexSize < 0 || count < 0
+                    || (indexSize + indexBlockSize - 1) / indexBlockSize != count
+                    || fileLength - TRAILER_SIZE - indexOffset != 16 + 8L * count) {
+                throw new IOException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_003", file));
+            }
+            long[] offsets = new long[count + 1];
+            for (int i = 0; i < count; i++) {
+                offsets[i] = index.readLong();
+                if (offsets[i] < (0 == i ? 0 : offsets[i - 1] + 1) || indexOffset <= offsets[i]) {
+                    throw new IOException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_003", file));
+                }
+            }
+            offsets[count] = indexOffset;
+            blockSize = indexBlockSize;
+            size = indexSize;
+            blockOffsets = offsets;
+            blocks.clear();
+            position = 0;
+            raFile = f;
+            channel = f.getChannel();
+        } finally {
+            if (null == channel) {
+                f.close();
+            }
+        }
+    }
+
+    public String readLine() throws IOException {
+        synchronized (file) {
+            String result = readLineAt(position);
+            if (null != result) {
+                position = getNextLineOffset(position);
+            }
+            return result;
+        }
+    }
+
+    public String readLineWord() throws IOException {
+        synchronized (file) {
+            String result = readLineWordAt(position);
+            long end = findEnd(position, true);
+            position = end < size ? end + 1 : end;
+            return result;
+        }
+    }
+
+    @Override
+    public String readLineAt(long offset) throws IOException {
+        checkOpen();
+        if (size <= offset) {
+            return null;
+        }
+        return decode(offset, findEnd(offset, false));
+    }
+
+    @Override
+    public String readLineWordAt(long offset) throws IOException {
+        checkOpen();
+        return decode(offset, findEnd(offset, true));
+    }
+
+    @Override
+    public long getNextLineOffset(long offset) throws IOException {
+        checkOpen();
+        long end = findEnd(offset, false);
+        if (end < size) {
+            end++;
+            if ('\r' == get(end - 1) && end < size && '\n' == get(end)) {
+                end++;
+            }
+        }
+        return end;
+    }
+
+    public int read() throws IOException {
+        synchronized (file) {
+            checkOpen();
+            if (position < size) {
+                return get(position++) & 0xFF;
+            } else {
+                return -1;
+            }
+        }
+    }
+
+    public void seek(long pos) throws IOException {
+        synchronized (file) {
+            position = pos;
+        }
+    }
+
+    public long getFilePointer() throws IOException {
+        synchronized (file) {
+            return position;
+        }
+    }
+
+    /**
+     * Returns the uncompressed length of the file.
+     *
+     * @return the uncompressed length of the file
+     */
+    public long length() throws IOException {
+        return size;
+    }
+
+    public boolean isOpen() {
+        return null != channel;
+    }
+
+    public void close() {
+        synchronized (file) {
+            try {
+                if (null != raFile) {
+                    raFile.close();
+                }
+            } catch (IOException e) {
+                throw new JWNLRuntimeException(e);
+            } finally {
+                raFile = null;
+                channel = null;
+                if (null != blocks) {
+                    blocks.clear();
+                }
+            }
+        }
+    }
+
+    public void save() {
+        throw new UnsupportedOperationException();
+    }
+
+    public int getOffsetLength() {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setOffsetLength(int length) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Compresses <var>source</var> into <var>destination</var>.
+     *
+     * @param source      plain dictionary file
+     * @param destination compressed dictionary file
+     * @param blockSize   uncompressed block size
+     * @throws IOException IOException
+     */
+    public static void compress(File source, File destination, int blockSize) throws IOException {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize");
+        }
+        InputStream in = new FileInputStream(source);
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(destination)));
+            try {
+                long length = source.length();
+                int count = (int) ((length + blockSize - 1) / blockSize);
+                long[] offsets = new long[count];
+                byte[] block = new byte[blockSize];
+                byte[] buffer = new byte[blockSize];
+                Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+                try {
+                    long offset = 0;
+                    for (int i = 0; i < count; i++) {
+                        int blockLength = (int) Math.min(blockSize, length - (long) i * blockSize);
+                        readFully(in, block, blockLength);
+                        offsets[i] = offset;
+                        deflater.reset();
+                        deflater.setInput(block, 0, blockLength);
+                        deflater.finish();
+                        while (!deflater.finished()) {
+                            int n = deflater.deflate(buffer);
+                            out.write(buffer, 0, n);
+                            offset = offset + n;
+                        }
+                    }
+                    out.writeInt(blockSize);
+                    out.writeLong(length);
+                    out.writeInt(count);
+                    for (long blockOffset : offsets) {
+                        out.writeLong(blockOffset);
+                    }
+                    out.writeLong(offset);
+                    out.writeInt(MAGIC);
+                } finally {
+                    deflater.end();
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void readFully(InputStream in, byte[] bytes, int length) throws IOException {
+        int read = 0;
+        while (read < length) {
+            int n = in.read(bytes, read, length - read);
+            if (n < 0) {
+                throw new EOFException();
+            }
+            read = read + n;
+        }
+    }
+
+    private void checkOpen() {
+        if (null == channel) {
+            throw new JWNLRuntimeException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_001"));
+        }
+    }
+
+    private byte get(long index) throws IOException {
+        return getBlock((int) (index / blockSize))[(int) (index % blockSize)];
+    }
+
+    /**
+     * Returns the inflated block <var>block</var>, reading it from the file, if it is not cached.
+     *
+     * @param block block number
+     * @return inflated block
+     * @throws IOException IOException
+     */
+    private byte[] getBlock(int block) throws IOException {
+        byte[] result = blocks.get(block);
+        if (null == result) {
+            FileChannel c = channel;
+            if (null == c) {
+                throw new JWNLRuntimeException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_001"));
+            }
+            long start = blockOffsets[block];
+            ByteBuffer compressed = ByteBuffer.allocate((int) (blockOffsets[block + 1] - start));
+            while (compressed.hasRemaining()) {
+                if (c.read(compressed, start + compressed.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+            result = new byte[(int) Math.min(blockSize, size - (long) block * blockSize)];
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed.array());
+                int length = 0;
+                while (length < result.length && !inflater.finished()) {
+                    int n = inflater.inflate(result, length, result.length - length);
+                    if (0 == n && (inflater.needsInput() || inflater.needsDictionary())) {
+                        break;
+                    }
+                    length = length + n;
+                }
+                if (length != result.length) {
+                    throw new IOException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_003", file));
+                }
+            } catch (DataFormatException e) {
+                throw new IOException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_003", file), e);
+            } finally {
+                inflater.end();
+            }
+            blocks.put(block, result);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the offset of the line end (or word end) which follows <var>offset</var>.
+     *
+     * @param offset start offset
+     * @param word   whether to stop at space
+     * @return the offset of the line end, or the file length
+     * @throws IOException IOException
+     */
+    private long findEnd(long offset, boolean word) throws IOException {
+        long end = offset;
+        while (end < size) {
+            int block = (int) (end / blockSize);
+            long blockStart = (long) block * blockSize;
+            byte[] bytes = getBlock(block);
+            for (int i = (int) (end - blockStart); i < bytes.length; i++) {
+                byte b = bytes[i];
+                if ('\n' == b || '\r' == b || (word && ' ' == b)) {
+                    return blockStart + i;
+                }
+            }
+            end = blockStart + bytes.length;
+        }
+        return end;
+    }
+
+    /**
+     * Decodes bytes between <var>start</var> (inclusive) and <var>end</var> (exclusive).
+     *
+     * @param start start offset
+     * @param end   end offset
+     * @return decoded string
+     * @throws IOException IOException
+     */
+    private String decode(long start, long end) throws IOException {
+        int length = (int) (end - start);
+        if (0 == length) {
+            return "";
+        }
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            long offset = start + copied;
+            byte[] block = getBlock((int) (offset / blockSize));
+            int from = (int) (offset % blockSize);
+            int n = Math.min(length - copied, block.length - from);
+            System.arraycopy(block, from, bytes, copied, n);
+            copied = copied + n;
+        }
+        return new String(bytes, charset);
+    }
+}
@@ -0,0 +1,37 @@
+package net.sf.extjwnl.princeton.file;
+
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.dictionary.Dictionary;
+import net.sf.extjwnl.dictionary.file.DictionaryFileFactory;
+import net.sf.extjwnl.dictionary.file.DictionaryFileType;
+import net.sf.extjwnl.util.factory.Param;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A <code>RandomAccessDictionaryFile</code> that accesses files named with Princeton's dictionary file naming convention.
+ * The file is memory-mapped and kept as bytes, only the lines being read are decoded. Files larger than
+ * a segment are mapped in several segments.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class PrincetonMappedDictionaryFile extends PrincetonByteBufferFile implements DictionaryFileFactory<PrincetonMappedDictionaryFile> {
+
+    public PrincetonMappedDictionaryFile(Dictionary dictionary, Map<String, Param> params) {
+        super(dictionary, params);
+    }
+
+    public PrincetonMappedDictionaryFile(Dictionary dictionary, String path, POS pos, DictionaryFileType fileType, Map<String, Param> params) {
+        super(dictionary, path, pos, fileType, params);
+    }
+
+    public PrincetonMappedDictionaryFile newInstance(Dictionary dictionary, String path, POS pos, DictionaryFileType fileType) {
+        return new PrincetonMappedDictionaryFile(dictionary, path, pos, fileType, params);
+    }
+
+    protected void openFile() throws IOException {
+        seek(0);
+        setSegments(map(file));
+    }
+}
@@ -6,16 +6,26 @@ import net.sf.extjwnl.data.*;
 import net.sf.extjwnl.dictionary.Dictionary;
 import net.sf.extjwnl.dictionary.file.DictionaryFileFactory;
 import net.sf.extjwnl.dictionary.file.DictionaryFileType;
+import net.sf.extjwnl.dictionary.file.PositionalDictionaryFile;
+import net.sf.extjwnl.dictionary.file.SequentialLineReader;
+import net.sf.extjwnl.util.cache.BlockCache;
 import net.sf.extjwnl.util.factory.Param;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.MalformedInputException;
 import java.util.*;
 
@@ -26,7 +36,8 @@ import java.util.*;
  * @author John Didion (jdidion@didion.net)
  * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
  */
-public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandomAccessDictionaryFile implements DictionaryFileFactory<PrincetonRandomAccessDictionaryFile> {
+public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandomAccessDictionaryFile
+        implements DictionaryFileFactory<PrincetonRandomAccessDictionaryFile>, PositionalDictionaryFile {
 
     private static final Logger log = LoggerFactory.getLogger(PrincetonRandomAccessDictionaryFile.class);
 
@@ -80,7 +91,45 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
     private static final int dataFileLineLengthLimit = 15360;
     private boolean checkDataFileLineLengthLimit = true;
 
-    protected RandomAccessFile raFile = null;
+    /**
+     * Size of the buffer for sequential reads (read, readLine, readLineWord) in bytes, default: 8192.
+     * 0 disables buffering and reads go directly to the file.
+     */
+    public static final String READ_BUFFER_SIZE_KEY = "read_buffer_size";
+    private static final int DEFAULT_READ_BUFFER_SIZE = 8192;
+
+    /**
+     * Size of the buffer for writes on save in bytes, default: 262144.
+     */
+    public static final String WRITE_BUFFER_SIZE_KEY = "write_buffer_size";
+    private static final int DEFAULT_WRITE_BUFFER_SIZE = 256 * 1024;
+    private int writeBufferSize = DEFAULT_WRITE_BUFFER_SIZE;
+
+    protected volatile RandomAccessFile raFile = null;
+    private String raFileMode = READ_ONLY;
+
+    /**
+     * Writer of the file being saved, lines go into a temporary file which replaces the file when complete.
+     * Null when not saving, then lines are written directly to the file.
+     */
+    private BufferedLineWriter writer;
+    private ByteBuffer writeBuffer;
+    private FileChannel writeChannel;
+
+    /**
+     * Read buffer, holds <code>bufferLength</code> bytes of the file starting at <code>bufferStart</code>,
+     * the logical file pointer is at <code>bufferStart + bufferPosition</code>. Empty buffer means
+     * the file pointer is <code>raFile</code> pointer.
+     */
+    private byte[] readBuffer;
+    private long bufferStart;
+    private int bufferLength;
+    private int bufferPosition;
+
+    /**
+     * Optional cache of file blocks for positional reads, possibly shared with other files.
+     */
+    private volatile BlockCache blockCache;
 
     private static final String PRINCETON_HEADER = "  1 This software and database is being provided to you, the LICENSEE, by  \n" +
             "  2 Princeton University under the following license.  By obtaining, using  \n" +
@@ -165,11 +214,48 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
 
     private CharsetDecoder decoder;
 
+    /**
+     * Charset for positional reads, for files without encoding each byte is a char, as in RandomAccessFile.readLine().
+     */
+    private Charset charset = Charset.forName("ISO-8859-1");
+
+    /**
+     * Initial buffer size for positional reads, fits most of the lines.
+     */
+    private static final int READ_CHUNK_SIZE = 512;
+
     private int LINE_MAX = 1024;//1K buffer
     private byte[] lineArr = new byte[LINE_MAX];
 
     private int offsetLength = -1;
 
+    /**
+     * Synsets of the data file in offset order and the byte lengths of their lines rendered with
+     * <code>lineLengthsOffsetLength</code>, kept from the offset assignment until the file is saved.
+     */
+    private List<Synset> offsetSynsets;
+    private int[] lineLengths;
+    private int lineLengthsOffsetLength;
+
+    /**
+     * Whether to copy lines of unchanged elements from the current file on save.
+     */
+    private boolean incrementalSave = false;
+
+    /**
+     * Offsets of the lines of offsetSynsets in the current file, -1 for synsets without a line,
+     * null if lines are not reused.
+     */
+    private long[] savedOffsets;
+    private int savedLineCount;
+
+    /**
+     * Charset of the saved file, its encoder and a scratch buffer to measure lines.
+     */
+    private Charset writeCharset = Charset.defaultCharset();
+    private CharsetEncoder lengthEncoder;
+    private ByteBuffer lengthBuffer;
+
     public static void formatOffset(long i, int formatLength, StringBuilder target) {
         int lastIdx = target.length();
         target.setLength(target.length() + formatLength);
@@ -225,8 +311,9 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
     public PrincetonRandomAccessDictionaryFile(Dictionary dictionary, String path, POS pos, DictionaryFileType fileType, Map<String, Param> params) {
         super(dictionary, path, pos, fileType, params);
         if (null != encoding) {
-            Charset charset = Charset.forName(encoding);
+            charset = Charset.forName(encoding);
             decoder = charset.newDecoder();
+            writeCharset = charset;
         }
         if (params.containsKey(WRITE_PRINCETON_HEADER_KEY)) {
             writePrincetonHeader = Boolean.parseBoolean(params.get(WRITE_PRINCETON_HEADER_KEY).getValue());
@@ -252,16 +339,37 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
         if (params.containsKey(CHECK_DATA_FILE_LINE_LENGTH_LIMIT_KEY)) {
             checkDataFileLineLengthLimit = Boolean.parseBoolean(params.get(CHECK_DATA_FILE_LINE_LENGTH_LIMIT_KEY).getValue());
         }
+        int readBufferSize = DEFAULT_READ_BUFFER_SIZE;
+        if (params.containsKey(READ_BUFFER_SIZE_KEY)) {
+            readBufferSize = Integer.parseInt(params.get(READ_BUFFER_SIZE_KEY).getValue());
+        }
+        if (0 < readBufferSize) {
+            readBuffer = new byte[readBufferSize];
+        }
+        if (params.containsKey(WRITE_BUFFER_SIZE_KEY)) {
+            writeBufferSize = Integer.parseInt(params.get(WRITE_BUFFER_SIZE_KEY).getValue());
+        }
     }
 
     public PrincetonRandomAccessDictionaryFile newInstance(Dictionary dictionary, String path, POS pos, DictionaryFileType fileType) {
         return new PrincetonRandomAccessDictionaryFile(dictionary, path, pos, fileType, params);
     }
 
+    /**
+     * Sets whether to save only the changes. Data files are patched in place if offsets of synsets do not shift,
+     * otherwise, as well as for index and exception files, lines of unchanged elements are copied from the current
+     * file and only lines of changed elements are rendered.
+     *
+     * @param incrementalSave whether to save only the changes
+     */
+    public void setIncrementalSave(boolean incrementalSave) {
+        this.incrementalSave = incrementalSave;
+    }
+
     public String readLine() throws IOException {
         if (isOpen()) {
             synchronized (file) {
-                if (null == encoding) {
+                if (null == encoding && null == readBuffer) {
                     return raFile.readLine();
                 } else {
                     int c = -1;
@@ -298,6 +406,10 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
                     if ((c == -1) && (1 == idx)) {
                         return null;
                     }
+                    if (null == encoding) {
+                        // each byte is a char, as in RandomAccessFile.readLine()
+                        return new String(lineArr, 0, idx - 1, charset);
+                    }
                     if (1 < idx) {
                         ByteBuffer bb = ByteBuffer.wrap(lineArr, 0, idx - 1);
                         try {
@@ -323,14 +435,14 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
                 if (null == encoding || DictionaryFileType.DATA == getFileType()) {
                     StringBuilder input = new StringBuilder();
                     int c;
-                    while (((c = raFile.read()) != -1) && c != '\n' && c != '\r' && c != ' ') {
+                    while (((c = read()) != -1) && c != '\n' && c != '\r' && c != ' ') {
                         input.append((char) c);
                     }
                     return input.toString();
                 } else {
                     int idx = 1;
                     int c;
-                    while (((c = raFile.read()) != -1) && c != '\n' && c != '\r' && c != ' ') {
+                    while (((c = read()) != -1) && c != '\n' && c != '\r' && c != ' ') {
                         lineArr[idx - 1] = (byte) c;
                         idx++;
                         if (LINE_MAX == idx) {
@@ -354,18 +466,219 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
         }
     }
 
+    @Override
+    public String readLineAt(long offset) throws IOException {
+        LineBytes line = readBytesAt(offset, false);
+        if (null == line) {
+            return null;
+        }
+        setNextLineOffset(offset, line.nextOffset);
+        return line.decode(charset);
+    }
+
+    @Override
+    public String readLineWordAt(long offset) throws IOException {
+        LineBytes line = readBytesAt(offset, true);
+        if (null == line) {
+            return "";
+        }
+        return line.decode(charset);
+    }
+
+    @Override
+    public long getNextLineOffset(long offset) throws IOException {
+        long result = getCachedNextLineOffset(offset);
+        if (-1 == result) {
+            LineBytes line = readBytesAt(offset, false);
+            result = null == line ? offset : line.nextOffset;
+        }
+        return result;
+    }
+
+    /**
+     * Bytes of a line read at an offset.
+     */
+    private static class LineBytes {
+        private final byte[] bytes;
+        private final int length;
+        private final long nextOffset;
+
+        private LineBytes(byte[] bytes, int length, long nextOffset) {
+            this.bytes = bytes;
+            this.length = length;
+            this.nextOffset = nextOffset;
+        }
+
+        private String decode(Charset charset) {
+            return 0 == length ? "" : new String(bytes, 0, length, charset);
+        }
+    }
+
+    /**
+     * Reads bytes from <var>offset</var> till the end of line (or word) using positional channel reads,
+     * which do not move the file pointer and do not need locking.
+     * <p>
+     * Interrupting a thread blocked in a channel read closes the channel, and with it the file, for all threads.
+     * In this case the file is reopened: the interrupted thread gets <code>ClosedByInterruptException</code>,
+     * other threads repeat their reads. The file pointer of the reopened file is at the beginning of the file.
+     *
+     * @param offset offset to read at
+     * @param word   whether to stop at space
+     * @return line bytes, or null at the end of file
+     * @throws IOException IOException
+     */
+    private LineBytes readBytesAt(long offset, boolean word) throws IOException {
+        while (true) {
+            RandomAccessFile f = raFile;
+            if (null == f) {
+                throw new JWNLRuntimeException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_001"));
+            }
+            try {
+                return readBytesAt(f.getChannel(), offset, word);
+            } catch (ClosedChannelException e) {
+                reopen(f);
+                if (e instanceof ClosedByInterruptException || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reopens the file if it is still <var>closed</var>, that is, it was closed by an interrupt of a channel read
+     * and not by <code>close</code>, <code>edit</code> or <code>save</code>.
+     *
+     * @param closed file with the closed channel
+     * @throws IOException IOException
+     */
+    private void reopen(RandomAccessFile closed) throws IOException {
+        synchronized (file) {
+            if (closed == raFile) {
+                bufferLength = 0;
+                invalidateBlockCache();
+                raFile = new RandomAccessFile(file, raFileMode);
+            }
+        }
+    }
+
+    private LineBytes readBytesAt(FileChannel channel, long offset, boolean word) throws IOException {
+        byte[] bytes = new byte[READ_CHUNK_SIZE];
+        int length = 0;
+        while (true) {
+            int read = readAt(channel, ByteBuffer.wrap(bytes, length, bytes.length - length), offset + length);
+            if (read <= 0) {
+                return 0 == length ? null : new LineBytes(bytes, length, offset + length);
+            }
+            for (int i = length; i < length + read; i++) {
+                byte b = bytes[i];
+                if ('\n' == b || '\r' == b || (word && ' ' == b)) {
+                    long nextOffset = offset + i + 1;
+                    if ('\r' == b && !word) {
+                        if (i + 1 < length + read) {
+                            if ('\n' == bytes[i + 1]) {
+                                nextOffset++;
+                            }
+                        } else {
+                            ByteBuffer next = ByteBuffer.allocate(1);
+                            if (0 < readAt(channel, next, nextOffset) && '\n' == next.get(0)) {
+                                nextOffset++;
+                            }
+                        }
+                    }
+                    return new LineBytes(bytes, i, nextOffset);
+                }
+            }
+            length = length + read;
+            if (length == bytes.length) {
+                bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+            }
+        }
+    }
+
+    /**
+     * Opens a forward-only reader over the lines of this file, starting at <var>offset</var>.
+     * The reader opens the file for its reads and does not interfere with the reads of this file.
+     *
+     * @param offset offset of the first line to read
+     * @return sequential line reader
+     * @throws IOException IOException
+     */
+    public SequentialLineReader getSequentialLineReader(long offset) throws IOException {
+        if (!isOpen()) {
+            throw new JWNLRuntimeException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_001"));
+        }
+        return new SequentialLineReader(file, charset, offset, SequentialLineReader.DEFAULT_BUFFER_SIZE);
+    }
+
+    private int readAt(FileChannel channel, ByteBuffer dst, long position) throws IOException {
+        BlockCache cache = blockCache;
+        if (null == cache) {
+            return channel.read(dst, position);
+        }
+        return cache.read(this, channel, dst, position);
+    }
+
+    /**
+     * Returns the block cache used for positional reads.
+     *
+     * @return the block cache used for positional reads, or null
+     */
+    public BlockCache getBlockCache() {
+        return blockCache;
+    }
+
+    /**
+     * Sets the block cache to use for positional reads. The cache can be shared by several files.
+     *
+     * @param blockCache block cache, null disables caching
+     */
+    public void setBlockCache(BlockCache blockCache) {
+        BlockCache old = this.blockCache;
+        this.blockCache = blockCache;
+        if (null != old) {
+            old.invalidate(this);
+        }
+    }
+
+    private void invalidateBlockCache() {
+        BlockCache cache = blockCache;
+        if (null != cache) {
+            cache.invalidate(this);
+        }
+    }
+
     public void seek(long pos) throws IOException {
         synchronized (file) {
-            raFile.seek(pos);
+            if (0 < bufferLength && bufferStart <= pos && pos <= bufferStart + bufferLength) {
+                bufferPosition = (int) (pos - bufferStart);
+            } else {
+                bufferLength = 0;
+                raFile.seek(pos);
+            }
         }
     }
 
     public long getFilePointer() throws IOException {
         synchronized (file) {
+            if (0 < bufferLength) {
+                return bufferStart + bufferPosition;
+            }
             return raFile.getFilePointer();
         }
     }
 
+    /**
+     * Drops the read buffer, moving the file pointer to the logical position. Should be called before writing.
+     *
+     * @throws IOException IOException
+     */
+    private void discardReadBuffer() throws IOException {
+        if (0 < bufferLength) {
+            raFile.seek(bufferStart + bufferPosition);
+            bufferLength = 0;
+        }
+    }
+
     public boolean isOpen() {
         return raFile != null;
     }
@@ -383,6 +696,8 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
                 }
             } finally {
                 raFile = null;
+                bufferLength = 0;
+                invalidateBlockCache();
             }
         }
     }
@@ -395,16 +710,20 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
      */
     protected void openFile() throws IOException {
         if (!file.exists()) {
-            raFile = new RandomAccessFile(file, READ_WRITE);
+            raFileMode = READ_WRITE;
         } else {
-            raFile = new RandomAccessFile(file, READ_ONLY);
+            raFileMode = READ_ONLY;
         }
+        raFile = new RandomAccessFile(file, raFileMode);
     }
 
     public void edit() throws IOException {
         synchronized (file) {
+            bufferLength = 0;
+            invalidateBlockCache();
             raFile.close();
-            raFile = new RandomAccessFile(file, READ_WRITE);
+            raFileMode = READ_WRITE;
+            raFile = new RandomAccessFile(file, raFileMode);
         }
     }
 
@@ -416,15 +735,37 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
 
     public int read() throws IOException {
         synchronized (file) {
-            return raFile.read();
+            if (null == readBuffer) {
+                return raFile.read();
+            }
+            if (bufferPosition < bufferLength) {
+                return readBuffer[bufferPosition++] & 0xFF;
+            }
+            // refill from the logical position
+            long pos = getFilePointer();
+            raFile.seek(pos);
+            int read = raFile.read(readBuffer, 0, readBuffer.length);
+            if (read <= 0) {
+                bufferLength = 0;
+                return -1;
+            }
+            bufferStart = pos;
+            bufferLength = read;
+            bufferPosition = 1;
+            return readBuffer[0] & 0xFF;
         }
     }
 
     public void save() throws IOException, JWNLException {
+        invalidateBlockCache();
         if (log.isDebugEnabled()) {
             log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_004", getFilename()));
         }
-        if (DictionaryFileType.EXCEPTION == getFileType()) {
+        if (DictionaryFileType.EXCEPTION == getFileType() && incrementalSave && saveMerged()) {
+            if (log.isDebugEnabled()) {
+                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_013", getFilename()));
+            }
+        } else if (DictionaryFileType.EXCEPTION == getFileType()) {
             ArrayList<String> exceptions = new ArrayList<String>();
             Iterator<Exc> ei = dictionary.getExceptionIterator(getPOS());
             while (ei.hasNext()) {
@@ -435,21 +776,15 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
             }
             Collections.sort(exceptions);
 
-            synchronized (file) {
-                seek(0);
-                writeStrings(exceptions);
-            }
+            writeStrings(exceptions);
         } else if (DictionaryFileType.DATA == getFileType()) {
-            ArrayList<Synset> synsets = new ArrayList<Synset>();
-            Iterator<Synset> si = dictionary.getSynsetIterator(getPOS());
-            while (si.hasNext()) {
-                synsets.add(si.next());
-            }
-
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_005", synsets.size()));
-            }
-            Collections.sort(synsets, synsetOffsetComparator);
+            // offsets have just been assigned in this order
+            List<Synset> synsets = null != offsetSynsets ? offsetSynsets : getSortedSynsets();
+            long[] saved = null != offsetSynsets ? savedOffsets : null;
+            int[] lengths = lineLengths;
+            offsetSynsets = null;
+            lineLengths = null;
+            savedOffsets = null;
 
             if (log.isDebugEnabled()) {
                 log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_007", synsets.size()));
@@ -457,39 +792,18 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
             if (log.isDebugEnabled()) {
                 log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_008", getFilename()));
             }
-            long counter = 0;
-            long total = synsets.size();
-            long reportInt = (total / 20) + 1;//i.e. report every 5%
             synchronized (file) {
-                seek(0);
-                if (writePrincetonHeader) {
-                    if (log.isDebugEnabled()) {
-                        log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_020", getFilename()));
-                    }
-                    raFile.writeBytes(PRINCETON_HEADER);
-                }
-                if (log.isDebugEnabled()) {
-                    log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_021", getFilename()));
-                }
-                for (Synset synset : synsets) {
-                    counter++;
-                    if (0 == (counter % reportInt)) {
-                        if (log.isDebugEnabled()) {
-                            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_014", 100 * counter / total));
-                        }
-                    }
-                    String renderedSynset = renderSynset(synset);
-                    if (null == encoding) {
-                        raFile.write(renderedSynset.getBytes());
-                    } else {
-                        raFile.write(renderedSynset.getBytes(encoding));
-                    }
-                    raFile.writeBytes("\n");
+                if (null == saved || !patchLines(synsets, saved, lengths)) {
+                    writeSynsets(synsets, saved, lengths);
                 }
             }
             if (log.isDebugEnabled()) {
                 log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_009", getFilename()));
             }
+        } else if (DictionaryFileType.INDEX == getFileType() && incrementalSave && saveMerged()) {
+            if (log.isDebugEnabled()) {
+                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_013", getFilename()));
+            }
         } else if (DictionaryFileType.INDEX == getFileType()) {
             ArrayList<String> indexes = new ArrayList<String>();
 
@@ -505,100 +819,247 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
                 log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_005", indexes.size()));
             }
             Collections.sort(indexes);
-            synchronized (file) {
+            writeIndexStrings(indexes);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_012", getFilename()));
+        }
+    }
 
-                seek(0);
-                if (writePrincetonHeader) {
-                    raFile.writeBytes(PRINCETON_HEADER);
+    /**
+     * Writes the data file, copying contiguous lines of unchanged synsets from the current file.
+     *
+     * @param synsets synsets in the order of offsets
+     * @param saved   offsets of the lines of the synsets in the current file, or null to render all lines
+     * @param lengths lengths of the lines of the synsets
+     * @throws IOException   IOException
+     * @throws JWNLException JWNLException
+     */
+    private void writeSynsets(List<Synset> synsets, long[] saved, int[] lengths) throws IOException, JWNLException {
+        long counter = 0;
+        long total = synsets.size();
+        long reportInt = (total / 20) + 1;//i.e. report every 5%
+        File temp = beginWrite();
+        try {
+            if (writePrincetonHeader) {
+                if (log.isDebugEnabled()) {
+                    log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_020", getFilename()));
                 }
-                writeIndexStrings(indexes);
+                writer.write(PRINCETON_HEADER);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_021", getFilename()));
             }
+            // contiguous lines of unchanged synsets are copied from the current file
+            long copyStart = -1;
+            long copyEnd = -1;
+            for (int i = 0; i < synsets.size(); i++) {
+                counter++;
+                if (0 == (counter % reportInt)) {
+                    if (log.isDebugEnabled()) {
+                        log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_014", 100 * counter / total));
+                    }
+                }
+                Synset synset = synsets.get(i);
+                if (null != saved && isUnchanged(synset, saved[i])) {
+                    if (saved[i] != copyEnd) {
+                        copyLines(copyStart, copyEnd);
+                        copyStart = saved[i];
+                    }
+                    copyEnd = saved[i] + lengths[i] + 1;
+                } else {
+                    copyLines(copyStart, copyEnd);
+                    copyStart = -1;
+                    copyEnd = -1;
+                    writer.writeLine(renderSynset(synset));
+                }
+            }
+            copyLines(copyStart, copyEnd);
+            finishWrite(temp);
+        } finally {
+            endWrite(temp);
         }
-        if (log.isDebugEnabled()) {
-            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_012", getFilename()));
+    }
+
+    /**
+     * Starts writing the file into a temporary file next to it.
+     *
+     * @return temporary file
+     * @throws IOException IOException
+     */
+    private File beginWrite() throws IOException {
+        File temp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        if (null == writeBuffer) {
+            writeBuffer = ByteBuffer.allocateDirect(writeBufferSize);
+        }
+        FileChannel channel = new FileOutputStream(temp).getChannel();
+        writer = new BufferedLineWriter(channel, writeBuffer, writeCharset);
+        writeChannel = channel;
+        return temp;
+    }
+
+    /**
+     * Completes writing and replaces the file with the <var>temp</var> file.
+     * If the file cannot be replaced, it is reopened. If it is removed but cannot be replaced,
+     * the <var>temp</var> file is kept and reported, because it holds the only copy of the content.
+     *
+     * @param temp temporary file
+     * @throws IOException IOException
+     */
+    private void finishWrite(File temp) throws IOException {
+        writer.flush();
+        writeChannel.force(true);
+        writeChannel.close();
+        writeChannel = null;
+
+        if (null != raFile) {
+            raFile.close();
+            raFile = null;
+        }
+        bufferLength = 0;
+        invalidateBlockCache();
+        setNextLineOffset(-1, -1);
+        boolean renamed = temp.renameTo(file);
+        // some platforms do not rename over an existing file
+        if (!renamed && file.delete()) {
+            renamed = temp.renameTo(file);
+            if (!renamed) {
+                throw new IOException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_008", new Object[]{file, temp}));
+            }
+        }
+        if (!renamed) {
+            raFile = new RandomAccessFile(file, raFileMode);
+            throw new IOException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_006", new Object[]{file, temp}));
+        }
+        raFileMode = READ_WRITE;
+        raFile = new RandomAccessFile(file, raFileMode);
+    }
+
+    /**
+     * Releases the writer and removes the <var>temp</var> file, if writing failed.
+     * The <var>temp</var> file is kept if the file is gone.
+     *
+     * @param temp temporary file
+     */
+    private void endWrite(File temp) {
+        writer = null;
+        if (null != writeChannel) {
+            try {
+                writeChannel.close();
+            } catch (IOException e) {
+                if (log.isErrorEnabled()) {
+                    log.error(dictionary.getMessages().resolveMessage("EXCEPTION_001", e.getMessage()), e);
+                }
+            }
+            writeChannel = null;
+        }
+        if (temp.exists() && file.exists() && !temp.delete()) {
+            temp.deleteOnExit();
         }
     }
 
     @Override
     public void writeLine(String line) throws IOException {
         synchronized (file) {
-            byte[] bytes;
-            if (null == encoding) {
-                bytes = line.getBytes();
+            int length;
+            if (null != writer) {
+                length = writer.writeLine(line);
             } else {
-                bytes = line.getBytes(encoding);
+                byte[] bytes;
+                if (null == encoding) {
+                    bytes = line.getBytes();
+                } else {
+                    bytes = line.getBytes(encoding);
+                }
+                discardReadBuffer();
+                raFile.write(bytes);
+                raFile.writeBytes("\n");
+                length = bytes.length;
             }
-            if (checkDataFileLineLengthLimit && bytes.length > dataFileLineLengthLimit) {
+            if (checkDataFileLineLengthLimit && length > dataFileLineLengthLimit) {
                 if (log.isWarnEnabled()) {
-                    log.warn(dictionary.getMessages().resolveMessage("PRINCETON_WARN_009", new Object[]{getFilename(), dataFileLineLengthLimit, bytes.length}));
+                    log.warn(dictionary.getMessages().resolveMessage("PRINCETON_WARN_009", new Object[]{getFilename(), dataFileLineLengthLimit, length}));
                 }
             }
-            raFile.write(bytes);
-            raFile.writeBytes("\n");
         }
     }
 
     public void writeStrings(Collection<String> strings) throws IOException {
         synchronized (file) {
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_008", getFilename()));
-            }
-            long counter = 0;
-            long total = strings.size();
-            long reportInt = (total / 20) + 1;//i.e. report every 5%
-            for (String s : strings) {
-                counter++;
-                if (0 == (counter % reportInt)) {
-                    if (log.isDebugEnabled()) {
-                        log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_014", 100 * counter / total));
+            File temp = beginWrite();
+            try {
+                if (log.isDebugEnabled()) {
+                    log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_008", getFilename()));
+                }
+                long counter = 0;
+                long total = strings.size();
+                long reportInt = (total / 20) + 1;//i.e. report every 5%
+                for (String s : strings) {
+                    counter++;
+                    if (0 == (counter % reportInt)) {
+                        if (log.isDebugEnabled()) {
+                            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_014", 100 * counter / total));
+                        }
                     }
+                    writeLine(s);
                 }
-                writeLine(s);
-            }
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_013", getFilename()));
+                if (log.isDebugEnabled()) {
+                    log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_013", getFilename()));
+                }
+                finishWrite(temp);
+            } finally {
+                endWrite(temp);
             }
         }
     }
 
     public void writeIndexStrings(ArrayList<String> strings) throws IOException {
         synchronized (file) {
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_008", getFilename()));
-            }
-            long counter = 0;
-            long total = strings.size();
-            long reportInt = (total / 20) + 1;//i.e. report every 5%
-            //see makedb.c FixLastRecord
-            /* Funky routine to pad the second to the last record of the
-             index file to be longer than the last record so the binary
-             search in the search code works properly. */
-            for (int i = 0; i < strings.size() - 2; i++) {
-                counter++;
-                if (0 == (counter % reportInt)) {
-                    if (log.isDebugEnabled()) {
-                        log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_014", 100 * counter / total));
+            File temp = beginWrite();
+            try {
+                if (writePrincetonHeader) {
+                    writer.write(PRINCETON_HEADER);
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_008", getFilename()));
+                }
+                long counter = 0;
+                long total = strings.size();
+                long reportInt = (total / 20) + 1;//i.e. report every 5%
+                //see makedb.c FixLastRecord
+                /* Funky routine to pad the second to the last record of the
+                 index file to be longer than the last record so the binary
+                 search in the search code works properly. */
+                for (int i = 0; i < strings.size() - 2; i++) {
+                    counter++;
+                    if (0 == (counter % reportInt)) {
+                        if (log.isDebugEnabled()) {
+                            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_014", 100 * counter / total));
+                        }
                     }
+                    writeLine(strings.get(i));
                 }
-                writeLine(strings.get(i));
-            }
-            if (1 < strings.size()) {
-                String nextToLast = strings.get(strings.size() - 2);
-                String last = strings.get(strings.size() - 1);
-                while (nextToLast.length() <= last.length()) {
-                    nextToLast = nextToLast + " ";
+                if (1 < strings.size()) {
+                    String nextToLast = strings.get(strings.size() - 2);
+                    String last = strings.get(strings.size() - 1);
+                    while (nextToLast.length() <= last.length()) {
+                        nextToLast = nextToLast + " ";
+                    }
+                    writeLine(nextToLast);
+                    writeLine(last);
+                } else if (1 == strings.size()) {
+                    String last = strings.get(strings.size() - 1);
+                    writeLine(last);
                 }
-                writeLine(nextToLast);
-                writeLine(last);
-            } else if (1 == strings.size()) {
-                String last = strings.get(strings.size() - 1);
-                writeLine(last);
-            }
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_014", 100));
-            }
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_013", getFilename()));
+                if (log.isDebugEnabled()) {
+                    log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_014", 100));
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_013", getFilename()));
+                }
+                finishWrite(temp);
+            } finally {
+                endWrite(temp);
             }
         }
     }
@@ -839,19 +1300,9 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
 
     public int getOffsetLength() throws IOException, JWNLException {
         if (DictionaryFileType.DATA == getFileType()) {
-            ArrayList<Synset> synsets = new ArrayList<Synset>();
-            Iterator<Synset> si = dictionary.getSynsetIterator(getPOS());
-            while (si.hasNext()) {
-                synsets.add(si.next());
-            }
-
-            if (log.isDebugEnabled()) {
-                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_005", synsets.size()));
-            }
-            Collections.sort(synsets, synsetOffsetComparator);
-
             offsetLength = 8;
             int offsetDigitCount = 8;//8 by default for WN compatibility
+            measureLines(offsetLength);
             do {
                 if (offsetLength < offsetDigitCount) {
                     offsetLength = offsetDigitCount;
@@ -859,28 +1310,7 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
                         log.warn(dictionary.getMessages().resolveMessage("PRINCETON_WARN_010", offsetLength));
                     }
                 }
-                if (log.isDebugEnabled()) {
-                    log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_006", new Object[]{synsets.size(), getFilename()}));
-                }
-                long offset = 0;
-                if (writePrincetonHeader) {
-                    offset = offset + PRINCETON_HEADER.length();
-                }
-                long safeOffset = Integer.MAX_VALUE - 1;
-                for (Synset s : synsets) {
-                    String renderedSynset = renderSynset(s);
-                    Synset oldSynset = dictionary.getSynsetAt(s.getPOS(), offset);
-                    if (null != oldSynset) {
-                        oldSynset.setOffset(safeOffset);
-                        safeOffset--;
-                    }
-                    s.setOffset(offset);
-                    if (null == encoding) {
-                        offset = offset + renderedSynset.getBytes().length + 1;//\n should be 1 byte
-                    } else {
-                        offset = offset + renderedSynset.getBytes(encoding).length + 1;//\n should be 1 byte
-                    }
-                }
+                long offset = assignOffsets();
 
                 //calculate used offset length
                 offsetDigitCount = Math.max(offsetLength, getDigitCount(offset));
@@ -904,43 +1334,472 @@ public class PrincetonRandomAccessDictionaryFile extends AbstractPrincetonRandom
     public void setOffsetLength(int length) throws JWNLException, IOException {
         if (offsetLength != length) {
             offsetLength = length;
+            // lines with offsets of another length have to be rendered
+            savedOffsets = null;
 
             //recalculate offsets which might change due to changed offset length
             if (DictionaryFileType.DATA == getFileType()) {
-                ArrayList<Synset> synsets = new ArrayList<Synset>();
-                Iterator<Synset> si = dictionary.getSynsetIterator(getPOS());
-                while (si.hasNext()) {
-                    synsets.add(si.next());
+                if (null == offsetSynsets) {
+                    measureLines(offsetLength);
                 }
+                assignOffsets();
+            }
+        }
+    }
+
+    private List<Synset> getSortedSynsets() throws JWNLException {
+        ArrayList<Synset> synsets = new ArrayList<Synset>();
+        Iterator<Synset> si = dictionary.getSynsetIterator(getPOS());
+        while (si.hasNext()) {
+            synsets.add(si.next());
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_005", synsets.size()));
+        }
+        Collections.sort(synsets, synsetOffsetComparator);
+        return synsets;
+    }
+
+    /**
+     * Renders synsets once, with <var>length</var> long offsets, and keeps the byte lengths of their lines.
+     *
+     * @param length offset length
+     * @throws JWNLException JWNLException
+     */
+    private void measureLines(int length) throws JWNLException, IOException {
+        offsetSynsets = getSortedSynsets();
+        lineLengths = new int[offsetSynsets.size()];
+        lineLengthsOffsetLength = length;
+        savedOffsets = incrementalSave ? matchSavedLines(length) : null;
+        for (int i = 0; i < lineLengths.length; i++) {
+            if (null == savedOffsets || -1 == savedOffsets[i] || offsetSynsets.get(i).isDirty()) {
+                lineLengths[i] = getByteLength(renderSynset(offsetSynsets.get(i)));
+            }
+        }
+    }
 
-                if (log.isInfoEnabled()) {
-                    log.info(dictionary.getMessages().resolveMessage("PRINCETON_INFO_005", synsets.size()));
+    /**
+     * Matches synsets with the lines of the current file by offset. Unchanged synsets take the lengths
+     * of their lines, instead of being rendered.
+     *
+     * @param length offset length
+     * @return offsets of the lines of the synsets, -1 for the synsets without a line,
+     * or null if the file is empty or its offsets are of another length
+     * @throws IOException IOException
+     */
+    private long[] matchSavedLines(int length) throws IOException {
+        if (!file.exists() || 0 == length()) {
+            return null;
+        }
+        long[] result = new long[offsetSynsets.size()];
+        Arrays.fill(result, -1);
+        savedLineCount = 0;
+        SequentialLineReader reader = getSequentialLineReader(0);
+        try {
+            int i = 0;
+            String line;
+            while (null != (line = reader.readLine())) {
+                if (0 == line.length() || ' ' == line.charAt(0)) {
+                    // license header
+                    continue;
+                }
+                if (0 == savedLineCount && length != line.indexOf(' ')) {
+                    return null;
+                }
+                savedLineCount++;
+                long offset = reader.getLineOffset();
+                while (i < result.length && offsetSynsets.get(i).getOffset() < offset) {
+                    i++;
+                }
+                if (i < result.length && offsetSynsets.get(i).getOffset() == offset) {
+                    result[i] = offset;
+                    lineLengths[i] = (int) (reader.getNextLineOffset() - offset - 1);
+                    i++;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        if (!endsWithLineEnd()) {
+            // the last line can not be copied as is
+            for (int i = result.length - 1; 0 <= i; i--) {
+                if (-1 != result[i]) {
+                    result[i] = -1;
+                    break;
                 }
-                Collections.sort(synsets, synsetOffsetComparator);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether the line of <var>synset</var> at <var>savedOffset</var> in the current file can be copied
+     * as is: the synset is unchanged, stays at the same offset and points to unchanged synsets.
+     *
+     * @param synset      synset
+     * @param savedOffset offset of the line of the synset in the current file, or -1
+     * @return whether the line of <var>synset</var> can be copied as is
+     * @throws JWNLException JWNLException
+     */
+    private boolean isUnchanged(Synset synset, long savedOffset) throws JWNLException {
+        if (-1 == savedOffset || savedOffset != synset.getOffset() || synset.isDirty()) {
+            return false;
+        }
+        // synsets which have moved are marked as changed
+        for (Pointer pointer : synset.getPointers()) {
+            Synset target = pointer.getTargetSynset();
+            if (null == target || target.isDirty()) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-                if (log.isInfoEnabled()) {
-                    log.info(dictionary.getMessages().resolveMessage("PRINCETON_INFO_006", new Object[]{synsets.size(), getFilename()}));
+    /**
+     * Writes lines of changed synsets over their current lines, if no synset has moved.
+     *
+     * @param synsets synsets in the order of offsets
+     * @param saved   offsets of the lines of the synsets in the current file
+     * @param lengths lengths of the lines of the synsets
+     * @return false if the file has to be rewritten
+     * @throws IOException   IOException
+     * @throws JWNLException JWNLException
+     */
+    private boolean patchLines(List<Synset> synsets, long[] saved, int[] lengths) throws IOException, JWNLException {
+        if (savedLineCount != synsets.size()) {
+            return false;
+        }
+        long end = writePrincetonHeader ? PRINCETON_HEADER.length() : 0;
+        for (int i = 0; i < synsets.size(); i++) {
+            if (saved[i] != synsets.get(i).getOffset()) {
+                return false;
+            }
+            end = saved[i] + lengths[i] + 1;
+        }
+        if (end != raFile.length()) {
+            return false;
+        }
+
+        List<byte[]> lines = new ArrayList<byte[]>();
+        List<Long> offsets = new ArrayList<Long>();
+        for (int i = 0; i < synsets.size(); i++) {
+            Synset synset = synsets.get(i);
+            if (!isUnchanged(synset, saved[i])) {
+                byte[] bytes = renderSynset(synset).getBytes(writeCharset);
+                if (bytes.length != lengths[i]) {
+                    return false;
                 }
-                long offset = 0;
-                if (writePrincetonHeader) {
-                    offset = offset + PRINCETON_HEADER.length();
-                }
-                long safeOffset = Integer.MAX_VALUE - 1;
-                for (Synset s : synsets) {
-                    String renderedSynset = renderSynset(s);
-                    Synset oldSynset = dictionary.getSynsetAt(s.getPOS(), offset);
-                    if (null != oldSynset) {
-                        oldSynset.setOffset(safeOffset);
-                        safeOffset--;
+                lines.add(bytes);
+                offsets.add(saved[i]);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_024", new Object[]{lines.size(), getFilename()}));
+        }
+        if (!lines.isEmpty()) {
+            bufferLength = 0;
+            invalidateBlockCache();
+            setNextLineOffset(-1, -1);
+            for (int i = 0; i < lines.size(); i++) {
+                raFile.seek(offsets.get(i));
+                raFile.write(lines.get(i));
+            }
+            raFile.getChannel().force(true);
+        }
+        return true;
+    }
+
+    /**
+     * Copies bytes from <var>start</var> till <var>end</var> of the current file to the file being written.
+     *
+     * @param start start offset, -1 for nothing to copy
+     * @param end   end offset
+     * @throws IOException IOException
+     */
+    private void copyLines(long start, long end) throws IOException {
+        if (-1 != start && start < end) {
+            writer.flush();
+            FileChannel channel = raFile.getChannel();
+            long position = start;
+            while (position < end) {
+                long copied = channel.transferTo(position, end - position, writeChannel);
+                if (copied <= 0) {
+                    throw new IOException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_007", new Object[]{getFilename(), position}));
+                }
+                position = position + copied;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the current file ends with a line end.
+     *
+     * @return whether the current file ends with a line end
+     * @throws IOException IOException
+     */
+    private boolean endsWithLineEnd() throws IOException {
+        long length = raFile.length();
+        if (0 == length) {
+            return true;
+        }
+        ByteBuffer last = ByteBuffer.allocate(1);
+        return 0 < raFile.getChannel().read(last, length - 1) && '\n' == last.get(0);
+    }
+
+    /**
+     * Saves index words or exceptions in the order of their lemmas, copying lines of unchanged ones from
+     * the current file and rendering the others. The last two lines of index files are always rendered,
+     * because of the padding. The file is not replaced, if nothing has changed.
+     *
+     * @return false if the current file is not sorted and has to be rewritten
+     * @throws IOException   IOException
+     * @throws JWNLException JWNLException
+     */
+    private boolean saveMerged() throws IOException, JWNLException {
+        boolean index = DictionaryFileType.INDEX == getFileType();
+        TreeMap<String, BaseDictionaryElement> elements = new TreeMap<String, BaseDictionaryElement>();
+        if (index) {
+            Iterator<IndexWord> ii = dictionary.getIndexWordIterator(getPOS());
+            while (ii.hasNext()) {
+                IndexWord indexWord = ii.next();
+                if (null != elements.put(indexWord.getLemma().replace(' ', '_'), indexWord)) {
+                    return false;
+                }
+            }
+        } else {
+            Iterator<Exc> ei = dictionary.getExceptionIterator(getPOS());
+            while (ei.hasNext()) {
+                Exc exc = ei.next();
+                if (null != elements.put(exc.getLemma().replace(' ', '_'), exc)) {
+                    return false;
+                }
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_005", elements.size()));
+        }
+
+        synchronized (file) {
+            SavedLines saved = readSavedLines();
+            if (null == saved) {
+                return false;
+            }
+            // lines starting here are rendered
+            int last = index ? elements.size() - 2 : elements.size();
+            int savedLast = index ? saved.size - 2 : saved.size;
+            if (!endsWithLineEnd()) {
+                savedLast = Math.min(savedLast, saved.size - 1);
+            }
+            boolean changed = saved.header != (index && writePrincetonHeader);
+
+            if (log.isDebugEnabled()) {
+                log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_008", getFilename()));
+            }
+            File temp = beginWrite();
+            try {
+                if (index && writePrincetonHeader) {
+                    writer.write(PRINCETON_HEADER);
+                }
+                List<String> tail = new ArrayList<String>(2);
+                long copyStart = -1;
+                long copyEnd = -1;
+                int i = 0;
+                int j = 0;
+                for (Map.Entry<String, BaseDictionaryElement> entry : elements.entrySet()) {
+                    String key = entry.getKey();
+                    while (j < saved.size && saved.keys.get(j).compareTo(key) < 0) {
+                        // removed
+                        changed = true;
+                        j++;
                     }
-                    s.setOffset(offset);
-                    if (null == encoding) {
-                        offset = offset + renderedSynset.getBytes().length + 1;//\n should be 1 byte
+                    boolean found = j < saved.size && saved.keys.get(j).equals(key);
+                    boolean elementChanged = !found || isChanged(entry.getValue());
+                    if (!elementChanged && i < last && j < savedLast) {
+                        if (saved.starts[j] != copyEnd) {
+                            copyLines(copyStart, copyEnd);
+                            copyStart = saved.starts[j];
+                        }
+                        copyEnd = saved.ends[j];
                     } else {
-                        offset = offset + renderedSynset.getBytes(encoding).length + 1;//\n should be 1 byte
+                        changed = changed || elementChanged;
+                        copyLines(copyStart, copyEnd);
+                        copyStart = -1;
+                        copyEnd = -1;
+                        String line = index ? renderIndexWord((IndexWord) entry.getValue()) : renderException((Exc) entry.getValue());
+                        if (i < last) {
+                            writeLine(line);
+                        } else {
+                            tail.add(line);
+                        }
+                    }
+                    if (found) {
+                        j++;
+                    }
+                    i++;
+                }
+                changed = changed || j < saved.size;
+                copyLines(copyStart, copyEnd);
+                //see makedb.c FixLastRecord
+                if (2 == tail.size()) {
+                    String nextToLast = tail.get(0);
+                    while (nextToLast.length() <= tail.get(1).length()) {
+                        nextToLast = nextToLast + " ";
                     }
+                    writeLine(nextToLast);
+                    writeLine(tail.get(1));
+                } else if (1 == tail.size()) {
+                    writeLine(tail.get(0));
+                }
+                if (changed) {
+                    finishWrite(temp);
+                }
+            } finally {
+                endWrite(temp);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the line of <var>element</var> has to be rendered: the element or,
+     * for index words, any of their senses has changed.
+     *
+     * @param element index word or exception
+     * @return whether the line of <var>element</var> has to be rendered
+     */
+    private static boolean isChanged(BaseDictionaryElement element) {
+        if (element.isDirty()) {
+            return true;
+        }
+        if (element instanceof IndexWord) {
+            // synsets which have moved are marked as changed
+            for (Synset synset : ((IndexWord) element).getSenses()) {
+                if (synset.isDirty()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * First words and byte ranges of the lines of a sorted file.
+     */
+    private static class SavedLines {
+        private final List<String> keys = new ArrayList<String>();
+        private long[] starts = new long[1024];
+        private long[] ends = new long[1024];
+        private int size = 0;
+        private boolean header = false;
+
+        private void add(String key, long start, long end) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, 2 * size);
+                ends = Arrays.copyOf(ends, 2 * size);
+            }
+            keys.add(key);
+            starts[size] = start;
+            ends[size] = end;
+            size++;
+        }
+    }
+
+    /**
+     * Reads first words and byte ranges of the lines of the current file.
+     *
+     * @return lines, or null if the file is not sorted by first words
+     * @throws IOException IOException
+     */
+    private SavedLines readSavedLines() throws IOException {
+        SavedLines result = new SavedLines();
+        if (!file.exists() || 0 == length()) {
+            return result;
+        }
+        SequentialLineReader reader = getSequentialLineReader(0);
+        try {
+            String line;
+            while (null != (line = reader.readLine())) {
+                if (0 == line.length() || ' ' == line.charAt(0)) {
+                    // license header
+                    result.header = true;
+                    continue;
                 }
+                int space = line.indexOf(' ');
+                String key = -1 == space ? line : line.substring(0, space);
+                if (0 < result.size && result.keys.get(result.size - 1).compareTo(key) >= 0) {
+                    return null;
+                }
+                result.add(key, reader.getLineOffset(), reader.getNextLineOffset());
             }
+        } finally {
+            reader.close();
+        }
+        return result;
+    }
+
+    /**
+     * Assigns offsets to synsets in their order, from the lengths of their lines.
+     *
+     * @return the offset after the last synset
+     * @throws JWNLException JWNLException
+     */
+    private long assignOffsets() throws JWNLException {
+        if (log.isDebugEnabled()) {
+            log.debug(dictionary.getMessages().resolveMessage("PRINCETON_INFO_006", new Object[]{offsetSynsets.size(), getFilename()}));
+        }
+        // offsets are the only fields of a line which depend on the offset length, all of them are
+        // formatted to it: the synset offset and the pointer target offsets
+        int delta = offsetLength - lineLengthsOffsetLength;
+        long offset = 0;
+        if (writePrincetonHeader) {
+            offset = offset + PRINCETON_HEADER.length();
+        }
+        long safeOffset = Integer.MAX_VALUE - 1;
+        for (int i = 0; i < lineLengths.length; i++) {
+            Synset s = offsetSynsets.get(i);
+            if (s.getOffset() != offset) {
+                Synset oldSynset = dictionary.getSynsetAt(s.getPOS(), offset);
+                if (null != oldSynset) {
+                    oldSynset.setOffset(safeOffset);
+                    safeOffset--;
+                }
+                s.setOffset(offset);
+                // lines pointing to it change as well
+                s.setDirty(true);
+            }
+            lineLengths[i] = lineLengths[i] + delta * (1 + s.getPointers().size());
+            offset = offset + lineLengths[i] + 1;//\n should be 1 byte
+        }
+        lineLengthsOffsetLength = offsetLength;
+        return offset;
+    }
+
+    /**
+     * Returns the number of bytes of <var>line</var> in the file encoding.
+     *
+     * @param line line
+     * @return the number of bytes of <var>line</var> in the file encoding
+     */
+    private int getByteLength(String line) {
+        if (null == lengthEncoder) {
+            // replace like String.getBytes does
+            lengthEncoder = writeCharset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            lengthBuffer = ByteBuffer.allocate(4 * READ_CHUNK_SIZE);
+        }
+        if (1 == lengthEncoder.maxBytesPerChar()) {
+            return line.length();
+        }
+        int length = (int) Math.ceil(line.length() * lengthEncoder.maxBytesPerChar());
+        if (lengthBuffer.capacity() < length) {
+            lengthBuffer = ByteBuffer.allocate(Math.max(length, 2 * lengthBuffer.capacity()));
         }
+        lengthBuffer.clear();
+        lengthEncoder.reset();
+        lengthEncoder.encode(CharBuffer.wrap(line), lengthBuffer, true);
+        lengthEncoder.flush(lengthBuffer);
+        return lengthBuffer.position();
     }
 }
\ No newline at end of file
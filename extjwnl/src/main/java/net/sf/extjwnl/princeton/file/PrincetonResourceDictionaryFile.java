@@ -1,99 +1,181 @@
 package net.sf.extjwnl.princeton.file;
 
+import net.sf.extjwnl.JWNLRuntimeException;
 import net.sf.extjwnl.data.POS;
 import net.sf.extjwnl.dictionary.Dictionary;
 import net.sf.extjwnl.dictionary.file.DictionaryFileFactory;
 import net.sf.extjwnl.dictionary.file.DictionaryFileType;
 import net.sf.extjwnl.util.factory.Param;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.*;
+import java.net.URL;
+import java.net.URLConnection;
 import java.nio.ByteBuffer;
-import java.nio.channels.Channels;
-import java.nio.channels.ReadableByteChannel;
-import java.nio.channels.WritableByteChannel;
-import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
  * A <code>RandomAccessDictionaryFile</code> that accesses files named with Princeton's dictionary file naming convention.
- * The file is loaded from classpath and stored in CharBuffer.
+ * The file is loaded from classpath on first access and kept as bytes. If a cache directory is configured,
+ * the file is extracted there once and memory-mapped, so that later runs reuse the extracted file.
  *
  * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
  */
-public class PrincetonResourceDictionaryFile extends PrincetonCharBufferFile implements DictionaryFileFactory<PrincetonResourceDictionaryFile> {
+public class PrincetonResourceDictionaryFile extends PrincetonByteBufferFile implements DictionaryFileFactory<PrincetonResourceDictionaryFile> {
 
-    private long size;
+    /**
+     * Directory to extract the resources to. Extracted files are memory-mapped and reused while they are
+     * not older than the resources. Optional, by default resources are read into memory.
+     */
+    public static final String CACHE_DIR_KEY = "cache_dir";
+
+    private static final int BUFFER_SIZE = 65536;
+
+    private final File cacheDir;
+    private volatile boolean open = false;
 
     public PrincetonResourceDictionaryFile(Dictionary dictionary, Map<String, Param> params) {
         super(dictionary, params);
+        cacheDir = null;
     }
 
     public PrincetonResourceDictionaryFile(Dictionary dictionary, String path, POS pos, DictionaryFileType fileType, Map<String, Param> params) {
         super(dictionary, path, pos, fileType, params);
+        if (params.containsKey(CACHE_DIR_KEY)) {
+            cacheDir = new File(params.get(CACHE_DIR_KEY).getValue());
+        } else {
+            cacheDir = null;
+        }
     }
 
     public PrincetonResourceDictionaryFile newInstance(Dictionary dictionary, String path, POS pos, DictionaryFileType fileType) {
         return new PrincetonResourceDictionaryFile(dictionary, path, pos, fileType, params);
     }
 
+    /**
+     * Marks the file as open, the resource is loaded on first access.
+     */
     public void openFile() throws IOException {
-        InputStream input = PrincetonResourceDictionaryFile.class.getResourceAsStream(path + "/" + getFilename());
-        try {
-            // data.noun is about 16M
-            ByteArrayOutputStream output = new ByteArrayOutputStream(16 * 1024 * 1024);
-            try {
-                copyStream(input, output);
-                size = output.size();
-                if (null != encoding) {
-                    buffer = Charset.forName(encoding).newDecoder().decode(ByteBuffer.wrap(output.toByteArray()));
-                } else {
-                    buffer = Charset.defaultCharset().newDecoder().decode(ByteBuffer.wrap(output.toByteArray()));
-                }
-            } finally {
-                output.close();
-            }
-        } finally {
-            input.close();
+        seek(0);
+        open = true;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public void close() {
+        synchronized (file) {
+            open = false;
+            super.close();
         }
     }
 
-    public long length() throws IOException {
-        return size;
+    @Override
+    protected ByteBuffer[] getSegments() throws IOException {
+        if (!super.isOpen()) {
+            synchronized (file) {
+                if (!open) {
+                    throw new JWNLRuntimeException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_001"));
+                }
+                if (!super.isOpen()) {
+                    setSegments(load());
+                }
+            }
+        }
+        return super.getSegments();
     }
 
-    private static void fastChannelCopy(final ReadableByteChannel src, final WritableByteChannel dest) throws IOException {
-        final ByteBuffer buffer = ByteBuffer.allocateDirect(16 * 1024);
-        while (src.read(buffer) != -1) {
-            // prepare the buffer to be drained
-            buffer.flip();
-            // write to the channel, may block
-            dest.write(buffer);
-            // If partial transfer, shift remainder down
-            // If buffer is empty, same as doing clear()
-            buffer.compact();
+    private ByteBuffer[] load() throws IOException {
+        String name = path + "/" + getFilename();
+        URL url = PrincetonResourceDictionaryFile.class.getResource(name);
+        if (null == url) {
+            throw new FileNotFoundException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_004", name));
         }
-        // EOF will leave buffer in fill state
-        buffer.flip();
-        // make sure the buffer is fully drained.
-        while (buffer.hasRemaining()) {
-            dest.write(buffer);
+        URLConnection connection = url.openConnection();
+        if (null != cacheDir) {
+            return map(extract(connection, new File(cacheDir, name)));
+        }
+
+        InputStream input = connection.getInputStream();
+        try {
+            // read straight into an array of the resource size, when it is known
+            int length = connection.getContentLength();
+            byte[] bytes = new byte[0 < length ? length : BUFFER_SIZE];
+            int count = 0;
+            while (true) {
+                if (count == bytes.length) {
+                    int b = input.read();
+                    if (-1 == b) {
+                        break;
+                    }
+                    bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+                    bytes[count++] = (byte) b;
+                }
+                int n = input.read(bytes, count, bytes.length - count);
+                if (-1 == n) {
+                    break;
+                }
+                count = count + n;
+            }
+
+            ByteBuffer[] result = new ByteBuffer[(int) ((count + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < result.length; i++) {
+                int start = i << SEGMENT_SHIFT;
+                result[i] = ByteBuffer.wrap(bytes, start, (int) Math.min(SEGMENT_SIZE, count - start)).slice();
+            }
+            return result;
+        } finally {
+            input.close();
         }
     }
 
-    private static void copyStream(InputStream input, OutputStream output) throws IOException {
-        WritableByteChannel outputChannel = Channels.newChannel(output);
+    /**
+     * Extracts the resource into <var>destination</var>, unless it is there already and is not older than the resource.
+     *
+     * @param connection  resource connection
+     * @param destination destination file
+     * @return destination file
+     * @throws IOException IOException
+     */
+    private File extract(URLConnection connection, File destination) throws IOException {
+        // connecting opens the stream, e.g. of a file or a jar entry, it is closed also when nothing is extracted
+        InputStream input = connection.getInputStream();
         try {
-            ReadableByteChannel inputChannel = Channels.newChannel(input);
+            int length = connection.getContentLength();
+            if (destination.isFile() && 0 <= length && length == destination.length()
+                    && connection.getLastModified() <= destination.lastModified()) {
+                return destination;
+            }
+
+            File directory = destination.getParentFile();
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_005", new Object[]{connection.getURL(), destination}));
+            }
+            // extract into a temporary file and rename it, concurrent runs might be extracting the same resource
+            File temp = File.createTempFile(destination.getName(), ".tmp", directory);
             try {
-                fastChannelCopy(inputChannel, outputChannel);
+                OutputStream output = new FileOutputStream(temp);
+                try {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int n;
+                    while (-1 != (n = input.read(buffer))) {
+                        output.write(buffer, 0, n);
+                    }
+                } finally {
+                    output.close();
+                }
+                if (!temp.renameTo(destination) && !(destination.delete() && temp.renameTo(destination))) {
+                    throw new IOException(dictionary.getMessages().resolveMessage("PRINCETON_EXCEPTION_005", new Object[]{connection.getURL(), destination}));
+                }
             } finally {
-                inputChannel.close();
+                if (temp.exists() && !temp.delete()) {
+                    temp.deleteOnExit();
+                }
             }
+            return destination;
         } finally {
-            outputChannel.close();
+            input.close();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package net.sf.extjwnl.util;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A cursor over space-separated tokens of a line. Unlike <code>TokenizerParser</code> numeric tokens are parsed
+ * in place and tokens can be skipped or matched against known values, so only the tokens actually needed as strings
+ * are allocated.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class LineParser {
+
+    private final String line;
+    private final int length;
+    private int position;
+
+    public LineParser(String line) {
+        this.line = line;
+        this.length = line.length();
+        this.position = 0;
+    }
+
+    /**
+     * Returns true if there are more tokens.
+     *
+     * @return true if there are more tokens
+     */
+    public boolean hasMoreTokens() {
+        skipDelimiters();
+        return position < length;
+    }
+
+    /**
+     * Returns the next token.
+     *
+     * @return the next token
+     */
+    public String nextToken() {
+        int start = tokenStart();
+        return line.substring(start, tokenEnd(start));
+    }
+
+    /**
+     * Skips the next token.
+     */
+    public void skipToken() {
+        tokenEnd(tokenStart());
+    }
+
+    /**
+     * Returns the index of the next token in <var>tokens</var>, or -1 if it is not there.
+     *
+     * @param tokens tokens to match
+     * @return the index of the next token in <var>tokens</var>, or -1 if it is not there
+     */
+    public int nextTokenIndex(String[] tokens) {
+        int start = tokenStart();
+        int end = tokenEnd(start);
+        int tokenLength = end - start;
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i].length() == tokenLength && line.regionMatches(start, tokens[i], 0, tokenLength)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Converts the next token into an int.
+     *
+     * @return next integer
+     */
+    public int nextInt() {
+        return (int) nextLong(10, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Converts the next token into a base 16 int.
+     *
+     * @return int of a base 16
+     */
+    public int nextHexInt() {
+        return (int) nextLong(16, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Converts the next token into a long.
+     *
+     * @return next long
+     */
+    public long nextLong() {
+        return nextLong(10, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns the position of the cursor in the line.
+     *
+     * @return the position of the cursor in the line
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    private long nextLong(int radix, long min, long max) {
+        int start = tokenStart();
+        int end = tokenEnd(start);
+        int i = start;
+        boolean negative = false;
+        if (i < end && '-' == line.charAt(i)) {
+            negative = true;
+            i++;
+        }
+        if (i == end) {
+            throw new NumberFormatException(line.substring(start, end));
+        }
+        long result = 0;
+        // accumulate negatively, as Long.parseLong does, to reach MIN_VALUE
+        long limit = negative ? min : -max;
+        long multiplyLimit = limit / radix;
+        for (; i < end; i++) {
+            int digit = Character.digit(line.charAt(i), radix);
+            if (digit < 0 || result < multiplyLimit) {
+                throw new NumberFormatException(line.substring(start, end));
+            }
+            result = result * radix;
+            if (result < limit + digit) {
+                throw new NumberFormatException(line.substring(start, end));
+            }
+            result = result - digit;
+        }
+        return negative ? result : -result;
+    }
+
+    private void skipDelimiters() {
+        while (position < length && ' ' == line.charAt(position)) {
+            position++;
+        }
+    }
+
+    private int tokenStart() {
+        skipDelimiters();
+        if (length <= position) {
+            throw new NoSuchElementException();
+        }
+        return position;
+    }
+
+    private int tokenEnd(int start) {
+        int end = start;
+        while (end < length && ' ' != line.charAt(end)) {
+            end++;
+        }
+        position = end;
+        return end;
+    }
+}
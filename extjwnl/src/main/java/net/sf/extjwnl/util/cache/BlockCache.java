@@ -0,0 +1,205 @@
+package net.sf.extjwnl.util.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed-size pool of file blocks, shared by several files. Blocks are keyed by file and block number and
+ * the least recently used blocks are evicted once the cache reaches capacity. Owners are expected
+ * to use identity equality, as dictionary files do.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class BlockCache {
+
+    private static final class BlockKey {
+        private final Object owner;
+        private final long generation;
+        private final long block;
+
+        private BlockKey(Object owner, long generation, long block) {
+            this.owner = owner;
+            this.generation = generation;
+            this.block = block;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BlockKey)) {
+                return false;
+            }
+            BlockKey that = (BlockKey) o;
+            return owner == that.owner && generation == that.generation && block == that.block;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(owner) + (int) (block ^ (block >>> 32));
+        }
+    }
+
+    private final int blockSize;
+    private final LRUCache<BlockKey, byte[]> blocks;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Invalidation counters of owners. Blocks are keyed by the counter value, therefore a block read before
+     * a concurrent invalidation is not found after it, even if it is put into the cache.
+     */
+    private final Map<Object, AtomicLong> generations = new WeakHashMap<Object, AtomicLong>();
+
+    /**
+     * @param blockSize block size in bytes
+     * @param size      cache size in bytes, rounded up to a whole block
+     */
+    public BlockCache(int blockSize, long size) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize");
+        }
+        this.blockSize = blockSize;
+        this.blocks = new LRUCache<BlockKey, byte[]>((int) Math.max(1, (size + blockSize - 1) / blockSize));
+    }
+
+    /**
+     * Reads bytes of the file <var>owner</var> starting at <var>position</var> into <var>dst</var>, like
+     * {@link FileChannel#read(ByteBuffer, long)}, using cached blocks where possible.
+     *
+     * @param owner    file which owns the blocks
+     * @param channel  channel to read missing blocks from
+     * @param dst      buffer to read into
+     * @param position file position to read at
+     * @return the number of bytes read, or -1 if <var>position</var> is at or past the end of file
+     * @throws IOException IOException
+     */
+    public int read(Object owner, FileChannel channel, ByteBuffer dst, long position) throws IOException {
+        AtomicLong generation = getGeneration(owner);
+        int result = 0;
+        while (dst.hasRemaining()) {
+            long blockNo = position / blockSize;
+            int offset = (int) (position - blockNo * blockSize);
+            byte[] block = getBlock(owner, generation, channel, blockNo);
+            if (block.length <= offset) {
+                break;
+            }
+            int count = Math.min(dst.remaining(), block.length - offset);
+            dst.put(block, offset, count);
+            result += count;
+            position += count;
+            if (block.length < blockSize) {
+                //the last block
+                break;
+            }
+        }
+        return 0 == result && dst.hasRemaining() ? -1 : result;
+    }
+
+    /**
+     * Removes all blocks of the file <var>owner</var>. Should be called when the file is closed or modified.
+     *
+     * @param owner file which owns the blocks
+     */
+    public void invalidate(Object owner) {
+        getGeneration(owner).incrementAndGet();
+        for (Iterator<BlockKey> i = blocks.keySet().iterator(); i.hasNext(); ) {
+            if (owner == i.next().owner) {
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all blocks.
+     */
+    public void clear() {
+        blocks.clear();
+    }
+
+    /**
+     * Returns the block size in bytes.
+     *
+     * @return the block size in bytes
+     */
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    /**
+     * Returns the maximum number of blocks the cache can hold.
+     *
+     * @return the maximum number of blocks the cache can hold
+     */
+    public long getCapacity() {
+        return blocks.getCapacity();
+    }
+
+    /**
+     * Returns the number of cached blocks.
+     *
+     * @return the number of cached blocks
+     */
+    public int size() {
+        return blocks.size();
+    }
+
+    /**
+     * Returns the number of block requests served from the cache.
+     *
+     * @return the number of block requests served from the cache
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of block requests which read the file.
+     *
+     * @return the number of block requests which read the file
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private AtomicLong getGeneration(Object owner) {
+        synchronized (generations) {
+            AtomicLong result = generations.get(owner);
+            if (null == result) {
+                result = new AtomicLong();
+                generations.put(owner, result);
+            }
+            return result;
+        }
+    }
+
+    private byte[] getBlock(Object owner, AtomicLong generation, FileChannel channel, long blockNo) throws IOException {
+        long current = generation.get();
+        BlockKey key = new BlockKey(owner, current, blockNo);
+        byte[] result = blocks.get(key);
+        if (null != result) {
+            hits.incrementAndGet();
+            return result;
+        }
+        misses.incrementAndGet();
+        // concurrent misses may read the same block twice, which is harmless
+        byte[] block = new byte[blockSize];
+        ByteBuffer buffer = ByteBuffer.wrap(block);
+        long position = blockNo * blockSize;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        result = buffer.position() == blockSize ? block : Arrays.copyOf(block, buffer.position());
+        if (current == generation.get()) {
+            blocks.put(key, result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,118 @@
+package net.sf.extjwnl.util.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter over strings. Tells whether a string might have been added or was certainly not added,
+ * with the false positive rate chosen at creation, provided no more strings are added than expected.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Creates a filter.
+     *
+     * @param expectedCount     the number of strings expected to be added
+     * @param falsePositiveRate the false positive rate, between 0 and 1
+     */
+    public BloomFilter(long expectedCount, double falsePositiveRate) {
+        long n = Math.max(1, expectedCount);
+        // m = -n ln(p) / ln(2)^2, k = m / n ln(2)
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE, Math.max(1, (m + 63) >>> 6));
+        bits = new AtomicLongArray(words);
+        bitCount = (long) words << 6;
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    private BloomFilter(int words, int hashCount) {
+        bits = new AtomicLongArray(words);
+        bitCount = (long) words << 6;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Adds <var>key</var> to the filter.
+     *
+     * @param key key
+     */
+    public void put(String key) {
+        long hash = hash(key);
+        long h1 = (int) hash;
+        long h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = indexOf(h1 + i * h2);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long value = bits.get(word);
+            while ((value & mask) == 0 && !bits.compareAndSet(word, value, value | mask)) {
+                value = bits.get(word);
+            }
+        }
+    }
+
+    /**
+     * Returns false if <var>key</var> was certainly not added to the filter.
+     *
+     * @param key key
+     * @return false if <var>key</var> was not added, true if it might have been
+     */
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        long h1 = (int) hash;
+        long h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = indexOf(h1 + i * h2);
+            if (0 == (bits.get((int) (index >>> 6)) & (1L << index))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(bits.length());
+        out.writeInt(hashCount);
+        for (int i = 0; i < bits.length(); i++) {
+            out.writeLong(bits.get(i));
+        }
+    }
+
+    public static BloomFilter readFrom(DataInput in) throws IOException {
+        int words = in.readInt();
+        int hashCount = in.readInt();
+        if (words < 1 || hashCount < 1) {
+            throw new IOException("Invalid Bloom filter");
+        }
+        BloomFilter result = new BloomFilter(words, hashCount);
+        for (int i = 0; i < words; i++) {
+            result.bits.set(i, in.readLong());
+        }
+        return result;
+    }
+
+    private long indexOf(long combinedHash) {
+        return (combinedHash & Long.MAX_VALUE) % bitCount;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the characters of <var>key</var>, with a final mix.
+     */
+    private static long hash(String key) {
+        long result = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            result = (result ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        result = (result ^ (result >>> 33)) * 0xff51afd7ed558ccdL;
+        result = (result ^ (result >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return result ^ (result >>> 33);
+    }
+}
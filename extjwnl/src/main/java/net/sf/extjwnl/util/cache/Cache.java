@@ -12,14 +12,14 @@ import java.util.Map;
 public interface Cache<K, V> extends Map<K, V> {
 
     /**
-     * Returns the maximum number of elements the cache can hold.
+     * Returns the maximum number of elements the cache can hold, or their total weight, if the cache has a weigher.
      *
      * @return the maximum number of elements the cache can hold
      */
     long getCapacity();
 
     /**
-     * Sets the maximum number of elements the cache can hold.
+     * Sets the maximum number of elements the cache can hold, or their total weight, if the cache has a weigher.
      *
      * @param capacity capacity
      */
@@ -1,6 +1,8 @@
 package net.sf.extjwnl.util.cache;
 
 import net.sf.extjwnl.data.POS;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.List;
@@ -13,6 +15,9 @@ import java.util.Map;
  * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
  */
 public abstract class CacheSet<K, A, B> {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheSet.class);
+
     public static final int DEFAULT_CACHE_CAPACITY = 1000;
 
     //K, V = Cache<A, B>
@@ -36,6 +41,21 @@ public abstract class CacheSet<K, A, B> {
 
     protected abstract POSCache<A, B> createCache(int size);
 
+    /**
+     * Creates a cache whose capacity limits the total weight of elements. Cache sets which do not support
+     * weighed caches fall back to a cache limited by the number of elements.
+     *
+     * @param size    capacity
+     * @param weigher weigher of elements
+     * @return cache
+     */
+    protected POSCache<A, B> createCache(int size, Weigher<? super B> weigher) {
+        if (log.isWarnEnabled()) {
+            log.warn(getClass().getName() + " does not support weighed caches, using cache of " + size + " elements");
+        }
+        return createCache(size);
+    }
+
     public void addCache(K key) {
         addCache(key, DEFAULT_CACHE_CAPACITY);
     }
@@ -44,6 +64,17 @@ public abstract class CacheSet<K, A, B> {
         caches.put(key, createCache(size));
     }
 
+    /**
+     * Adds or replaces the cache for <var>key</var> with a cache whose capacity limits the total weight of elements.
+     *
+     * @param key     cache key
+     * @param size    capacity
+     * @param weigher weigher of elements
+     */
+    public void addCache(K key, int size, Weigher<? super B> weigher) {
+        caches.put(key, createCache(size, weigher));
+    }
+
     public void cacheObject(K cacheKey, POS pos, A key, B value) {
         getCache(cacheKey).getCache(pos).put(key, value);
     }
@@ -0,0 +1,85 @@
+package net.sf.extjwnl.util.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of cache hits, misses, loads and evictions. Caches count hits, misses and evictions,
+ * loads are recorded by their users, who know what it takes to load an element.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class CacheStats {
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong loadCount = new AtomicLong();
+    private final AtomicLong totalLoadTime = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public void recordHit() {
+        hitCount.incrementAndGet();
+    }
+
+    public void recordMiss() {
+        missCount.incrementAndGet();
+    }
+
+    /**
+     * Records a load of an element.
+     *
+     * @param loadTime time spent loading the element, in nanoseconds
+     */
+    public void recordLoad(long loadTime) {
+        loadCount.incrementAndGet();
+        totalLoadTime.addAndGet(loadTime);
+    }
+
+    public void recordEviction() {
+        evictionCount.incrementAndGet();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long lookups = hits + missCount.get();
+        return 0 == lookups ? 1.0 : (double) hits / lookups;
+    }
+
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+
+    public long getTotalLoadTime() {
+        return totalLoadTime.get();
+    }
+
+    public double getAverageLoadTime() {
+        long loads = loadCount.get();
+        return 0 == loads ? 0.0 : (double) totalLoadTime.get() / loads;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public void reset() {
+        hitCount.set(0);
+        missCount.set(0);
+        loadCount.set(0);
+        totalLoadTime.set(0);
+        evictionCount.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "hits: " + getHitCount() + " misses: " + getMissCount() + " loads: " + getLoadCount()
+                + " load time: " + getTotalLoadTime() + "ns evictions: " + getEvictionCount();
+    }
+}
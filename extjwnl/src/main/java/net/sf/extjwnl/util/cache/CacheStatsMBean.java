@@ -0,0 +1,77 @@
+package net.sf.extjwnl.util.cache;
+
+/**
+ * Management interface of cache statistics.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public interface CacheStatsMBean {
+
+    /**
+     * Returns the number of lookups which found an element in the cache.
+     *
+     * @return the number of hits
+     */
+    long getHitCount();
+
+    /**
+     * Returns the number of lookups which did not find an element in the cache.
+     *
+     * @return the number of misses
+     */
+    long getMissCount();
+
+    /**
+     * Returns the ratio of hits to lookups, 1 if there were no lookups.
+     *
+     * @return hit rate
+     */
+    double getHitRate();
+
+    /**
+     * Returns the number of elements loaded into the cache.
+     *
+     * @return the number of loads
+     */
+    long getLoadCount();
+
+    /**
+     * Returns the time spent loading elements, in nanoseconds.
+     *
+     * @return total load time
+     */
+    long getTotalLoadTime();
+
+    /**
+     * Returns the average time spent loading an element, in nanoseconds.
+     *
+     * @return average load time
+     */
+    double getAverageLoadTime();
+
+    /**
+     * Returns the number of elements evicted from the cache to stay within its capacity.
+     *
+     * @return the number of evictions
+     */
+    long getEvictionCount();
+
+    /**
+     * Returns the number of elements in the cache.
+     *
+     * @return cache size
+     */
+    long getSize();
+
+    /**
+     * Returns the capacity of the cache.
+     *
+     * @return cache capacity
+     */
+    long getCapacity();
+
+    /**
+     * Resets the counters.
+     */
+    void reset();
+}
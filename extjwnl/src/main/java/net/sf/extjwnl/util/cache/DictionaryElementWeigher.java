@@ -0,0 +1,79 @@
+package net.sf.extjwnl.util.cache;
+
+import net.sf.extjwnl.data.*;
+
+/**
+ * Weighs dictionary elements by an estimate of the heap they take in bytes, on a 64-bit JVM with compressed
+ * references. The estimate counts the element, its words, pointers, senses and exceptions and their strings,
+ * even if strings are shared between elements. An element is weighed when it is cached,
+ * later changes to it do not change its weight.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class DictionaryElementWeigher implements Weigher<DictionaryElement> {
+
+    private static final int SYNSET = 56;
+    private static final int WORD = 48;
+    private static final int POINTER = 64;// with the target index
+    private static final int BIT_SET = 48;
+    private static final int INDEX_WORD = 40;
+    private static final int EXC = 32;
+    private static final int LIST = 24;
+    private static final int ARRAY = 16;
+    private static final int REFERENCE = 4;
+    private static final int STRING = 24;
+
+    public int weightOf(DictionaryElement element) {
+        long result;
+        if (element instanceof Synset) {
+            result = weightOf((Synset) element);
+        } else if (element instanceof IndexWord) {
+            result = weightOf((IndexWord) element);
+        } else if (element instanceof Exc) {
+            result = weightOf((Exc) element);
+        } else {
+            result = 1;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, result);
+    }
+
+    public long weightOf(Synset synset) {
+        long result = SYNSET + weightOf(synset.getGloss());
+        if (POS.VERB == synset.getPOS()) {
+            result = result + BIT_SET;
+        }
+        result = result + list(synset.getWords().size());
+        for (Word word : synset.getWords()) {
+            result = result + WORD + weightOf(word.getLemma());
+            if (word instanceof Verb) {
+                result = result + REFERENCE + BIT_SET;
+            }
+        }
+        int pointers = synset.getPointers().size();
+        return result + list(pointers) + (long) pointers * POINTER;
+    }
+
+    public long weightOf(IndexWord indexWord) {
+        return INDEX_WORD + weightOf(indexWord.getLemma()) + align(ARRAY + 8L * indexWord.getSynsetOffsets().length);
+    }
+
+    public long weightOf(Exc exc) {
+        long result = EXC + weightOf(exc.getLemma()) + list(exc.getExceptions().size());
+        for (String exception : exc.getExceptions()) {
+            result = result + weightOf(exception);
+        }
+        return result;
+    }
+
+    private static long weightOf(String string) {
+        return null == string ? 0 : STRING + align(ARRAY + 2L * string.length());
+    }
+
+    private static long list(int size) {
+        return LIST + align(ARRAY + (long) REFERENCE * size);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+}
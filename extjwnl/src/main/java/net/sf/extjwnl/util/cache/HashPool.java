@@ -1,21 +1,23 @@
 package net.sf.extjwnl.util.cache;
 
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Pools objects through a HashSet.
+ * Pools objects through a ConcurrentHashMap. Thread-safe.
  *
  * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
  */
 public class HashPool<T> implements Pool<T> {
 
-    private final HashMap<T, T> cache = new HashMap<T, T>();
+    private final ConcurrentHashMap<T, T> cache = new ConcurrentHashMap<T, T>();
 
     public T replace(T object) {
         T result = cache.get(object);
         if (null == result) {
-            result = object;
-            cache.put(object, object);
+            result = cache.putIfAbsent(object, object);
+            if (null == result) {
+                result = object;
+            }
         }
         return result;
     }
@@ -1,6 +1,7 @@
 package net.sf.extjwnl.util.cache;
 
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.googlecode.concurrentlinkedhashmap.EvictionListener;
 
 import java.util.Collection;
 import java.util.Map;
@@ -13,15 +14,37 @@ import java.util.Set;
  * @author John Didion (jdidion@didion.net)
  * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
  */
-public class LRUCache<K, V> implements Cache<K, V> {
+public class LRUCache<K, V> implements StatisticsCache<K, V> {
 
     private final ConcurrentLinkedHashMap<K, V> m;
+    private final CacheStats stats = new CacheStats();
 
     /**
      * @param capacity the maximum number of elements that can be contained in the cache.
      */
     public LRUCache(int capacity) {
-        m = new ConcurrentLinkedHashMap.Builder<K, V>().maximumWeightedCapacity(capacity).build();
+        this(capacity, null);
+    }
+
+    /**
+     * @param capacity the maximum total weight of elements that can be contained in the cache.
+     * @param weigher  weigher of elements, null to count elements
+     */
+    public LRUCache(int capacity, final Weigher<? super V> weigher) {
+        ConcurrentLinkedHashMap.Builder<K, V> builder = new ConcurrentLinkedHashMap.Builder<K, V>().maximumWeightedCapacity(capacity);
+        builder.listener(new EvictionListener<K, V>() {
+            public void onEviction(K key, V value) {
+                stats.recordEviction();
+            }
+        });
+        if (null != weigher) {
+            builder.weigher(new com.googlecode.concurrentlinkedhashmap.Weigher<V>() {
+                public int weightOf(V value) {
+                    return Math.max(1, weigher.weightOf(value));
+                }
+            });
+        }
+        m = builder.build();
     }
 
     public void setCapacity(long capacity) {
@@ -32,6 +55,10 @@ public class LRUCache<K, V> implements Cache<K, V> {
         return m.capacity();
     }
 
+    public CacheStats getStats() {
+        return stats;
+    }
+
     @Override
     public int size() {
         return m.size();
@@ -54,7 +81,13 @@ public class LRUCache<K, V> implements Cache<K, V> {
 
     @Override
     public V get(Object key) {
-        return m.get(key);
+        V result = m.get(key);
+        if (null == result) {
+            stats.recordMiss();
+        } else {
+            stats.recordHit();
+        }
+        return result;
     }
 
     @Override
@@ -25,4 +25,9 @@ public class LRUCacheSet<K, A, B> extends CacheSet<K, A, B> {
     protected POSCache<A, B> createCache(int size) {
         return new LRUPOSCache<A, B>(size);
     }
+
+    @Override
+    protected POSCache<A, B> createCache(int size, Weigher<? super B> weigher) {
+        return new LRUPOSCache<A, B>(size, weigher);
+    }
 }
\ No newline at end of file
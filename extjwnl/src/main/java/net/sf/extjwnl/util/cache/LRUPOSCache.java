@@ -15,9 +15,13 @@ public class LRUPOSCache<K, V> implements POSCache<K, V> {
     private final Map<POS, Cache<K, V>> caches;
 
     public LRUPOSCache(int capacity) {
+        this(capacity, null);
+    }
+
+    public LRUPOSCache(int capacity, Weigher<? super V> weigher) {
         caches = new EnumMap<POS, Cache<K, V>>(POS.class);
         for (POS pos : POS.getAllPOS()) {
-            caches.put(pos, new LRUCache<K, V>(capacity));
+            caches.put(pos, new LRUCache<K, V>(capacity, weigher));
         }
     }
 
@@ -0,0 +1,16 @@
+package net.sf.extjwnl.util.cache;
+
+/**
+ * A <code>Cache</code> which records statistics of its use.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public interface StatisticsCache<K, V> extends Cache<K, V> {
+
+    /**
+     * Returns the statistics of the cache.
+     *
+     * @return cache statistics
+     */
+    CacheStats getStats();
+}
\ No newline at end of file
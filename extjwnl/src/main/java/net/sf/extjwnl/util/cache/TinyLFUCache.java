@@ -0,0 +1,461 @@
+package net.sf.extjwnl.util.cache;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed-capacity <code>Cache</code> with W-TinyLFU policy. New elements enter a small LRU window.
+ * Elements leaving the window are admitted into the main cache only if they are used more frequently than
+ * the element the main cache would evict for them. The main cache is a segmented LRU: elements used again
+ * while on probation move to the protected segment. Frequencies are estimated by a sketch of 4-bit counters,
+ * which are halved periodically to forget old uses. Unlike LRU, a scan over many elements used once passes
+ * through the window and does not evict the frequently used ones.
+ * <p>
+ * With a {@link Weigher} the capacity limits the total weight of elements instead of their number.
+ * <p>
+ * Reads do not block: an access is recorded only if the policy is not being updated by another thread.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TinyLFUCache<K, V> extends AbstractMap<K, V> implements StatisticsCache<K, V> {
+
+    /**
+     * Capacity up to which frequencies are tracked. Larger caches, like those of fully loaded dictionaries,
+     * do not evict and are not worth the memory of the sketch.
+     */
+    private static final long MAX_SKETCH_CAPACITY = 1 << 20;
+
+    private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<K, Node<K, V>>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Queue<K, V> window = new Queue<K, V>();
+    private final Queue<K, V> probation = new Queue<K, V>();
+    private final Queue<K, V> protectedQueue = new Queue<K, V>();
+    private final Weigher<? super V> weigher;
+    private final CacheStats stats = new CacheStats();
+
+    private long capacity;
+    private long windowCapacity;
+    private long protectedCapacity;
+    private FrequencySketch sketch;
+
+    private Set<Entry<K, V>> entrySet;
+
+    /**
+     * @param capacity the maximum number of elements that can be contained in the cache.
+     */
+    public TinyLFUCache(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * @param capacity the maximum total weight of elements that can be contained in the cache.
+     * @param weigher  weigher of elements, null to count elements
+     */
+    public TinyLFUCache(int capacity, Weigher<? super V> weigher) {
+        this.weigher = weigher;
+        setCapacity(capacity);
+    }
+
+    public void setCapacity(long capacity) {
+        lock.lock();
+        try {
+            this.capacity = capacity;
+            // 1% window and 80% of the main cache protected
+            windowCapacity = Math.min(capacity, Math.max(1, capacity / 100));
+            protectedCapacity = (capacity - windowCapacity) * 4 / 5;
+            if (null == weigher) {
+                if (capacity <= MAX_SKETCH_CAPACITY) {
+                    if (null == sketch || sketch.capacity != capacity) {
+                        sketch = new FrequencySketch((int) capacity);
+                    }
+                } else {
+                    sketch = null;
+                }
+            } else {
+                // the number of elements is not known in advance, the sketch grows with it
+                if (capacity < Integer.MAX_VALUE) {
+                    if (null == sketch) {
+                        sketch = new FrequencySketch(sketchCapacity());
+                    }
+                } else {
+                    sketch = null;
+                }
+            }
+            while (protectedCapacity < protectedQueue.weight) {
+                demote();
+            }
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return data.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return data.containsKey(key);
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = data.get(key);
+        if (null == node) {
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        if (lock.tryLock()) {
+            try {
+                onAccess(node);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        if (null == key || null == value) {
+            throw new NullPointerException();
+        }
+        lock.lock();
+        try {
+            Node<K, V> node = data.get(key);
+            int weight = weightOf(value);
+            if (null != node) {
+                V result = node.value;
+                node.value = value;
+                node.queue.weight = node.queue.weight - node.weight + weight;
+                node.weight = weight;
+                onAccess(node);
+                evict();
+                return result;
+            }
+            node = new Node<K, V>(key, value, weight);
+            data.put(key, node);
+            window.add(node);
+            if (null != sketch) {
+                if (null != weigher && sketch.capacity < data.size() && sketch.capacity < MAX_SKETCH_CAPACITY) {
+                    sketch = new FrequencySketch(sketchCapacity());
+                }
+                sketch.increment(key);
+            }
+            evict();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        lock.lock();
+        try {
+            Node<K, V> node = data.remove(key);
+            if (null == node) {
+                return null;
+            }
+            node.queue.remove(node);
+            return node.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            data.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+            if (null != sketch) {
+                sketch = new FrequencySketch(null == weigher ? (int) capacity : sketchCapacity());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        Set<Entry<K, V>> result = entrySet;
+        if (null == result) {
+            entrySet = result = new EntrySet();
+        }
+        return result;
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (null == node.queue) {
+            // removed meanwhile
+            return;
+        }
+        if (null != sketch) {
+            sketch.increment(node.key);
+        }
+        if (probation == node.queue) {
+            probation.remove(node);
+            protectedQueue.add(node);
+            while (protectedCapacity < protectedQueue.weight) {
+                demote();
+            }
+        } else {
+            node.queue.moveToTail(node);
+        }
+    }
+
+    private void demote() {
+        Node<K, V> node = protectedQueue.head;
+        protectedQueue.remove(node);
+        probation.add(node);
+    }
+
+    /**
+     * Moves the elements over the window capacity to probation, where each of them competes by frequency
+     * with the least recently used element of the main cache, while the cache is over capacity.
+     * Without frequencies the least recently used element is evicted.
+     */
+    private void evict() {
+        while (windowCapacity < window.weight) {
+            Node<K, V> node = window.head;
+            window.remove(node);
+            probation.add(node);
+        }
+        while (capacity < window.weight + probation.weight + protectedQueue.weight) {
+            Node<K, V> victim;
+            if (null != probation.head) {
+                victim = probation.head;
+                Node<K, V> candidate = probation.tail;
+                if (null != sketch && candidate != victim && frequency(candidate) <= frequency(victim)) {
+                    victim = candidate;
+                }
+            } else if (null != protectedQueue.head) {
+                victim = protectedQueue.head;
+            } else {
+                victim = window.head;
+            }
+            victim.queue.remove(victim);
+            data.remove(victim.key);
+            stats.recordEviction();
+        }
+    }
+
+    private int weightOf(V value) {
+        return null == weigher ? 1 : Math.max(1, weigher.weightOf(value));
+    }
+
+    private int sketchCapacity() {
+        return (int) Math.min(MAX_SKETCH_CAPACITY, Math.min(capacity, Math.max(16, 2L * data.size())));
+    }
+
+    private int frequency(Node<K, V> node) {
+        return null == sketch ? 0 : sketch.frequency(node.key);
+    }
+
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            final Iterator<Node<K, V>> i = data.values().iterator();
+            return new Iterator<Entry<K, V>>() {
+                private K last;
+
+                public boolean hasNext() {
+                    return i.hasNext();
+                }
+
+                public Entry<K, V> next() {
+                    Node<K, V> node = i.next();
+                    last = node.key;
+                    return new SimpleImmutableEntry<K, V>(node.key, node.value);
+                }
+
+                public void remove() {
+                    if (null == last) {
+                        throw new IllegalStateException();
+                    }
+                    TinyLFUCache.this.remove(last);
+                    last = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return data.size();
+        }
+
+        @Override
+        public void clear() {
+            TinyLFUCache.this.clear();
+        }
+    }
+
+    private static final class Node<K, V> {
+        private final K key;
+        private volatile V value;
+        private int weight;
+        private Queue<K, V> queue;
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(K key, V value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Access ordered list of nodes, least recently used first.
+     */
+    private static final class Queue<K, V> {
+        private Node<K, V> head;
+        private Node<K, V> tail;
+        private long weight;
+
+        private void add(Node<K, V> node) {
+            node.queue = this;
+            node.prev = tail;
+            node.next = null;
+            if (null == tail) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            weight = weight + node.weight;
+        }
+
+        private void remove(Node<K, V> node) {
+            if (null == node.prev) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (null == node.next) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.queue = null;
+            node.prev = null;
+            node.next = null;
+            weight = weight - node.weight;
+        }
+
+        private void moveToTail(Node<K, V> node) {
+            if (tail != node) {
+                remove(node);
+                add(node);
+            }
+        }
+
+        private void clear() {
+            Node<K, V> node = head;
+            while (null != node) {
+                Node<K, V> next = node.next;
+                node.queue = null;
+                node.prev = null;
+                node.next = null;
+                node = next;
+            }
+            head = null;
+            tail = null;
+            weight = 0;
+        }
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters, 16 in a long. An element is counted in 4 counters within
+     * a group of 4 counters of 4 longs, and its frequency is the minimum of them. All counters are halved
+     * after 10 increments per element of capacity.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long capacity;
+        private final long[] table;
+        private final int tableMask;
+        private final int sampleSize;
+        private int additions;
+
+        private FrequencySketch(int capacity) {
+            this.capacity = capacity;
+            int length = 16;
+            while (length < capacity) {
+                length = length << 1;
+            }
+            table = new long[length];
+            tableMask = length - 1;
+            sampleSize = 10 * Math.max(1, capacity);
+        }
+
+        private int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int start = (hash & 3) << 2;
+            int result = 15;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int count = (int) ((table[index] >>> ((start + i) << 2)) & 15L);
+                result = Math.min(result, count);
+            }
+            return result;
+        }
+
+        private void increment(Object key) {
+            int hash = spread(key.hashCode());
+            int start = (hash & 3) << 2;
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int index = indexOf(hash, i);
+                int offset = (start + i) << 2;
+                long mask = 15L << offset;
+                if ((table[index] & mask) != mask) {
+                    table[index] = table[index] + (1L << offset);
+                    added = true;
+                }
+            }
+            if (added && sampleSize <= ++additions) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                additions = additions >>> 1;
+            }
+        }
+
+        private int indexOf(int hash, int i) {
+            long h = (hash + SEEDS[i]) * SEEDS[i];
+            h = h + (h >>> 32);
+            return ((int) h) & tableMask;
+        }
+
+        private static int spread(int x) {
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+    }
+}
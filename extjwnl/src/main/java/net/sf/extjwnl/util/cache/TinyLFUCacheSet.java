@@ -0,0 +1,32 @@
+package net.sf.extjwnl.util.cache;
+
+import java.util.List;
+
+/**
+ * W-TinyLFU cache set, which keeps frequently used elements during scans.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TinyLFUCacheSet<K, A, B> extends CacheSet<K, A, B> {
+
+    public TinyLFUCacheSet(List<K> keys) {
+        super(keys);
+    }
+
+    public TinyLFUCacheSet(List<K> keys, int size) {
+        super(keys, size);
+    }
+
+    public TinyLFUCacheSet(List<K> keys, List<Integer> sizes) {
+        super(keys, sizes);
+    }
+
+    protected POSCache<A, B> createCache(int size) {
+        return new TinyLFUPOSCache<A, B>(size);
+    }
+
+    @Override
+    protected POSCache<A, B> createCache(int size, Weigher<? super B> weigher) {
+        return new TinyLFUPOSCache<A, B>(size, weigher);
+    }
+}
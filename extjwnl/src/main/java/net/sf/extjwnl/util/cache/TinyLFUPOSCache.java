@@ -0,0 +1,32 @@
+package net.sf.extjwnl.util.cache;
+
+import net.sf.extjwnl.data.POS;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * A set of W-TinyLFU Caches split by POS.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TinyLFUPOSCache<K, V> implements POSCache<K, V> {
+
+    private final Map<POS, Cache<K, V>> caches;
+
+    public TinyLFUPOSCache(int capacity) {
+        this(capacity, null);
+    }
+
+    public TinyLFUPOSCache(int capacity, Weigher<? super V> weigher) {
+        caches = new EnumMap<POS, Cache<K, V>>(POS.class);
+        for (POS pos : POS.getAllPOS()) {
+            caches.put(pos, new TinyLFUCache<K, V>(capacity, weigher));
+        }
+    }
+
+    @Override
+    public Cache<K, V> getCache(POS pos) {
+        return caches.get(pos);
+    }
+}
\ No newline at end of file
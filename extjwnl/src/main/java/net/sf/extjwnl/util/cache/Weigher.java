@@ -0,0 +1,18 @@
+package net.sf.extjwnl.util.cache;
+
+/**
+ * Weighs values of a <code>Cache</code>. The capacity of a cache with a weigher limits the total weight
+ * of its values instead of their number.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public interface Weigher<V> {
+
+    /**
+     * Returns the weight of <var>value</var>, at least 1.
+     *
+     * @param value value to weigh
+     * @return the weight of <var>value</var>
+     */
+    int weightOf(V value);
+}
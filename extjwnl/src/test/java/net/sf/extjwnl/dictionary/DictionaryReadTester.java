@@ -9,9 +9,14 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * DictionaryReadTester is a test suite for dictionary methods
@@ -359,6 +364,86 @@ public class DictionaryReadTester {
         Assert.assertTrue(v.getVerbFrameFlags().get(11));
     }
 
+    @Test
+    public void testWordsBySenseKeys() throws JWNLException {
+        List<String> senseKeys = new ArrayList<String>();
+        for (IndexWord iw : new IndexWord[]{dictionary.getIndexWord(POS.NOUN, "dog"), dictionary.getIndexWord(POS.ADJECTIVE, "big")}) {
+            Assert.assertNotNull(iw);
+            for (Synset synset : iw.getSenses()) {
+                for (Word word : synset.getWords()) {
+                    senseKeys.add(word.getSenseKey());
+                }
+            }
+        }
+        senseKeys.add("??????????????%1:05:00::");
+        Map<String, Word> words = dictionary.getWordsBySenseKeys(senseKeys);
+        Assert.assertEquals(new HashSet<String>(senseKeys).size() - 1, words.size());
+        for (Map.Entry<String, Word> entry : words.entrySet()) {
+            Assert.assertEquals(entry.getKey(), entry.getValue().getSenseKey());
+        }
+        Assert.assertNull(dictionary.getWordBySenseKey("??????????????%1:05:00::"));
+    }
+
+    @Test
+    public void testIndexWordSubstringIterator() throws JWNLException {
+        for (String substring : new String[]{"tc", "ing", "ress"}) {
+            List<String> expected = new ArrayList<String>();
+            Iterator<IndexWord> all = dictionary.getIndexWordIterator(POS.VERB);
+            while (all.hasNext()) {
+                String lemma = all.next().getLemma();
+                if (lemma.contains(substring)) {
+                    expected.add(lemma);
+                }
+            }
+            Assert.assertTrue(0 < expected.size());
+
+            List<String> actual = new ArrayList<String>();
+            Iterator<IndexWord> it = dictionary.getIndexWordIterator(POS.VERB, substring);
+            while (it.hasNext()) {
+                actual.add(it.next().getLemma());
+            }
+            Assert.assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testIndexWordPrefixIterator() throws JWNLException {
+        for (String prefix : new String[]{iteratorLemma, "un", "zoom", iteratorSpacedLemma, "??????????????"}) {
+            List<String> expected = new ArrayList<String>();
+            Iterator<IndexWord> all = dictionary.getIndexWordIterator(POS.VERB);
+            while (all.hasNext()) {
+                String lemma = all.next().getLemma();
+                if (lemma.startsWith(prefix)) {
+                    expected.add(lemma);
+                }
+            }
+
+            List<String> actual = new ArrayList<String>();
+            Iterator<IndexWord> it = dictionary.getIndexWordIterator(POS.VERB, prefix, true);
+            while (it.hasNext()) {
+                actual.add(it.next().getLemma());
+            }
+            // the order of spaced lemmas depends on the backend
+            Collections.sort(expected);
+            Collections.sort(actual);
+            Assert.assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testLookupFuzzy() throws JWNLException {
+        List<IndexWord> words = dictionary.lookupFuzzy(POS.VERB, "stopp", 1, 5);
+        Assert.assertTrue(0 < words.size() && words.size() <= 5);
+        Assert.assertEquals(iteratorLemma, words.get(0).getLemma());
+        Assert.assertEquals(POS.VERB, words.get(0).getPOS());
+
+        words = dictionary.lookupFuzzy(POS.NOUN, "Dog", 0, 5);
+        Assert.assertEquals(1, words.size());
+        Assert.assertEquals("dog", words.get(0).getLemma());
+
+        Assert.assertEquals(0, dictionary.lookupFuzzy(POS.NOUN, "??????????????", 2, 5).size());
+    }
+
     @Test
     public void testNonExistentIndexWordIterator() throws JWNLException {
         Iterator<IndexWord> it = dictionary.getIndexWordIterator(POS.VERB, "??????????????");
@@ -500,6 +585,24 @@ public class DictionaryReadTester {
         Assert.assertEquals(DictionaryElementType.SYNSET, s.getType());
     }
 
+    @Test
+    public void testSynsetIteratorOffsets() throws JWNLException {
+        //second pass goes through the cache, which is keyed by offset
+        for (int pass = 0; pass < 2; pass++) {
+            Set<Long> offsets = new HashSet<Long>();
+            int count = 0;
+            Iterator<Synset> i = dictionary.getSynsetIterator(POS.ADVERB);
+            while (i.hasNext()) {
+                Synset s = i.next();
+                Assert.assertEquals(s.getOffset(), dictionary.getSynsetAt(POS.ADVERB, s.getOffset()).getOffset());
+                offsets.add(s.getOffset());
+                count++;
+            }
+            Assert.assertTrue(0 < count);
+            Assert.assertEquals(count, offsets.size());
+        }
+    }
+
     protected void runAllTests() throws JWNLException, CloneNotSupportedException {
         testTank();
         testBrightAdj();
@@ -0,0 +1,105 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.*;
+import org.junit.Assert;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Helpers shared by dictionary tests, which populate dictionaries and read their files.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public final class DictionaryTestUtils {
+
+    private DictionaryTestUtils() {
+    }
+
+    /**
+     * Creates <var>count</var> synsets for each part of speech, each a hypernym of the next one,
+     * with one to three words, and an exception for each part of speech.
+     *
+     * @param dictionary dictionary being edited
+     * @param count      number of synsets per part of speech
+     * @throws JWNLException JWNLException
+     */
+    public static void populate(Dictionary dictionary, int count) throws JWNLException {
+        for (POS pos : POS.getAllPOS()) {
+            Synset previous = null;
+            for (int i = 0; i < count; i++) {
+                Synset synset = dictionary.createSynset(pos);
+                synset.setGloss("gloss of " + pos.getLabel() + " synset " + i);
+                for (int j = 0; j <= i % 3; j++) {
+                    Word word = new Word(dictionary, synset, j + 1, pos.getLabel() + " word " + (i + j));
+                    word.setUseCount(i % 5);
+                    synset.getWords().add(word);
+                }
+                if (null != previous) {
+                    synset.getPointers().add(new Pointer(PointerType.HYPERNYM, synset, previous));
+                }
+                previous = synset;
+            }
+            dictionary.createException(pos, pos.getLabel() + " exception", Arrays.asList(pos.getLabel() + " word 1"));
+        }
+    }
+
+    /**
+     * Reads the files of <var>directory</var>.
+     *
+     * @param directory directory
+     * @return file contents by file name
+     * @throws IOException IOException
+     */
+    public static Map<String, byte[]> readFiles(File directory) throws IOException {
+        Map<String, byte[]> result = new TreeMap<String, byte[]>();
+        File[] files = directory.listFiles();
+        Assert.assertNotNull(files);
+        for (File file : files) {
+            if (file.isFile()) {
+                result.put(file.getName(), readFile(file));
+            }
+        }
+        return result;
+    }
+
+    public static byte[] readFile(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while (-1 != (n = in.read(buffer))) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads a UTF-8 classpath resource, such as dictionary properties to be modified by a test.
+     *
+     * @param name resource name
+     * @return resource content
+     * @throws IOException IOException
+     */
+    public static String readResource(String name) throws IOException {
+        Reader in = new InputStreamReader(DictionaryTestUtils.class.getResourceAsStream(name), "UTF-8");
+        try {
+            StringBuilder result = new StringBuilder();
+            char[] buffer = new char[4096];
+            int n;
+            while (-1 != (n = in.read(buffer))) {
+                result.append(buffer, 0, n);
+            }
+            return result.toString();
+        } finally {
+            in.close();
+        }
+    }
+}
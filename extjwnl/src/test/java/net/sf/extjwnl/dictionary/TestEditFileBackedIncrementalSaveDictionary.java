@@ -0,0 +1,16 @@
+package net.sf.extjwnl.dictionary;
+
+import java.io.InputStream;
+
+/**
+ * Tests FileBackedDictionary editing with incremental save.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestEditFileBackedIncrementalSaveDictionary extends DictionaryEditTester {
+
+    @Override
+    protected InputStream getProperties() {
+        return TestEditFileBackedIncrementalSaveDictionary.class.getResourceAsStream("/test_clean_file_incremental_save.xml");
+    }
+}
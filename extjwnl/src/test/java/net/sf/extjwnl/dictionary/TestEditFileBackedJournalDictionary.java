@@ -0,0 +1,177 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Tests FileBackedDictionary editing with edit journal.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestEditFileBackedJournalDictionary extends DictionaryEditTester {
+
+    @Override
+    protected InputStream getProperties() {
+        return TestEditFileBackedJournalDictionary.class.getResourceAsStream("/test_clean_file_journal.xml");
+    }
+
+    @Test
+    public void testJournalReplay() throws JWNLException {
+        FileBackedDictionary d = (FileBackedDictionary) Dictionary.getInstance(getProperties());
+        d.edit();
+        Synset run = d.createSynset(POS.VERB);
+        run.setGloss("move fast");
+        BitSet frames = new BitSet();
+        frames.set(2);
+        run.getWords().add(new Verb(d, run, 1, "run", frames));
+        Synset move = d.createSynset(POS.VERB);
+        move.getWords().add(new Verb(d, move, 1, "move", new BitSet()));
+        run.getPointers().add(new Pointer(PointerType.HYPERNYM, run, move));
+        d.createException(POS.VERB, "ran", Arrays.asList("run"));
+        d.sync();
+
+        // replayed on start, while the first dictionary is not closed, as if it crashed
+        FileBackedDictionary r = (FileBackedDictionary) Dictionary.getInstance(getProperties());
+        try {
+            Assert.assertTrue(r.isEditable());
+            IndexWord iw = r.getIndexWord(POS.VERB, "run");
+            Assert.assertNotNull(iw);
+            Assert.assertEquals(1, iw.getSenses().size());
+            Synset synset = iw.getSenses().get(0);
+            Assert.assertTrue(synset.isDirty());
+            Assert.assertEquals("move fast", synset.getGloss());
+            Assert.assertEquals(-1, synset.getWords().get(0).getLexId());
+            Assert.assertTrue(((Verb) synset.getWords().get(0)).getVerbFrameFlags().get(2));
+            Assert.assertEquals(1, synset.getPointers().size());
+            Synset target = synset.getPointers().get(0).getTargetSynset();
+            Assert.assertEquals("move", target.getWords().get(0).getLemma());
+            Assert.assertEquals(1, target.getPointers().size());
+            Assert.assertEquals(PointerType.HYPONYM, target.getPointers().get(0).getType());
+            Assert.assertEquals(Arrays.asList("run"), r.getException(POS.VERB, "ran").getExceptions());
+            Assert.assertTrue(Math.max(synset.getOffset(), target.getOffset()) < r.createSynset(POS.VERB).getOffset());
+
+            r.save();
+        } finally {
+            r.close();
+            d.close();
+        }
+
+        // saved, journal is empty
+        r = (FileBackedDictionary) Dictionary.getInstance(getProperties());
+        try {
+            Assert.assertFalse(r.isEditable());
+            IndexWord iw = r.getIndexWord(POS.VERB, "run");
+            Assert.assertNotNull(iw);
+            Assert.assertEquals("move fast", iw.getSenses().get(0).getGloss());
+        } finally {
+            r.close();
+        }
+    }
+
+    @Test
+    public void testJournalDiscarded() throws JWNLException {
+        FileBackedDictionary d = (FileBackedDictionary) Dictionary.getInstance(getProperties());
+        try {
+            d.edit();
+            Synset synset = d.createSynset(POS.NOUN);
+            synset.setGloss("saved gloss");
+            synset.getWords().add(new Word(d, synset, 1, "entity"));
+            d.save();
+
+            synset.setGloss("synced gloss");
+            d.sync();
+        } finally {
+            d.close();
+        }
+
+        // data file changed after the journal was written, with the same length
+        File data = new File(System.getProperty("extjwnl.testDataFolder"), "clean-file-journal/data.noun");
+        Assert.assertTrue(data.setLastModified(data.lastModified() - 10000));
+
+        d = (FileBackedDictionary) Dictionary.getInstance(getProperties());
+        try {
+            Assert.assertEquals("saved gloss", d.getIndexWord(POS.NOUN, "entity").getSenses().get(0).getGloss());
+        } finally {
+            d.close();
+        }
+    }
+
+    @Test
+    public void testJournalTornHeader() throws JWNLException, IOException {
+        FileBackedDictionary d = (FileBackedDictionary) Dictionary.getInstance(getProperties());
+        try {
+            d.edit();
+            Synset synset = d.createSynset(POS.NOUN);
+            synset.getWords().add(new Word(d, synset, 1, "entity"));
+            d.sync();
+        } finally {
+            d.close();
+        }
+
+        // crashed while writing the header
+        File journal = new File(System.getProperty("extjwnl.testDataFolder"), "clean-file-journal/journal");
+        RandomAccessFile file = new RandomAccessFile(journal, "rw");
+        try {
+            file.setLength(6);
+        } finally {
+            file.close();
+        }
+
+        d = (FileBackedDictionary) Dictionary.getInstance(getProperties());
+        try {
+            d.edit();
+            Assert.assertNull(d.getIndexWord(POS.NOUN, "entity"));
+            Assert.assertEquals(0, journal.length());
+            Synset synset = d.createSynset(POS.NOUN);
+            synset.getWords().add(new Word(d, synset, 1, "entity"));
+            d.sync();
+        } finally {
+            d.close();
+        }
+
+        // the header is written again
+        d = (FileBackedDictionary) Dictionary.getInstance(getProperties());
+        try {
+            Assert.assertNotNull(d.getIndexWord(POS.NOUN, "entity"));
+            d.save();
+        } finally {
+            d.close();
+        }
+    }
+
+    @Test
+    public void testJournalRemove() throws JWNLException {
+        FileBackedDictionary d = (FileBackedDictionary) Dictionary.getInstance(getProperties());
+        try {
+            d.edit();
+            Synset synset = d.createSynset(POS.NOUN);
+            synset.getWords().add(new Word(d, synset, 1, "entity"));
+            d.createException(POS.NOUN, "entities", Arrays.asList("entity"));
+            d.save();
+
+            d.removeSynset(synset);
+            d.removeException(d.getException(POS.NOUN, "entities"));
+        } finally {
+            d.close();
+        }
+
+        d = (FileBackedDictionary) Dictionary.getInstance(getProperties());
+        try {
+            Assert.assertTrue(d.isEditable());
+            Assert.assertNull(d.getIndexWord(POS.NOUN, "entity"));
+            Assert.assertNull(d.getException(POS.NOUN, "entities"));
+            Assert.assertFalse(d.getSynsetIterator(POS.NOUN).hasNext());
+        } finally {
+            d.close();
+        }
+    }
+}
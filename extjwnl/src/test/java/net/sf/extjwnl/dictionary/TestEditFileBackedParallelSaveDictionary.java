@@ -0,0 +1,16 @@
+package net.sf.extjwnl.dictionary;
+
+import java.io.InputStream;
+
+/**
+ * Tests FileBackedDictionary editing with parallel save.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestEditFileBackedParallelSaveDictionary extends DictionaryEditTester {
+
+    @Override
+    protected InputStream getProperties() {
+        return TestEditFileBackedParallelSaveDictionary.class.getResourceAsStream("/test_clean_file_parallel_save.xml");
+    }
+}
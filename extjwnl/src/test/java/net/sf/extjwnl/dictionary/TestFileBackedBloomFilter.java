@@ -0,0 +1,75 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.DictionaryElementType;
+import net.sf.extjwnl.data.POS;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Arrays;
+
+/**
+ * Tests Bloom filters over index words and exceptions, built on the first start and loaded on the second.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestFileBackedBloomFilter {
+
+    @Test
+    public void testBloomFilter() throws JWNLException {
+        for (int i = 0; i < 2; i++) {
+            FileBackedDictionary dictionary = (FileBackedDictionary) Dictionary.getInstance(
+                    TestFileBackedBloomFilter.class.getResourceAsStream("/test_file_bloom_filter_properties.xml"));
+            try {
+                Assert.assertNotNull(dictionary.getBloomFilters());
+                Assert.assertTrue(dictionary.mightContain(DictionaryElementType.INDEX_WORD, POS.NOUN, "tank"));
+                Assert.assertTrue(dictionary.mightContain(DictionaryElementType.INDEX_WORD, POS.NOUN, "hot dog"));
+                Assert.assertTrue(dictionary.mightContain(DictionaryElementType.INDEX_WORD, POS.NOUN, "hot_dog"));
+                Assert.assertTrue(dictionary.mightContain(DictionaryElementType.EXCEPTION, POS.NOUN, "geese"));
+                Assert.assertFalse(dictionary.mightContain(DictionaryElementType.INDEX_WORD, POS.NOUN, "qwertyuiop"));
+                Assert.assertFalse(dictionary.mightContain(DictionaryElementType.EXCEPTION, POS.NOUN, "qwertyuiops"));
+
+                Assert.assertNotNull(dictionary.getIndexWord(POS.NOUN, "hot dog"));
+                Assert.assertNotNull(dictionary.getException(POS.NOUN, "geese"));
+                Assert.assertNull(dictionary.getIndexWord(POS.NOUN, "qwertyuiop"));
+                // rejected by the filter before reaching the negative cache
+                Assert.assertFalse(dictionary.isMissCached(DictionaryElementType.INDEX_WORD, POS.NOUN, "qwertyuiop"));
+            } finally {
+                dictionary.close();
+            }
+        }
+    }
+
+    @Test
+    public void testRebuiltForModifiedFile() throws JWNLException, IOException {
+        File data = new File(System.getProperty("extjwnl.testDataFolder"));
+        File filterFile = new File(data, "bloom_filters");
+        File index = new File(data, "net/sf/extjwnl/data/wordnet/wn31/index.noun");
+        Dictionary.getInstance(TestFileBackedBloomFilter.class.getResourceAsStream("/test_file_bloom_filter_properties.xml")).close();
+        byte[] written = DictionaryTestUtils.readFile(filterFile);
+
+        // same length, different modification time
+        long lastModified = index.lastModified();
+        Assert.assertTrue(index.setLastModified(lastModified - 10000));
+        try {
+            FileBackedDictionary dictionary = (FileBackedDictionary) Dictionary.getInstance(
+                    TestFileBackedBloomFilter.class.getResourceAsStream("/test_file_bloom_filter_properties.xml"));
+            try {
+                Assert.assertTrue(dictionary.mightContain(DictionaryElementType.INDEX_WORD, POS.NOUN, "tank"));
+            } finally {
+                dictionary.close();
+            }
+            Assert.assertFalse(Arrays.equals(written, DictionaryTestUtils.readFile(filterFile)));
+        } finally {
+            Assert.assertTrue(index.setLastModified(lastModified));
+        }
+
+        // written through a temporary file, which is gone
+        String[] names = data.list();
+        Assert.assertNotNull(names);
+        for (String name : names) {
+            Assert.assertFalse(name, name.startsWith("bloom_filters") && name.endsWith(".tmp"));
+        }
+    }
+}
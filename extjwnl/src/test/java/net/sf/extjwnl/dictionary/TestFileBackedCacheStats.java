@@ -0,0 +1,76 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.DictionaryElementType;
+import net.sf.extjwnl.data.IndexWord;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.util.cache.CacheStats;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+/**
+ * Tests cache statistics and their MBeans.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestFileBackedCacheStats {
+
+    @Test
+    public void testCacheStats() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName query = new ObjectName("net.sf.extjwnl.test:type=CacheStats,element=IndexWord,pos=noun,*");
+        Assert.assertTrue(server.queryNames(query, null).isEmpty());
+
+        FileBackedDictionary dictionary = (FileBackedDictionary) Dictionary.getInstance(
+                TestFileBackedCacheStats.class.getResourceAsStream("/test_file_cache_stats_properties.xml"));
+        try {
+            IndexWord word = dictionary.getIndexWord(POS.NOUN, "tank");
+            Assert.assertNotNull(word);
+            Assert.assertSame(word, dictionary.getIndexWord(POS.NOUN, "tank"));
+
+            CacheStats stats = dictionary.getCacheStats(DictionaryElementType.INDEX_WORD, POS.NOUN);
+            Assert.assertSame(stats, dictionary.getCacheStats().get(DictionaryElementType.INDEX_WORD).get(POS.NOUN));
+            Assert.assertEquals(1, stats.getHitCount());
+            Assert.assertEquals(1, stats.getMissCount());
+            Assert.assertEquals(1, stats.getLoadCount());
+            Assert.assertTrue(0 < stats.getTotalLoadTime());
+            Assert.assertEquals(0.5, stats.getHitRate(), 0.0);
+
+            Set<ObjectName> names = server.queryNames(query, null);
+            Assert.assertEquals(1, names.size());
+            ObjectName name = names.iterator().next();
+            Assert.assertEquals(1L, server.getAttribute(name, "HitCount"));
+            Assert.assertEquals(1L, server.getAttribute(name, "LoadCount"));
+            Assert.assertEquals(1L, server.getAttribute(name, "Size"));
+
+            server.invoke(name, "reset", null, null);
+            Assert.assertEquals(0, stats.getHitCount());
+        } finally {
+            dictionary.close();
+        }
+        Assert.assertTrue(server.queryNames(query, null).isEmpty());
+    }
+
+    @Test
+    public void testConstructorFails() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName query = new ObjectName("net.sf.extjwnl.test:type=CacheStats,*");
+
+        // fails in FileBackedDictionary constructor, after AbstractCachingDictionary constructor
+        String properties = DictionaryTestUtils.readResource("/test_file_cache_stats_properties.xml")
+                .replace("name=\"cache_size\" value=\"100\"", "name=\"cache_size\" value=\"none\"");
+        try {
+            Dictionary.getInstance(new ByteArrayInputStream(properties.getBytes("UTF-8")));
+            Assert.fail();
+        } catch (JWNLException e) {
+            // expected
+        }
+        Assert.assertTrue(server.queryNames(query, null).isEmpty());
+    }
+}
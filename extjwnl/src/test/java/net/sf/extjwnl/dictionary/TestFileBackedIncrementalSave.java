@@ -0,0 +1,137 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Tests that incremental save writes the same files as full save.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestFileBackedIncrementalSave {
+
+    private static final int SYNSET_COUNT = 50;
+
+    @Test
+    public void testSameFiles() throws JWNLException, IOException {
+        List<Map<String, byte[]>> full = save("/test_clean_file.xml", "clean-file");
+        List<Map<String, byte[]>> incremental = save("/test_clean_file_incremental_save.xml", "clean-file-incremental-save");
+        Assert.assertEquals(full.size(), incremental.size());
+        for (int i = 0; i < full.size(); i++) {
+            Assert.assertTrue(full.get(i).containsKey("data.noun"));
+            Assert.assertEquals(full.get(i).keySet(), incremental.get(i).keySet());
+            for (String name : full.get(i).keySet()) {
+                Assert.assertTrue(i + " " + name, Arrays.equals(full.get(i).get(name), incremental.get(i).get(name)));
+            }
+            if (0 < i) {
+                // the gloss or the pointer has changed
+                Assert.assertFalse(Arrays.equals(full.get(i - 1).get("data.noun"), full.get(i).get("data.noun")));
+            }
+        }
+    }
+
+    @Test
+    public void testPointerTarget() throws JWNLException, IOException {
+        String properties = "/test_clean_file_incremental_save.xml";
+        Dictionary dictionary = Dictionary.getInstance(TestFileBackedIncrementalSave.class.getResourceAsStream(properties));
+        dictionary.close();
+        dictionary.delete();
+
+        dictionary = Dictionary.getInstance(TestFileBackedIncrementalSave.class.getResourceAsStream(properties));
+        try {
+            dictionary.edit();
+            DictionaryTestUtils.populate(dictionary, SYNSET_COUNT);
+            dictionary.save();
+            dictionary.close();
+
+            dictionary = Dictionary.getInstance(TestFileBackedIncrementalSave.class.getResourceAsStream(properties));
+            dictionary.edit();
+            Synset target = getSynset(dictionary, 0);
+            getSynset(dictionary, SYNSET_COUNT / 2).getPointers(PointerType.HYPERNYM).get(0).setTarget(target);
+            long targetOffset = target.getOffset();
+            dictionary.save();
+            dictionary.close();
+
+            dictionary = Dictionary.getInstance(TestFileBackedIncrementalSave.class.getResourceAsStream(properties));
+            Pointer pointer = getSynset(dictionary, SYNSET_COUNT / 2).getPointers(PointerType.HYPERNYM).get(0);
+            Assert.assertEquals(targetOffset, pointer.getTargetOffset());
+            Assert.assertEquals(targetOffset, pointer.getTargetSynset().getOffset());
+        } finally {
+            dictionary.close();
+            dictionary.delete();
+        }
+    }
+
+    /**
+     * Saves the same content into an empty dictionary, then changes a gloss keeping its length,
+     * then changes it to a longer one, then changes a pointer target, and returns the files after each save.
+     */
+    private static List<Map<String, byte[]>> save(String properties, String path) throws JWNLException, IOException {
+        File directory = new File(System.getProperty("extjwnl.testDataFolder"), path);
+        List<Map<String, byte[]>> result = new ArrayList<Map<String, byte[]>>();
+        Dictionary dictionary = Dictionary.getInstance(TestFileBackedIncrementalSave.class.getResourceAsStream(properties));
+        dictionary.close();
+        dictionary.delete();
+
+        dictionary = Dictionary.getInstance(TestFileBackedIncrementalSave.class.getResourceAsStream(properties));
+        try {
+            dictionary.edit();
+            DictionaryTestUtils.populate(dictionary, SYNSET_COUNT);
+            dictionary.save();
+            dictionary.close();
+            result.add(DictionaryTestUtils.readFiles(directory));
+
+            // same length
+            dictionary = Dictionary.getInstance(TestFileBackedIncrementalSave.class.getResourceAsStream(properties));
+            dictionary.edit();
+            Synset synset = getSynset(dictionary, SYNSET_COUNT / 2);
+            synset.setGloss(synset.getGloss().toUpperCase());
+            dictionary.save();
+            dictionary.close();
+            result.add(DictionaryTestUtils.readFiles(directory));
+
+            // different length, the following synsets move
+            dictionary = Dictionary.getInstance(TestFileBackedIncrementalSave.class.getResourceAsStream(properties));
+            dictionary.edit();
+            synset = getSynset(dictionary, SYNSET_COUNT / 2);
+            synset.setGloss(synset.getGloss() + " and a longer one");
+            dictionary.save();
+            dictionary.close();
+            result.add(DictionaryTestUtils.readFiles(directory));
+
+            // pointer target
+            dictionary = Dictionary.getInstance(TestFileBackedIncrementalSave.class.getResourceAsStream(properties));
+            dictionary.edit();
+            Synset target = getSynset(dictionary, 0);
+            getSynset(dictionary, SYNSET_COUNT / 2).getPointers(PointerType.HYPERNYM).get(0).setTarget(target);
+            dictionary.save();
+            dictionary.close();
+            result.add(DictionaryTestUtils.readFiles(directory));
+            return result;
+        } finally {
+            dictionary.close();
+            dictionary.delete();
+        }
+    }
+
+    /**
+     * Returns the noun synset created <var>index</var>-th by {@link #populate(Dictionary)}.
+     */
+    private static Synset getSynset(Dictionary dictionary, int index) throws JWNLException {
+        String gloss = "gloss of noun synset " + index;
+        Iterator<Synset> i = dictionary.getSynsetIterator(POS.NOUN);
+        while (i.hasNext()) {
+            Synset synset = i.next();
+            if (synset.getGloss().toLowerCase().equals(gloss) || synset.getGloss().toLowerCase().startsWith(gloss + " ")) {
+                return synset;
+            }
+        }
+        Assert.fail(gloss);
+        return null;
+    }
+}
@@ -0,0 +1,58 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.dictionary.file.DictionaryFileType;
+import net.sf.extjwnl.dictionary.file_manager.FileManagerImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Tests splitting of dictionary files into chunks for parallel loading.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestFileBackedLoadChunks {
+
+    @Test
+    public void testChunksAreLineAligned() throws JWNLException, IOException {
+        FileBackedDictionary dictionary = (FileBackedDictionary) Dictionary.getInstance(
+                TestFileBackedLoadChunks.class.getResourceAsStream("/test_file_parallel_load_properties.xml"));
+        try {
+            FileManagerImpl fileManager = (FileManagerImpl) dictionary.getFileManager();
+            int maxChunks = 0;
+            for (POS pos : POS.getAllPOS()) {
+                for (DictionaryFileType fileType : DictionaryFileType.getAllDictionaryFileTypes()) {
+                    long[] bounds = dictionary.getLoadChunks(pos, fileType);
+                    long length = fileManager.getFileLength(pos, fileType);
+                    Assert.assertEquals(fileManager.getFirstLinePointer(pos, fileType), bounds[0]);
+                    Assert.assertEquals(length, bounds[bounds.length - 1]);
+                    maxChunks = Math.max(maxChunks, bounds.length - 1);
+
+                    RandomAccessFile file = new RandomAccessFile(fileManager.getFile(pos, fileType).getFile(), "r");
+                    try {
+                        for (int i = 1; i < bounds.length - 1; i++) {
+                            Assert.assertTrue(bounds[i - 1] < bounds[i]);
+                            // a chunk starts right after a line end
+                            file.seek(bounds[i] - 1);
+                            Assert.assertEquals('\n', file.read());
+                            if (DictionaryFileType.DATA == fileType) {
+                                // data file lines start with their own offset
+                                String line = fileManager.readLineAt(pos, fileType, bounds[i]);
+                                Assert.assertEquals(bounds[i], Long.parseLong(line.substring(0, line.indexOf(' '))));
+                            }
+                        }
+                    } finally {
+                        file.close();
+                    }
+                }
+            }
+            Assert.assertTrue(1 < maxChunks);
+        } finally {
+            dictionary.close();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.DictionaryElementType;
+import net.sf.extjwnl.data.IndexWord;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.data.Synset;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests the cache of missing index words and exceptions.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestFileBackedNegativeCache {
+
+    @Test
+    public void testNegativeCache() throws JWNLException {
+        FileBackedDictionary dictionary = (FileBackedDictionary) Dictionary.getInstance(
+                TestFileBackedNegativeCache.class.getResourceAsStream("/test_file_negative_cache_properties.xml"));
+        try {
+            Assert.assertNull(dictionary.getIndexWord(POS.NOUN, "qwertyuiop"));
+            Assert.assertTrue(dictionary.isMissCached(DictionaryElementType.INDEX_WORD, POS.NOUN, "qwertyuiop"));
+            Assert.assertNull(dictionary.getIndexWord(POS.NOUN, "qwertyuiop"));
+            Assert.assertNull(dictionary.getException(POS.NOUN, "qwertyuiops"));
+            Assert.assertTrue(dictionary.isMissCached(DictionaryElementType.EXCEPTION, POS.NOUN, "qwertyuiops"));
+
+            Assert.assertNotNull(dictionary.getIndexWord(POS.NOUN, "tank"));
+            Assert.assertFalse(dictionary.isMissCached(DictionaryElementType.INDEX_WORD, POS.NOUN, "tank"));
+
+            dictionary.clearCache(DictionaryElementType.EXCEPTION);
+            Assert.assertTrue(dictionary.isMissCached(DictionaryElementType.INDEX_WORD, POS.NOUN, "qwertyuiop"));
+            Assert.assertFalse(dictionary.isMissCached(DictionaryElementType.EXCEPTION, POS.NOUN, "qwertyuiops"));
+
+            dictionary.edit();
+            Assert.assertFalse(dictionary.isMissCached(DictionaryElementType.INDEX_WORD, POS.NOUN, "qwertyuiop"));
+
+            dictionary.cacheMiss(DictionaryElementType.INDEX_WORD, POS.NOUN, "qwertyuiop");
+            IndexWord word = new IndexWord(dictionary, "qwertyuiop", POS.NOUN, new Synset(dictionary, POS.NOUN));
+            Assert.assertFalse(dictionary.isMissCached(DictionaryElementType.INDEX_WORD, POS.NOUN, "qwertyuiop"));
+            Assert.assertEquals(word, dictionary.getIndexWord(POS.NOUN, "qwertyuiop"));
+        } finally {
+            dictionary.close();
+        }
+    }
+
+    @Test
+    public void testDisabledByDefault() throws JWNLException {
+        FileBackedDictionary dictionary = (FileBackedDictionary) Dictionary.getInstance(
+                TestFileBackedNegativeCache.class.getResourceAsStream("/test_file_properties.xml"));
+        try {
+            Assert.assertNull(dictionary.getIndexWord(POS.NOUN, "qwertyuiop"));
+            Assert.assertFalse(dictionary.isMissCached(DictionaryElementType.INDEX_WORD, POS.NOUN, "qwertyuiop"));
+        } finally {
+            dictionary.close();
+        }
+    }
+}
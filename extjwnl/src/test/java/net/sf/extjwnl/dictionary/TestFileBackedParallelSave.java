@@ -0,0 +1,52 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Tests that parallel save writes the same files as save in one thread.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestFileBackedParallelSave {
+
+    private static final int SYNSET_COUNT = 50;
+
+    @Test
+    public void testSameFiles() throws JWNLException, IOException {
+        Map<String, byte[]> sequential = save("/test_clean_file.xml", "clean-file");
+        Map<String, byte[]> parallel = save("/test_clean_file_parallel_save.xml", "clean-file-parallel-save");
+        Assert.assertTrue(sequential.containsKey("data.noun"));
+        Assert.assertTrue(sequential.containsKey("index.sense"));
+        Assert.assertEquals(sequential.keySet(), parallel.keySet());
+        for (String name : sequential.keySet()) {
+            Assert.assertTrue(name, Arrays.equals(sequential.get(name), parallel.get(name)));
+        }
+    }
+
+    /**
+     * Saves the same content into an empty dictionary and returns its files.
+     */
+    private static Map<String, byte[]> save(String properties, String path) throws JWNLException, IOException {
+        Dictionary dictionary = Dictionary.getInstance(TestFileBackedParallelSave.class.getResourceAsStream(properties));
+        dictionary.close();
+        dictionary.delete();
+
+        dictionary = Dictionary.getInstance(TestFileBackedParallelSave.class.getResourceAsStream(properties));
+        try {
+            dictionary.edit();
+            DictionaryTestUtils.populate(dictionary, SYNSET_COUNT);
+            dictionary.save();
+            dictionary.close();
+            return DictionaryTestUtils.readFiles(new File(System.getProperty("extjwnl.testDataFolder"), path));
+        } finally {
+            dictionary.close();
+            dictionary.delete();
+        }
+    }
+}
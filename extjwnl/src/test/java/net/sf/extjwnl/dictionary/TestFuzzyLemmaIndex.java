@@ -0,0 +1,94 @@
+package net.sf.extjwnl.dictionary;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestFuzzyLemmaIndex {
+
+    @Test
+    public void testRanking() {
+        FuzzyLemmaIndex.Builder builder = new FuzzyLemmaIndex.Builder();
+        builder.add("stop", 10);
+        builder.add("stoop", 2);
+        builder.add("step", 5);
+        builder.add("stopper", 1);
+        builder.add("shop", 8);
+        FuzzyLemmaIndex index = builder.build();
+        Assert.assertEquals(5, index.size());
+
+        Assert.assertEquals(Arrays.asList("stop", "stoop"), index.lookup("stopp", 1, 10));
+        Assert.assertEquals(Arrays.asList("stop", "shop", "step", "stoop"), index.lookup("stop", 1, 10));
+        Assert.assertEquals(Arrays.asList("stop", "shop"), index.lookup("stop", 1, 2));
+        Assert.assertEquals(Collections.singletonList("stop"), index.lookup("stop", 0, 10));
+        Assert.assertEquals(Collections.<String>emptyList(), index.lookup("xyz", 1, 10));
+        Assert.assertEquals(Collections.<String>emptyList(), index.lookup("stop", -1, 10));
+    }
+
+    @Test
+    public void testBruteForce() {
+        Random random = new Random(42);
+        List<String> lemmas = new ArrayList<String>();
+        FuzzyLemmaIndex.Builder builder = new FuzzyLemmaIndex.Builder();
+        for (int i = 0; i < 2000; i++) {
+            String lemma = randomString(random);
+            if (!lemmas.contains(lemma)) {
+                lemmas.add(lemma);
+                builder.add(lemma, 1);
+            }
+        }
+        FuzzyLemmaIndex index = builder.build();
+
+        for (int i = 0; i < 200; i++) {
+            String query = randomString(random);
+            for (int maxEdits = 0; maxEdits <= 2; maxEdits++) {
+                List<String> expected = new ArrayList<String>();
+                for (String lemma : lemmas) {
+                    if (distance(query, lemma) <= maxEdits) {
+                        expected.add(lemma);
+                    }
+                }
+                List<String> actual = index.lookup(query, maxEdits, Integer.MAX_VALUE);
+                for (int j = 1; j < actual.size(); j++) {
+                    Assert.assertTrue(distance(query, actual.get(j - 1)) <= distance(query, actual.get(j)));
+                }
+                Collections.sort(expected);
+                Collections.sort(actual);
+                Assert.assertEquals(expected, actual);
+            }
+        }
+    }
+
+    private static String randomString(Random random) {
+        char[] result = new char[1 + random.nextInt(6)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (char) ('a' + random.nextInt(4));
+        }
+        return new String(result);
+    }
+
+    private static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= b.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
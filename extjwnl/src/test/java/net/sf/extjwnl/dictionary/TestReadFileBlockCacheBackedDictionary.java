@@ -0,0 +1,26 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+import java.io.IOException;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestReadFileBlockCacheBackedDictionary extends DictionaryReadTester {
+
+    @BeforeClass
+    public static void initDictionary() throws IOException, JWNLException {
+        s_dictionary = Dictionary.getInstance(
+                TestReadFileBlockCacheBackedDictionary.class.getResourceAsStream("/test_file_block_cache_properties.xml"));
+    }
+
+    @AfterClass
+    public static void closeDictionary() throws IOException, JWNLException {
+        if (null != s_dictionary) {
+            s_dictionary.close();
+        }
+    }
+}
\ No newline at end of file
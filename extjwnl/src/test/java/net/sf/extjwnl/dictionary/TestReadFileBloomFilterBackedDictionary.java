@@ -0,0 +1,64 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.DictionaryElementType;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.dictionary.file.DictionaryFileType;
+import net.sf.extjwnl.dictionary.file_manager.FileManagerImpl;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestReadFileBloomFilterBackedDictionary extends DictionaryReadTester {
+
+    @BeforeClass
+    public static void initDictionary() throws IOException, JWNLException {
+        s_dictionary = Dictionary.getInstance(
+                TestReadFileBloomFilterBackedDictionary.class.getResourceAsStream("/test_file_bloom_filter_properties.xml"));
+    }
+
+    @AfterClass
+    public static void closeDictionary() throws IOException, JWNLException {
+        if (null != s_dictionary) {
+            s_dictionary.close();
+        }
+    }
+
+    @Test
+    public void testBloomFilters() throws JWNLException, IOException {
+        FileBackedDictionary d = (FileBackedDictionary) dictionary;
+        Assert.assertNotNull(d.getBloomFilters());
+
+        // no false negatives
+        FileManagerImpl fileManager = (FileManagerImpl) d.getFileManager();
+        for (DictionaryElementType type : new DictionaryElementType[]{DictionaryElementType.INDEX_WORD, DictionaryElementType.EXCEPTION}) {
+            DictionaryFileType fileType = DictionaryElementType.INDEX_WORD == type ? DictionaryFileType.INDEX : DictionaryFileType.EXCEPTION;
+            long offset = fileManager.getFirstLinePointer(POS.ADVERB, fileType);
+            while (0 <= offset) {
+                String line = fileManager.readLineAt(POS.ADVERB, fileType, offset);
+                if (null == line || "".equals(line)) {
+                    break;
+                }
+                String lemma = line.substring(0, line.indexOf(' '));
+                Assert.assertTrue(lemma, d.mightContain(type, POS.ADVERB, lemma));
+                offset = fileManager.getNextLinePointer(POS.ADVERB, fileType, offset);
+            }
+        }
+
+        // false positives at about the configured rate of 0.01
+        int positives = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (d.mightContain(DictionaryElementType.INDEX_WORD, POS.ADVERB, "qwerty" + i)) {
+                positives++;
+            }
+        }
+        Assert.assertTrue(positives < 50);
+        Assert.assertNull(d.getIndexWord(POS.ADVERB, "qwertyuiop"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.DictionaryElementType;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.dictionary.file.DictionaryFileType;
+import net.sf.extjwnl.dictionary.file_manager.FileManagerImpl;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestReadFileCacheBytesBackedDictionary extends DictionaryReadTester {
+
+    @BeforeClass
+    public static void initDictionary() throws IOException, JWNLException {
+        s_dictionary = Dictionary.getInstance(
+                TestReadFileCacheBytesBackedDictionary.class.getResourceAsStream("/test_file_cache_bytes_properties.xml"));
+    }
+
+    @AfterClass
+    public static void closeDictionary() throws IOException, JWNLException {
+        if (null != s_dictionary) {
+            s_dictionary.close();
+        }
+    }
+
+    @Test
+    public void testCacheBytes() throws JWNLException, IOException {
+        FileBackedDictionary d = (FileBackedDictionary) dictionary;
+        // 64k budget per element type
+        Assert.assertEquals(65536, d.getCacheCapacity(DictionaryElementType.SYNSET));
+
+        // synsets weigh hundreds of bytes, 1000 of them do not fit
+        FileManagerImpl fileManager = (FileManagerImpl) d.getFileManager();
+        long offset = fileManager.getFirstLinePointer(POS.NOUN, DictionaryFileType.DATA);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertNotNull(d.getSynsetAt(POS.NOUN, offset));
+            offset = fileManager.getNextLinePointer(POS.NOUN, DictionaryFileType.DATA, offset);
+        }
+        int size = d.getCacheSizes(DictionaryElementType.SYNSET);
+        Assert.assertTrue(0 < size);
+        Assert.assertTrue(size < 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCacheBytesOverflow() {
+        // a part of speech budget does not fit into int
+        ((FileBackedDictionary) dictionary).setCacheBytes(DictionaryElementType.EXCEPTION, Long.MAX_VALUE);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.princeton.file.PrincetonCompressedDictionaryFile;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestReadFileCompressedBackedDictionary extends DictionaryReadTester {
+
+    @BeforeClass
+    public static void initDictionary() throws IOException, JWNLException {
+        File source = new File(System.getProperty("extjwnl.testDataFolder"), "net/sf/extjwnl/data/wordnet/wn31");
+        File destination = new File(source.getParentFile(), "wn31-compressed");
+        if (!destination.exists() && !destination.mkdirs()) {
+            throw new IOException("Cannot create " + destination);
+        }
+        File[] files = source.listFiles();
+        if (null != files) {
+            for (File file : files) {
+                if (file.isFile()) {
+                    // small blocks to cross block boundaries often
+                    PrincetonCompressedDictionaryFile.compress(file, new File(destination, file.getName()), 4096);
+                }
+            }
+        }
+        s_dictionary = Dictionary.getInstance(
+                TestReadFileCompressedBackedDictionary.class.getResourceAsStream("/test_file_compressed_properties.xml"));
+    }
+
+    @AfterClass
+    public static void closeDictionary() throws IOException, JWNLException {
+        if (null != s_dictionary) {
+            s_dictionary.close();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.dictionary.file.DictionaryFileType;
+import net.sf.extjwnl.dictionary.file_manager.FileManagerImpl;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestReadFileLineOffsetsBackedDictionary extends DictionaryReadTester {
+
+    @BeforeClass
+    public static void initDictionary() throws IOException, JWNLException {
+        s_dictionary = Dictionary.getInstance(
+                TestReadFileLineOffsetsBackedDictionary.class.getResourceAsStream("/test_file_line_offsets_properties.xml"));
+    }
+
+    @AfterClass
+    public static void closeDictionary() throws IOException, JWNLException {
+        if (null != s_dictionary) {
+            s_dictionary.close();
+        }
+    }
+
+    @Test
+    public void testIndexedLinePointers() throws IOException {
+        // every line is found at its offset through the line offset table
+        FileManagerImpl fileManager = (FileManagerImpl) ((FileBackedDictionary) dictionary).getFileManager();
+        for (DictionaryFileType fileType : new DictionaryFileType[]{DictionaryFileType.INDEX, DictionaryFileType.EXCEPTION}) {
+            int count = 0;
+            long offset = fileManager.getFirstLinePointer(POS.ADVERB, fileType);
+            while (0 <= offset) {
+                String line = fileManager.readLineAt(POS.ADVERB, fileType, offset);
+                if (null == line || "".equals(line)) {
+                    break;
+                }
+                String lemma = line.substring(0, line.indexOf(' '));
+                Assert.assertEquals(lemma, offset, fileManager.getIndexedLinePointer(POS.ADVERB, fileType, lemma));
+                offset = fileManager.getNextLinePointer(POS.ADVERB, fileType, offset);
+                count++;
+            }
+            Assert.assertTrue(0 < count);
+            Assert.assertTrue(0 > fileManager.getIndexedLinePointer(POS.ADVERB, fileType, "0"));
+            Assert.assertTrue(0 > fileManager.getIndexedLinePointer(POS.ADVERB, fileType, "zzzzzz"));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,48 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.dictionary.file.DictionaryFileType;
+import net.sf.extjwnl.dictionary.file_manager.FileManagerImpl;
+import net.sf.extjwnl.princeton.file.PrincetonMappedDictionaryFile;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestReadFileMappedBackedDictionary extends DictionaryReadTester {
+
+    @BeforeClass
+    public static void initDictionary() throws IOException, JWNLException {
+        s_dictionary = Dictionary.getInstance(
+                TestReadFileMappedBackedDictionary.class.getResourceAsStream("/test_file_mapped_properties.xml"));
+    }
+
+    @AfterClass
+    public static void closeDictionary() throws IOException, JWNLException {
+        if (null != s_dictionary) {
+            s_dictionary.close();
+        }
+    }
+
+    @Test
+    public void testMappedFiles() throws IOException {
+        FileManagerImpl fileManager = (FileManagerImpl) ((FileBackedDictionary) dictionary).getFileManager();
+        for (POS pos : POS.getAllPOS()) {
+            for (DictionaryFileType fileType : DictionaryFileType.getAllDictionaryFileTypes()) {
+                Assert.assertTrue(fileManager.getFile(pos, fileType) instanceof PrincetonMappedDictionaryFile);
+            }
+        }
+
+        // reads bytes at the offset, across the whole file, without decoding it
+        PrincetonMappedDictionaryFile data = (PrincetonMappedDictionaryFile) fileManager.getFile(POS.NOUN, DictionaryFileType.DATA);
+        String line = data.readLineAt(wn31TankOffset);
+        Assert.assertEquals(wn31TankOffset, Long.parseLong(line.substring(0, line.indexOf(' '))));
+        Assert.assertEquals(data.length(), data.getFile().length());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,47 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.DictionaryElementType;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.data.Synset;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestReadFileParallelLoadBackedDictionary extends DictionaryReadTester {
+
+    @BeforeClass
+    public static void initDictionary() throws IOException, JWNLException {
+        s_dictionary = Dictionary.getInstance(
+                TestReadFileParallelLoadBackedDictionary.class.getResourceAsStream("/test_file_parallel_load_properties.xml"));
+        ((FileBackedDictionary) s_dictionary).cacheAll();
+    }
+
+    @AfterClass
+    public static void closeDictionary() throws IOException, JWNLException {
+        if (null != s_dictionary) {
+            s_dictionary.close();
+        }
+    }
+
+    @Test
+    public void testAllSynsetsCached() throws JWNLException {
+        // synsets at chunk bounds are neither lost nor loaded twice
+        int count = 0;
+        for (POS pos : POS.getAllPOS()) {
+            Iterator<Synset> i = dictionary.getSynsetIterator(pos);
+            while (i.hasNext()) {
+                i.next();
+                count++;
+            }
+        }
+        Assert.assertEquals(count, ((FileBackedDictionary) dictionary).getCacheSizes(DictionaryElementType.SYNSET));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.IndexWord;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.dictionary.file.DictionaryFileType;
+import net.sf.extjwnl.dictionary.file_manager.FileManagerImpl;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestReadFileTinyLFUCacheBackedDictionary extends DictionaryReadTester {
+
+    @BeforeClass
+    public static void initDictionary() throws IOException, JWNLException {
+        s_dictionary = Dictionary.getInstance(
+                TestReadFileTinyLFUCacheBackedDictionary.class.getResourceAsStream("/test_file_tinylfu_cache_properties.xml"));
+    }
+
+    @AfterClass
+    public static void closeDictionary() throws IOException, JWNLException {
+        if (null != s_dictionary) {
+            s_dictionary.close();
+        }
+    }
+
+    @Test
+    public void testScanResistance() throws JWNLException, IOException {
+        IndexWord tank = dictionary.getIndexWord(POS.NOUN, "tank");
+        for (int i = 0; i < 10; i++) {
+            Assert.assertSame(tank, dictionary.getIndexWord(POS.NOUN, "tank"));
+        }
+
+        // a scan of words used once, ten times the cache size, does not evict a frequently used word
+        List<String> lemmas = new ArrayList<String>();
+        FileManagerImpl fileManager = (FileManagerImpl) ((FileBackedDictionary) dictionary).getFileManager();
+        long offset = fileManager.getFirstLinePointer(POS.NOUN, DictionaryFileType.INDEX);
+        while (lemmas.size() < 1000) {
+            String line = fileManager.readLineAt(POS.NOUN, DictionaryFileType.INDEX, offset);
+            lemmas.add(line.substring(0, line.indexOf(' ')).replace('_', ' '));
+            offset = fileManager.getNextLinePointer(POS.NOUN, DictionaryFileType.INDEX, offset);
+        }
+        for (String lemma : lemmas) {
+            Assert.assertNotNull(dictionary.getIndexWord(POS.NOUN, lemma));
+        }
+        Assert.assertSame(tank, dictionary.getIndexWord(POS.NOUN, "tank"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,63 @@
+package net.sf.extjwnl.dictionary;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.POS;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.*;
+import java.net.URL;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestResourceCachedDictionary extends DictionaryReadTester {
+
+    @BeforeClass
+    public static void initDictionary() throws IOException, JWNLException {
+        s_dictionary = Dictionary.getInstance(
+                TestResourceCachedDictionary.class.getResourceAsStream("/test_resource_cached_properties.xml"));
+    }
+
+    @AfterClass
+    public static void closeDictionary() throws IOException, JWNLException {
+        if (null != s_dictionary) {
+            s_dictionary.close();
+        }
+    }
+
+    @Test
+    public void testLazyExtraction() throws IOException, JWNLException {
+        File cacheDir = File.createTempFile("extjwnl", ".d");
+        Assert.assertTrue(cacheDir.delete());
+        String properties = DictionaryTestUtils.readResource("/test_resource_cached_properties.xml")
+                .replaceAll("name=\"cache_dir\" value=\"[^\"]*\"",
+                        "name=\"cache_dir\" value=\"" + cacheDir.getAbsolutePath().replace('\\', '/') + "\"");
+        Dictionary d = Dictionary.getInstance(new ByteArrayInputStream(properties.getBytes("UTF-8")));
+        try {
+            String name = "/net/sf/extjwnl/data/wordnet/wn31/data.verb";
+            File extracted = new File(cacheDir, name);
+            Assert.assertFalse(extracted.exists());
+
+            Assert.assertNotNull(d.getSynsetAt(POS.VERB, wn31VerbOffset));
+            Assert.assertTrue(extracted.exists());
+            URL url = TestResourceCachedDictionary.class.getResource(name);
+            Assert.assertEquals(url.openConnection().getContentLength(), extracted.length());
+        } finally {
+            d.close();
+            delete(cacheDir);
+        }
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (null != files) {
+            for (File f : files) {
+                delete(f);
+            }
+        }
+        Assert.assertTrue(!file.exists() || file.delete());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package net.sf.extjwnl.dictionary.file_manager;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestUseCountTable {
+
+    @Test
+    public void testSorted() {
+        UseCountTable.Builder builder = new UseCountTable.Builder();
+        builder.add("0%1:23:00:: 1 20");
+        builder.add("0%5:00:00:cardinal:00 1 3");
+        builder.add("1%1:23:00:: 1 21");
+        builder.add("");
+        UseCountTable table = builder.build();
+        Assert.assertEquals(3, table.size());
+        Assert.assertEquals(20, table.get("0%1:23:00::"));
+        Assert.assertEquals(3, table.get("0%5:00:00:cardinal:00"));
+        Assert.assertEquals(21, table.get("1%1:23:00::"));
+        Assert.assertEquals(0, table.get("0%1:23:00:"));
+        Assert.assertEquals(0, table.get("2%1:23:00::"));
+        Assert.assertEquals(0, table.get(""));
+    }
+
+    @Test
+    public void testUnsorted() {
+        UseCountTable.Builder builder = new UseCountTable.Builder();
+        for (int i = 9999; 0 <= i; i--) {
+            builder.add("key" + i + " 1 " + i);
+        }
+        UseCountTable table = builder.build();
+        Assert.assertEquals(10000, table.size());
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertEquals(i, table.get("key" + i));
+        }
+        Assert.assertEquals(0, table.get("key10000"));
+    }
+}
@@ -0,0 +1,55 @@
+package net.sf.extjwnl.princeton.file;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestBufferedLineWriter {
+
+    @Test
+    public void testSmallBuffer() throws IOException {
+        Charset charset = Charset.forName("UTF-8");
+        StringBuilder expected = new StringBuilder();
+        File file = File.createTempFile("extjwnl", ".txt");
+        try {
+            FileChannel channel = new FileOutputStream(file).getChannel();
+            try {
+                // smaller than a line, every line overflows the buffer
+                BufferedLineWriter writer = new BufferedLineWriter(channel, ByteBuffer.allocate(7), charset);
+                for (int i = 0; i < 100; i++) {
+                    String line = "line " + i + " caf\u00e9 \u043b\u0456\u043d\u0456\u044f";
+                    Assert.assertEquals(line.getBytes("UTF-8").length, writer.writeLine(line));
+                    expected.append(line).append('\n');
+                }
+                Assert.assertEquals(0, writer.write(""));
+                writer.flush();
+            } finally {
+                channel.close();
+            }
+
+            byte[] bytes = new byte[(int) file.length()];
+            FileInputStream input = new FileInputStream(file);
+            try {
+                int count = 0;
+                while (count < bytes.length) {
+                    count = count + input.read(bytes, count, bytes.length - count);
+                }
+            } finally {
+                input.close();
+            }
+            Assert.assertEquals(expected.toString(), new String(bytes, "UTF-8"));
+        } finally {
+            Assert.assertTrue(file.delete());
+        }
+    }
+}
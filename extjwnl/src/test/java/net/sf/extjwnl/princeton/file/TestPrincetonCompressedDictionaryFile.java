@@ -0,0 +1,232 @@
+package net.sf.extjwnl.princeton.file;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.POS;
+import net.sf.extjwnl.dictionary.Dictionary;
+import net.sf.extjwnl.dictionary.file.DictionaryFileType;
+import net.sf.extjwnl.util.factory.Param;
+import org.junit.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestPrincetonCompressedDictionaryFile {
+
+    private static final int BLOCK_SIZE = 16;
+
+    private static Dictionary dictionary;
+
+    private File directory;
+    private File source;
+    private PrincetonCompressedDictionaryFile file;
+
+    @BeforeClass
+    public static void initDictionary() throws JWNLException {
+        dictionary = Dictionary.getInstance(
+                TestPrincetonCompressedDictionaryFile.class.getResourceAsStream("/test_file_properties.xml"));
+    }
+
+    @AfterClass
+    public static void closeDictionary() {
+        if (null != dictionary) {
+            dictionary.close();
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        source = File.createTempFile("extjwnl", ".txt");
+        directory = new File(source.getPath() + ".d");
+        Assert.assertTrue(directory.mkdir());
+        file = new PrincetonCompressedDictionaryFile(dictionary, new HashMap<String, Param>())
+                .newInstance(dictionary, directory.getPath(), POS.NOUN, DictionaryFileType.INDEX);
+    }
+
+    @After
+    public void tearDown() {
+        file.close();
+        File[] files = directory.listFiles();
+        if (null != files) {
+            for (File f : files) {
+                Assert.assertTrue(f.delete());
+            }
+        }
+        Assert.assertTrue(directory.delete());
+        Assert.assertTrue(source.delete());
+    }
+
+    @Test
+    public void testLinesAcrossBlocks() throws IOException {
+        List<String> lines = new ArrayList<String>();
+        lines.add("a 1");
+        // as long as a block with the line end
+        lines.add("block 123456789");
+        lines.add("longer than two blocks of sixteen bytes each");
+        lines.add("");
+        lines.add("cr\rlf");
+        lines.add("x");
+        StringBuilder content = new StringBuilder();
+        List<Long> offsets = new ArrayList<Long>();
+        for (String line : lines) {
+            offsets.add((long) content.length());
+            content.append(line).append('\n');
+        }
+        open(content.toString());
+        Assert.assertEquals(content.length(), file.length());
+
+        // "cr\rlf" are two lines for the reader
+        lines.set(4, "cr");
+        lines.add(5, "lf");
+        offsets.add(5, offsets.get(4) + 3);
+        offsets.add((long) content.length());
+        for (int i = 0; i < lines.size(); i++) {
+            long offset = offsets.get(i);
+            Assert.assertEquals(lines.get(i), file.readLineAt(offset));
+            Assert.assertEquals(lines.get(i).split(" ")[0], file.readLineWordAt(offset));
+            Assert.assertEquals((long) offsets.get(i + 1), file.getNextLineOffset(offset));
+        }
+        Assert.assertNull(file.readLineAt(content.length()));
+
+        file.seek(0);
+        for (String line : lines) {
+            Assert.assertEquals(line, file.readLine());
+        }
+        Assert.assertNull(file.readLine());
+    }
+
+    @Test
+    public void testLastBlock() throws IOException {
+        // the last block is partial and the last line has no line end
+        String content = "first line 12345\nsecond\nlast";
+        open(content);
+        Assert.assertEquals(content.length(), file.length());
+        long last = content.lastIndexOf('\n') + 1;
+        Assert.assertEquals("last", file.readLineAt(last));
+        Assert.assertEquals(content.length(), file.getNextLineOffset(last));
+        Assert.assertNull(file.readLineAt(content.length()));
+
+        file.seek(content.length() - 1);
+        Assert.assertEquals('t', file.read());
+        Assert.assertEquals(-1, file.read());
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        open("");
+        Assert.assertEquals(0, file.length());
+        Assert.assertNull(file.readLineAt(0));
+        Assert.assertEquals(-1, file.read());
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptMagic() throws IOException {
+        compress("line\n");
+        corrupt(file.getFile().length() - 1);
+        file.open();
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptIndexOffset() throws IOException {
+        compress("line\n");
+        // the first byte of the index offset, which becomes negative
+        corrupt(file.getFile().length() - 12);
+        file.open();
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptBlockSize() throws IOException {
+        compress("line\n");
+        // the first byte of the block size, which becomes negative
+        corrupt(getIndexOffset());
+        file.open();
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptLength() throws IOException {
+        compress("line\n");
+        // the first byte of the uncompressed length, which becomes negative
+        corrupt(getIndexOffset() + 4);
+        file.open();
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptBlockCount() throws IOException {
+        compress("line\n");
+        // the first byte of the block count, which becomes negative
+        corrupt(getIndexOffset() + 12);
+        file.open();
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptBlockOffset() throws IOException {
+        compress("line one\nline two\nline three\n");
+        // the last byte of the second block offset, which becomes larger than the index offset
+        corrupt(getIndexOffset() + 16 + 8 + 7);
+        file.open();
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncated() throws IOException {
+        compress("line\n");
+        RandomAccessFile f = new RandomAccessFile(file.getFile(), "rw");
+        try {
+            f.setLength(8);
+        } finally {
+            f.close();
+        }
+        file.open();
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptBlock() throws IOException {
+        compress("line one\nline two\n");
+        corrupt(0);
+        file.open();
+        file.readLineAt(0);
+    }
+
+    private void open(String content) throws IOException {
+        compress(content);
+        file.open();
+    }
+
+    private void compress(String content) throws IOException {
+        FileOutputStream out = new FileOutputStream(source);
+        try {
+            out.write(content.getBytes("US-ASCII"));
+        } finally {
+            out.close();
+        }
+        PrincetonCompressedDictionaryFile.compress(source, file.getFile(), BLOCK_SIZE);
+    }
+
+    private long getIndexOffset() throws IOException {
+        RandomAccessFile f = new RandomAccessFile(file.getFile(), "r");
+        try {
+            f.seek(f.length() - 12);
+            return f.readLong();
+        } finally {
+            f.close();
+        }
+    }
+
+    private void corrupt(long position) throws IOException {
+        RandomAccessFile f = new RandomAccessFile(file.getFile(), "rw");
+        try {
+            f.seek(position);
+            int b = f.read();
+            f.seek(position);
+            f.write(~b);
+        } finally {
+            f.close();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package net.sf.extjwnl.util;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares allocation and time per parsed synset line of <code>TokenizerParser</code> and <code>LineParser</code>.
+ * Walks data.noun lines the way the Princeton element factory does. Allocation is measured with HotSpot
+ * per-thread allocation counters, where available.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+@Ignore
+public class LongTestLineParser {
+
+    private static final int runCount = 10;
+
+    private static final String[] POS_KEYS = {"n", "v", "a", "r", "s"};
+    private static final String[] POINTER_KEYS = {"!", "@", "~", "*", "&", "#m", "#s", "#p", "%m", "%s", "%p",
+            ">", "<", "^", "\\", "=", "$", "+", ";", "-", ";c", ";u", ";r", "-c", "-u", "-r", "@i", "~i"};
+
+    @Test
+    public void testBenchmark() throws Exception {
+        List<String> lines = readLines(new File(System.getProperty("extjwnl.testDataFolder"),
+                "net/sf/extjwnl/data/wordnet/wn31/data.noun"));
+        Assert.assertTrue(0 < lines.size());
+
+        long checksum = 0;
+        for (int run = 0; run < runCount; run++) {
+            long bytes = allocatedBytes();
+            long time = System.nanoTime();
+            for (String line : lines) {
+                checksum = checksum + tokenizerParse(line);
+            }
+            report("TokenizerParser", run, lines.size(), System.nanoTime() - time, allocatedBytes() - bytes);
+
+            bytes = allocatedBytes();
+            time = System.nanoTime();
+            for (String line : lines) {
+                checksum = checksum - lineParse(line);
+            }
+            report("LineParser", run, lines.size(), System.nanoTime() - time, allocatedBytes() - bytes);
+        }
+        Assert.assertEquals(0, checksum);
+    }
+
+    private static long tokenizerParse(String line) {
+        TokenizerParser tokenizer = new TokenizerParser(line, " ");
+        long result = tokenizer.nextLong();
+        result = result + tokenizer.nextLong();
+        tokenizer.nextToken();
+        int wordCount = tokenizer.nextHexInt();
+        for (int i = 0; i < wordCount; i++) {
+            result = result + tokenizer.nextToken().length();
+            result = result + tokenizer.nextHexInt();
+        }
+        int pointerCount = tokenizer.nextInt();
+        for (int i = 0; i < pointerCount; i++) {
+            result = result + tokenizer.nextToken().length();
+            result = result + tokenizer.nextLong();
+            result = result + tokenizer.nextToken().length();
+            result = result + tokenizer.nextHexInt();
+        }
+        return result;
+    }
+
+    private static long lineParse(String line) {
+        LineParser tokenizer = new LineParser(line);
+        long result = tokenizer.nextLong();
+        result = result + tokenizer.nextLong();
+        tokenizer.nextTokenIndex(POS_KEYS);
+        int wordCount = tokenizer.nextHexInt();
+        for (int i = 0; i < wordCount; i++) {
+            result = result + tokenizer.nextToken().length();
+            result = result + tokenizer.nextHexInt();
+        }
+        int pointerCount = tokenizer.nextInt();
+        for (int i = 0; i < pointerCount; i++) {
+            result = result + POINTER_KEYS[tokenizer.nextTokenIndex(POINTER_KEYS)].length();
+            result = result + tokenizer.nextLong();
+            result = result + POS_KEYS[tokenizer.nextTokenIndex(POS_KEYS)].length();
+            result = result + tokenizer.nextHexInt();
+        }
+        return result;
+    }
+
+    private static void report(String name, int run, int count, long time, long bytes) {
+        System.out.println(name + " run " + run + ": " + (time / count) + " ns/synset, "
+                + (0 <= bytes ? (bytes / count) + " bytes/synset" : "allocation not available"));
+    }
+
+    /**
+     * Returns bytes allocated by the current thread, or a negative value if the JVM does not report them.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        try {
+            // com.sun.management.ThreadMXBean, not available on all JVMs
+            Method method = bean.getClass().getMethod("getThreadAllocatedBytes", long.class);
+            method.setAccessible(true);
+            return (Long) method.invoke(bean, Thread.currentThread().getId());
+        } catch (Exception e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private static List<String> readLines(File file) throws IOException {
+        List<String> result = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String line;
+            while (null != (line = reader.readLine())) {
+                // skip license header
+                if (!line.startsWith(" ")) {
+                    result.add(line);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package net.sf.extjwnl.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.NoSuchElementException;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestLineParser {
+
+    @Test
+    public void testTokens() {
+        LineParser parser = new LineParser("00001740 03 n 01 entity 0 003 ~ 00001930 n 0000 | gloss  ");
+        Assert.assertEquals(1740L, parser.nextLong());
+        Assert.assertEquals(3, parser.nextInt());
+        Assert.assertEquals(0, parser.nextTokenIndex(new String[]{"n", "v"}));
+        Assert.assertEquals(1, parser.nextHexInt());
+        Assert.assertEquals("entity", parser.nextToken());
+        parser.skipToken();
+        Assert.assertEquals(3, parser.nextInt());
+        Assert.assertEquals(-1, parser.nextTokenIndex(new String[]{"~i", "@"}));
+        Assert.assertEquals(1930L, parser.nextLong());
+        Assert.assertEquals("n", parser.nextToken());
+        Assert.assertEquals(0, parser.nextHexInt());
+        Assert.assertEquals("|", parser.nextToken());
+        Assert.assertEquals("gloss", parser.nextToken());
+        Assert.assertFalse(parser.hasMoreTokens());
+    }
+
+    @Test
+    public void testNumbers() {
+        LineParser parser = new LineParser("ff -12 " + Integer.MAX_VALUE + " " + Integer.MIN_VALUE + " " + Long.MIN_VALUE);
+        Assert.assertEquals(255, parser.nextHexInt());
+        Assert.assertEquals(-12, parser.nextInt());
+        Assert.assertEquals(Integer.MAX_VALUE, parser.nextInt());
+        Assert.assertEquals(Integer.MIN_VALUE, parser.nextInt());
+        Assert.assertEquals(Long.MIN_VALUE, parser.nextLong());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testNotANumber() {
+        new LineParser("12a").nextInt();
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testIntOverflow() {
+        new LineParser("2147483648").nextInt();
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testNoMoreTokens() {
+        LineParser parser = new LineParser(" a ");
+        parser.skipToken();
+        parser.nextToken();
+    }
+}
@@ -0,0 +1,248 @@
+package net.sf.extjwnl.util.cache;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestBlockCache {
+
+    private static final int BLOCK_SIZE = 4;
+    private static final int LENGTH = 10;
+
+    private File file;
+    private RandomAccessFile raFile;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("extjwnl", ".tmp");
+        writeFile((byte) 0);
+        raFile = new RandomAccessFile(file, "r");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        raFile.close();
+        Assert.assertTrue(file.delete());
+    }
+
+    @Test
+    public void testHitsAndMisses() throws IOException {
+        BlockCache cache = new BlockCache(BLOCK_SIZE, 4 * BLOCK_SIZE);
+        ByteBuffer dst = ByteBuffer.allocate(2);
+        Assert.assertEquals(2, cache.read(this, raFile.getChannel(), dst, 1));
+        assertBytes(dst, 0, 1);
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+
+        dst.clear();
+        Assert.assertEquals(2, cache.read(this, raFile.getChannel(), dst, 2));
+        assertBytes(dst, 0, 2);
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testAcrossBlocks() throws IOException {
+        BlockCache cache = new BlockCache(BLOCK_SIZE, 4 * BLOCK_SIZE);
+        ByteBuffer dst = ByteBuffer.allocate(7);
+        Assert.assertEquals(7, cache.read(this, raFile.getChannel(), dst, 2));
+        assertBytes(dst, 0, 2);
+        Assert.assertEquals(3, cache.getMissCount());
+        Assert.assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testLastBlock() throws IOException {
+        BlockCache cache = new BlockCache(BLOCK_SIZE, 4 * BLOCK_SIZE);
+        ByteBuffer dst = ByteBuffer.allocate(BLOCK_SIZE);
+        Assert.assertEquals(2, cache.read(this, raFile.getChannel(), dst, 8));
+        assertBytes(dst, 0, 8);
+
+        dst.clear();
+        Assert.assertEquals(-1, cache.read(this, raFile.getChannel(), dst, LENGTH));
+        dst.clear();
+        Assert.assertEquals(-1, cache.read(this, raFile.getChannel(), dst, LENGTH + BLOCK_SIZE));
+
+        // a read past the end of file returns the bytes before it
+        dst = ByteBuffer.allocate(LENGTH);
+        Assert.assertEquals(4, cache.read(this, raFile.getChannel(), dst, 6));
+        assertBytes(dst, 0, 6);
+    }
+
+    @Test
+    public void testInvalidate() throws IOException {
+        BlockCache cache = new BlockCache(BLOCK_SIZE, 4 * BLOCK_SIZE);
+        Object other = new Object();
+        ByteBuffer dst = ByteBuffer.allocate(1);
+        cache.read(this, raFile.getChannel(), dst, 0);
+        dst.clear();
+        cache.read(other, raFile.getChannel(), dst, 0);
+        Assert.assertEquals(2, cache.size());
+
+        writeFile((byte) 100);
+        dst.clear();
+        cache.read(this, raFile.getChannel(), dst, 0);
+        Assert.assertEquals(0, dst.get(0));
+
+        cache.invalidate(this);
+        Assert.assertEquals(1, cache.size());
+        dst.clear();
+        cache.read(this, raFile.getChannel(), dst, 0);
+        Assert.assertEquals(100, dst.get(0));
+        dst.clear();
+        cache.read(other, raFile.getChannel(), dst, 0);
+        Assert.assertEquals(0, dst.get(0));
+    }
+
+    @Test
+    public void testInvalidateDuringRead() throws IOException {
+        final BlockCache cache = new BlockCache(BLOCK_SIZE, 4 * BLOCK_SIZE);
+        // the block is read before the file changes and the cache is invalidated
+        FileChannel channel = new DelegatingChannel(raFile.getChannel()) {
+            @Override
+            public int read(ByteBuffer dst, long position) throws IOException {
+                int result = super.read(dst, position);
+                writeFile((byte) 100);
+                cache.invalidate(TestBlockCache.this);
+                return result;
+            }
+        };
+        ByteBuffer dst = ByteBuffer.allocate(1);
+        cache.read(this, channel, dst, 0);
+        Assert.assertEquals(0, dst.get(0));
+
+        dst.clear();
+        cache.read(this, raFile.getChannel(), dst, 0);
+        Assert.assertEquals(100, dst.get(0));
+    }
+
+    private void writeFile(byte start) throws IOException {
+        byte[] bytes = new byte[LENGTH];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) (start + i);
+        }
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void assertBytes(ByteBuffer dst, int start, int value) {
+        for (int i = start; i < dst.position(); i++) {
+            Assert.assertEquals(value + i - start, dst.get(i));
+        }
+    }
+
+    private static class DelegatingChannel extends FileChannel {
+        private final FileChannel channel;
+
+        private DelegatingChannel(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return channel.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return channel.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return channel.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            channel.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return channel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            channel.close();
+        }
+    }
+}
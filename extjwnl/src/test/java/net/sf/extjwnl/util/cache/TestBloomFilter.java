@@ -0,0 +1,56 @@
+package net.sf.extjwnl.util.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.*;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestBloomFilter {
+
+    @Test
+    public void testMightContain() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("lemma " + i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertTrue(filter.mightContain("lemma " + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("form " + i)) {
+                falsePositives++;
+            }
+        }
+        Assert.assertTrue("False positives: " + falsePositives, falsePositives < 200);
+    }
+
+    @Test
+    public void testEmpty() {
+        BloomFilter filter = new BloomFilter(0, 0.01);
+        Assert.assertFalse(filter.mightContain("lemma"));
+        filter.put("lemma");
+        Assert.assertTrue(filter.mightContain("lemma"));
+    }
+
+    @Test
+    public void testWriteRead() throws IOException {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+        for (int i = 0; i < 100; i++) {
+            filter.put("lemma " + i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.writeTo(new DataOutputStream(bytes));
+
+        BloomFilter copy = BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(copy.mightContain("lemma " + i));
+        }
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(filter.mightContain("form " + i), copy.mightContain("form " + i));
+        }
+    }
+}
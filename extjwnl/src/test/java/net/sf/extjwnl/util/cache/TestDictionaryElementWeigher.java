@@ -0,0 +1,65 @@
+package net.sf.extjwnl.util.cache;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.DictionaryElement;
+import net.sf.extjwnl.data.Exc;
+import net.sf.extjwnl.data.IndexWord;
+import net.sf.extjwnl.data.POS;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestDictionaryElementWeigher {
+
+    private final DictionaryElementWeigher weigher = new DictionaryElementWeigher();
+
+    @Test
+    public void testWeightOf() throws JWNLException {
+        Exc exc = new Exc(null, POS.NOUN, "geese", Collections.singletonList("goose"));
+        Exc longExc = new Exc(null, POS.NOUN, "geese", Arrays.asList("goose", "gooses", "goosie"));
+        Assert.assertTrue(0 < weigher.weightOf(exc));
+        Assert.assertTrue(weigher.weightOf(exc) < weigher.weightOf(longExc));
+        Assert.assertEquals(weigher.weightOf(exc), weigher.weightOf((DictionaryElement) exc));
+
+        IndexWord word = new IndexWord(null, "goose", POS.NOUN, new long[]{1});
+        IndexWord longWord = new IndexWord(null, "goose", POS.NOUN, new long[]{1, 2, 3});
+        Assert.assertTrue(0 < weigher.weightOf(word));
+        Assert.assertTrue(weigher.weightOf(word) < weigher.weightOf(longWord));
+    }
+
+    @Test
+    public void testLRUCache() {
+        Cache<Integer, String> cache = new LRUCache<Integer, String>(100, new StringWeigher());
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "0123456789");
+        }
+        Assert.assertEquals(10, cache.size());
+    }
+
+    @Test
+    public void testTinyLFUCache() {
+        Cache<Integer, String> cache = new TinyLFUCache<Integer, String>(100, new StringWeigher());
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "0123456789");
+        }
+        Assert.assertEquals(10, cache.size());
+
+        cache.put(1000, "");
+        cache.put(1000, "01234567890123456789");
+        Assert.assertTrue(cache.size() <= 9);
+
+        cache.setCapacity(20);
+        Assert.assertTrue(cache.size() <= 2);
+    }
+
+    private static class StringWeigher implements Weigher<String> {
+        public int weightOf(String value) {
+            return value.length();
+        }
+    }
+}
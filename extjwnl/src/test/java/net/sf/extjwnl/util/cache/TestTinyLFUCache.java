@@ -0,0 +1,177 @@
+package net.sf.extjwnl.util.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class TestTinyLFUCache {
+
+    @Test
+    public void testPutGetRemove() {
+        Cache<String, Integer> cache = new TinyLFUCache<String, Integer>(10);
+        Assert.assertNull(cache.put("a", 1));
+        Assert.assertEquals(Integer.valueOf(1), cache.put("a", 2));
+        Assert.assertEquals(Integer.valueOf(2), cache.get("a"));
+        Assert.assertTrue(cache.containsKey("a"));
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals(Integer.valueOf(2), cache.remove("a"));
+        Assert.assertNull(cache.remove("a"));
+        Assert.assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    public void testCapacity() {
+        Cache<Integer, Integer> cache = new TinyLFUCache<Integer, Integer>(100);
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+            cache.get(i % 50);
+        }
+        Assert.assertEquals(100, cache.size());
+        Assert.assertEquals(100, cache.getCapacity());
+
+        cache.setCapacity(10);
+        Assert.assertEquals(10, cache.size());
+
+        cache.setCapacity(0);
+        cache.put(1, 1);
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testIterator() {
+        Cache<Integer, Integer> cache = new TinyLFUCache<Integer, Integer>(100);
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, -i);
+        }
+        int count = 0;
+        Iterator<Map.Entry<Integer, Integer>> i = cache.entrySet().iterator();
+        while (i.hasNext()) {
+            Map.Entry<Integer, Integer> entry = i.next();
+            Assert.assertEquals(-entry.getKey(), entry.getValue().intValue());
+            if (0 == entry.getKey() % 2) {
+                i.remove();
+            }
+            count++;
+        }
+        Assert.assertEquals(10, count);
+        Assert.assertEquals(5, cache.size());
+        Assert.assertEquals(5, cache.values().size());
+        Assert.assertFalse(cache.containsKey(2));
+
+        cache.clear();
+        Assert.assertTrue(cache.isEmpty());
+    }
+
+    @Test
+    public void testScanResistance() {
+        Cache<String, String> cache = new TinyLFUCache<String, String>(100);
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot" + i, "hot");
+        }
+        for (int j = 0; j < 3; j++) {
+            for (int i = 0; i < 50; i++) {
+                Assert.assertNotNull(cache.get("hot" + i));
+            }
+        }
+        for (int i = 0; i < 1000; i++) {
+            cache.put("scan" + i, "scan");
+        }
+        for (int i = 0; i < 50; i++) {
+            Assert.assertNotNull(cache.get("hot" + i));
+        }
+    }
+
+    @Test
+    public void testLargeCapacity() {
+        // frequencies are not tracked, the cache evicts the least recently used elements
+        Cache<Integer, Integer> cache = new TinyLFUCache<Integer, Integer>(Integer.MAX_VALUE, new Weigher<Integer>() {
+            @Override
+            public int weightOf(Integer value) {
+                return Integer.MAX_VALUE / 4;
+            }
+        });
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i);
+            Assert.assertEquals(Integer.valueOf(i), cache.get(i));
+        }
+        Assert.assertEquals(4, cache.size());
+        for (int i = 6; i < 10; i++) {
+            Assert.assertEquals(Integer.valueOf(i), cache.get(i));
+        }
+    }
+
+    @Test
+    public void testStats() {
+        StatisticsCache<Integer, Integer> cache = new TinyLFUCache<Integer, Integer>(10);
+        for (int i = 0; i < 20; i++) {
+            cache.put(i, i);
+        }
+        Assert.assertNull(cache.get(100));
+        Assert.assertNotNull(cache.get(19));
+        Assert.assertEquals(1, cache.getStats().getHitCount());
+        Assert.assertEquals(1, cache.getStats().getMissCount());
+        Assert.assertEquals(10, cache.getStats().getEvictionCount());
+
+        cache.getStats().reset();
+        Assert.assertEquals(0, cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void testHitRatio() {
+        // Zipfian lookups of 10000 lemmas with an occasional scan of 2000 lemmas looked up once
+        Random random = new Random(17);
+        int lemmas = 10000;
+        double[] cdf = new double[lemmas];
+        double sum = 0;
+        for (int i = 0; i < lemmas; i++) {
+            sum = sum + 1.0 / (i + 1);
+            cdf[i] = sum;
+        }
+        String[] trace = new String[220000];
+        int t = 0;
+        int scans = 0;
+        while (t < trace.length) {
+            if (0 == t % 22000) {
+                for (int i = 0; i < 2000; i++) {
+                    trace[t++] = "scan " + scans + " " + i;
+                }
+                scans++;
+            } else {
+                double x = random.nextDouble() * sum;
+                int low = 0;
+                int high = lemmas - 1;
+                while (low < high) {
+                    int middle = (low + high) >>> 1;
+                    if (cdf[middle] < x) {
+                        low = middle + 1;
+                    } else {
+                        high = middle;
+                    }
+                }
+                trace[t++] = "lemma " + low;
+            }
+        }
+
+        double lru = hitRatio(new LRUCache<String, String>(500), trace);
+        double tinyLFU = hitRatio(new TinyLFUCache<String, String>(500), trace);
+        Assert.assertTrue("LRU: " + lru + " W-TinyLFU: " + tinyLFU, lru + 0.05 < tinyLFU);
+    }
+
+    private static double hitRatio(Cache<String, String> cache, String[] trace) {
+        int hits = 0;
+        for (String key : trace) {
+            if (null == cache.get(key)) {
+                cache.put(key, key);
+            } else {
+                hits++;
+            }
+        }
+        return (double) hits / trace.length;
+    }
+}
@@ -0,0 +1,109 @@
+package net.sf.extjwnl.utilities;
+
+import net.sf.extjwnl.princeton.file.PrincetonCompressedDictionaryFile;
+
+import java.io.*;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * DictionaryToCompressed converts a directory with a Princeton WordNet distribution into
+ * block-compressed files, readable with <code>PrincetonCompressedDictionaryFile</code>.
+ * Dictionary files keep their names, other files are copied as they are.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class DictionaryToCompressed {
+
+    private static final String[] POS_EXTENSIONS = {"noun", "verb", "adj", "adv"};
+
+    private final File sourceDirectory;
+    private final File destinationDirectory;
+    private final int blockSize;
+
+    /**
+     * Initialize with the given source and destination directories.
+     *
+     * @param sourceDirectory      directory with Princeton dictionary files
+     * @param destinationDirectory destination directory for compressed files
+     * @param blockSize            uncompressed block size
+     */
+    public DictionaryToCompressed(String sourceDirectory, String destinationDirectory, int blockSize) {
+        this.sourceDirectory = new File(sourceDirectory);
+        this.destinationDirectory = new File(destinationDirectory);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Converts the dictionary files.
+     *
+     * @throws IOException IOException
+     */
+    public void convert() throws IOException {
+        File[] files = sourceDirectory.listFiles();
+        if (null == files) {
+            throw new FileNotFoundException(sourceDirectory.getAbsolutePath());
+        }
+        if (!destinationDirectory.exists() && !destinationDirectory.mkdirs()) {
+            throw new IOException("Cannot create " + destinationDirectory.getAbsolutePath());
+        }
+
+        Set<String> dictionaryFiles = getDictionaryFileNames();
+        for (File file : files) {
+            if (file.isFile()) {
+                File destination = new File(destinationDirectory, file.getName());
+                if (dictionaryFiles.contains(file.getName())) {
+                    System.out.println("Compressing " + file.getName() + "...");
+                    PrincetonCompressedDictionaryFile.compress(file, destination, blockSize);
+                    System.out.println("Compressed " + file.length() / 1024L + "K to " + destination.length() / 1024L + "K");
+                } else {
+                    System.out.println("Copying " + file.getName() + "...");
+                    copy(file, destination);
+                }
+            }
+        }
+    }
+
+    private static Set<String> getDictionaryFileNames() {
+        Set<String> result = new HashSet<String>();
+        for (String ext : POS_EXTENSIONS) {
+            result.add("index." + ext);
+            result.add("data." + ext);
+            result.add(ext + ".exc");
+        }
+        result.add("index.sense");
+        result.add("cntlist");
+        result.add("cntlist.rev");
+        return result;
+    }
+
+    private static void copy(File source, File destination) throws IOException {
+        InputStream in = new FileInputStream(source);
+        try {
+            OutputStream out = new FileOutputStream(destination);
+            try {
+                byte[] buffer = new byte[65536];
+                int n;
+                while (-1 != (n = in.read(buffer))) {
+                    out.write(buffer, 0, n);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    public static void main(String args[]) throws IOException {
+        if (2 == args.length || 3 == args.length) {
+            int blockSize = PrincetonCompressedDictionaryFile.DEFAULT_BLOCK_SIZE;
+            if (3 == args.length) {
+                blockSize = Integer.parseInt(args[2]);
+            }
+            new DictionaryToCompressed(args[0], args[1], blockSize).convert();
+        } else {
+            System.out.println("Usage: DictionaryToCompressed <source directory> <destination directory> [block size]");
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package net.sf.extjwnl.utilities;
+
+import net.sf.extjwnl.JWNLException;
+import net.sf.extjwnl.data.*;
+import net.sf.extjwnl.dictionary.Dictionary;
+import net.sf.extjwnl.dictionary.DictionaryReadTester;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Reads files converted by DictionaryToCompressed, runs all the test cases and compares
+ * the dictionary with the source one.
+ *
+ * @author <a href="http://autayeu.com/">Aliaksandr Autayeu</a>
+ */
+public class ITReadCompressedBackedDictionary extends DictionaryReadTester {
+
+    @BeforeClass
+    public static void initDictionary() throws IOException, JWNLException {
+        dictionary = Dictionary.getInstance(
+                ITReadCompressedBackedDictionary.class.getResourceAsStream("/test_compressed_properties.xml"));
+    }
+
+    @AfterClass
+    public static void freeDictionary() {
+        if (null != dictionary) {
+            dictionary.close();
+        }
+        dictionary = null;
+    }
+
+    @Test
+    public void testRoundTrip() throws JWNLException {
+        Dictionary source = Dictionary.getInstance(
+                ITReadCompressedBackedDictionary.class.getResourceAsStream("/test_file_properties.xml"));
+        try {
+            for (POS pos : POS.getAllPOS()) {
+                Iterator<Synset> expectedSynsets = source.getSynsetIterator(pos);
+                Iterator<Synset> synsets = dictionary.getSynsetIterator(pos);
+                while (expectedSynsets.hasNext()) {
+                    Assert.assertTrue(synsets.hasNext());
+                    Synset expected = expectedSynsets.next();
+                    Synset synset = synsets.next();
+                    Assert.assertEquals(expected.getOffset(), synset.getOffset());
+                    Assert.assertEquals(expected.getGloss(), synset.getGloss());
+                    Assert.assertEquals(expected.getWords().size(), synset.getWords().size());
+                    Assert.assertEquals(expected.getPointers().size(), synset.getPointers().size());
+                }
+                Assert.assertFalse(synsets.hasNext());
+
+                Iterator<IndexWord> expectedWords = source.getIndexWordIterator(pos);
+                Iterator<IndexWord> words = dictionary.getIndexWordIterator(pos);
+                while (expectedWords.hasNext()) {
+                    Assert.assertTrue(words.hasNext());
+                    IndexWord expected = expectedWords.next();
+                    IndexWord word = words.next();
+                    Assert.assertEquals(expected.getLemma(), word.getLemma());
+                    Assert.assertArrayEquals(expected.getSynsetOffsets(), word.getSynsetOffsets());
+                }
+                Assert.assertFalse(words.hasNext());
+
+                Iterator<Exc> expectedExceptions = source.getExceptionIterator(pos);
+                Iterator<Exc> exceptions = dictionary.getExceptionIterator(pos);
+                while (expectedExceptions.hasNext()) {
+                    Assert.assertTrue(exceptions.hasNext());
+                    Exc expected = expectedExceptions.next();
+                    Exc exc = exceptions.next();
+                    Assert.assertEquals(expected.getLemma(), exc.getLemma());
+                    Assert.assertEquals(expected.getExceptions(), exc.getExceptions());
+                }
+                Assert.assertFalse(exceptions.hasNext());
+            }
+        } finally {
+            source.close();
+        }
+    }
+}